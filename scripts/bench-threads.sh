@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# 플랫폼 스레드 vs 가상 스레드 실행 모드 비교 (실제 앱 + DB/SSH 터널 대상)
+# 같은 jar 를 두 모드로 번갈아 띄우고, DB 조회 API 에 동시성을 올려가며 지연(p50/p99)을 측정
+# 필요: hey (https://github.com/rakyll/hey), ./gradlew bootJar 로 만든 jar
+#
+# 사용: scripts/bench-threads.sh [jar 경로] [userKey]
+
+set -euo pipefail
+
+JAR_FILE="${1:-$(ls build/libs/*.jar | head -n 1)}"
+USER_KEY="${2:-1}"
+PORT=18080
+URL="http://localhost:$PORT/user/alerts/$USER_KEY"
+CONCURRENCY="50 100 200 400 800"
+REQUESTS_PER_CLIENT=20
+OUT="bench-threads-$(date +%Y%m%d_%H%M%S).txt"
+
+command -v hey >/dev/null || { echo "hey 가 필요합니다"; exit 1; }
+
+run_mode() {
+  local virtual=$1
+  echo "=== spring.threads.virtual.enabled=$virtual ===" | tee -a "$OUT"
+  java -jar "$JAR_FILE" --server.port=$PORT --spring.threads.virtual.enabled="$virtual" > /dev/null 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null" EXIT
+
+  # 기동 대기 (SSH 터널 + 커넥션 풀 준비)
+  for _ in $(seq 1 60); do
+    curl -sf -o /dev/null "$URL" && break
+    sleep 1
+  done
+
+  hey -n 200 -c 20 "$URL" > /dev/null # 워밍업
+  for c in $CONCURRENCY; do
+    local result
+    result=$(hey -n $((c * REQUESTS_PER_CLIENT)) -c "$c" "$URL")
+    local p50 p99 rps
+    p50=$(echo "$result" | awk '/ 50% in/ {print $3}')
+    p99=$(echo "$result" | awk '/ 99% in/ {print $3}')
+    rps=$(echo "$result" | awk '/Requests\/sec/ {print $2}')
+    printf "concurrency=%-4s p50=%-8s p99=%-8s rps=%s\n" "$c" "$p50" "$p99" "$rps" | tee -a "$OUT"
+  done
+
+  kill $pid
+  wait $pid 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode false
+run_mode true
+echo "결과: $OUT"
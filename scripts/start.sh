@@ -9,6 +9,20 @@ DEPLOY_LOG="$PROJECT_ROOT/deploy.log"
 
 TIME_NOW=$(date +%c)
 
+# Java 21 이상 확인 (빌드가 Java 21 툴체인) / 낮으면 배포 실패로 끝냄
+JAVA_VERSION=$(java -version 2>&1 | awk -F '"' '/version/ {print $2}')
+JAVA_MAJOR=${JAVA_VERSION%%.*}
+if [ "$JAVA_MAJOR" = "1" ]; then
+  JAVA_MAJOR=$(echo "$JAVA_VERSION" | cut -d. -f2)
+fi
+case "$JAVA_MAJOR" in
+  ''|*[!0-9]*) JAVA_MAJOR=0 ;; # java 없음 / 버전 못 읽음
+esac
+if [ "$JAVA_MAJOR" -lt 21 ]; then
+  echo "$TIME_NOW > Java 21 이상 필요 (현재: ${JAVA_VERSION:-java 없음}) / 배포 중단" | tee -a $DEPLOY_LOG >&2
+  exit 1
+fi
+
 # 기존 프로세스 종료
 CURRENT_PID=$(pgrep -f $JAR_FILE)
 if [ -n "$CURRENT_PID" ]; then
@@ -21,9 +35,9 @@ fi
 echo "$TIME_NOW > $JAR_FILE 파일 복사" >> $DEPLOY_LOG
 cp $PROJECT_ROOT/build/libs/*.jar $JAR_FILE
 
-# jar 파일 실행 / 용량 문제로 log는 안나오게
-echo "$TIME_NOW > $JAR_FILE 파일 실행" >> $DEPLOY_LOG
-sudo nohup java -jar $JAR_FILE > /dev/null 2>&1 &
+# jar 파일 실행 / 용량 문제로 stdout 은 안나오게, 기동 실패 원인은 error.log 로
+echo "$TIME_NOW > $JAR_FILE 파일 실행 (java $JAVA_VERSION)" >> $DEPLOY_LOG
+sudo nohup java -jar $JAR_FILE > /dev/null 2>> $ERROR_LOG &
 
 CURRENT_PID=$(pgrep -f $JAR_FILE)
 echo "$TIME_NOW > 실행된 프로세스 아이디 $CURRENT_PID 입니다." >> $DEPLOY_LOG
@@ -0,0 +1,81 @@
+package com.kong.backend.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 플랫폼 스레드 풀(Tomcat 기본 max 200) vs 가상 스레드 비교.
+ * 요청 하나 = DB(SSH 터널) 왕복 대기 dbWaitMs 를 흉내 낸 블로킹 작업.
+ * concurrency 건을 동시에 보내고 모두 끝날 때까지의 시간 = 가장 늦은 요청의 지연.
+ * - platform: concurrency 가 풀 크기(200)를 넘으면 대기열이 생겨 지연이 계단식으로 증가
+ * - virtual: 대기 중에는 캐리어 스레드를 놓으므로 동시성이 늘어도 지연 유지
+ * - dbConnections: 커넥션 풀 크기(Hikari 기본 10) 제한. 0 이면 제한 없음 (송신/외부 대기처럼 풀 밖 대기)
+ *   풀 제한이 있으면 두 모드 모두 풀 크기에서 포화 → 가상 스레드는 스레드 고갈만 없애고 DB 처리량은 못 늘림
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"100", "200", "400", "800", "1600"})
+    public int concurrency;
+
+    @Param({"0", "10"})
+    public int dbConnections;
+
+    @Param({"20"})
+    public int dbWaitMs;
+
+    private ExecutorService executor;
+    private Semaphore pool;
+
+    @Setup
+    public void setup() {
+        executor = mode.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        pool = dbConnections > 0 ? new Semaphore(dbConnections, true) : null;
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit(this::request));
+        }
+        int sum = 0;
+        for (Future<Integer> f : futures) sum += f.get();
+        return sum;
+    }
+
+    private int request() throws InterruptedException {
+        if (pool != null) pool.acquire();
+        try {
+            Thread.sleep(dbWaitMs); // DB 왕복 대기
+            return 1;
+        } finally {
+            if (pool != null) pool.release();
+        }
+    }
+}
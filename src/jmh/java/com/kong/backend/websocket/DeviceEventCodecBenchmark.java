@@ -0,0 +1,65 @@
+package com.kong.backend.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /ws/fall 이벤트 처리 비교: 기존 트리 방식(readTree + deepCopy) vs 스트리밍 코덱
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceEventCodecBenchmark {
+
+    private static final String PAYLOAD = """
+            {"eventType":"fall","layRate":0.87,"prob":0.42,"ts":1734949883.125,"videoId":123,
+             "pose":"lay","bbox":[12,40,200,310],"meta":{"fw":"1.4.2","cam":"pi-03"}}""";
+    private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final LocalDateTime DETECTED_AT = LocalDateTime.of(2025, 10, 23, 3, 12, 45);
+
+    private ObjectMapper mapper;
+    private DeviceEventCodec codec;
+    private DeviceEvent event;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper();
+        codec = new DeviceEventCodec(mapper);
+        event = new DeviceEvent();
+    }
+
+    @Benchmark
+    public String tree() throws Exception {
+        JsonNode json = mapper.readTree(PAYLOAD);
+        String eventType = json.hasNonNull("eventType") ? json.get("eventType").asText() : null;
+        Double layRate = json.hasNonNull("layRate") && json.get("layRate").isNumber() ? json.get("layRate").asDouble() : null;
+        Double prob = json.hasNonNull("prob") && json.get("prob").isNumber() ? json.get("prob").asDouble() : null;
+        Double ts = json.hasNonNull("ts") && json.get("ts").isNumber() ? json.get("ts").asDouble() : null;
+        Integer videoId = json.hasNonNull("videoId") && json.get("videoId").canConvertToInt() ? json.get("videoId").asInt() : null;
+        if (eventType == null || ts == null || layRate == null || prob == null) return null;
+
+        ObjectNode node = json.deepCopy();
+        node.put("detectedAtIso", DETECTED_AT.format(TS_FMT));
+        node.put("userKey", 1);
+        node.put("eventType", eventType);
+        node.put("seq", 1L);
+        if (videoId != null) node.put("videoId", videoId);
+        return node.toString();
+    }
+
+    @Benchmark
+    public String streaming() throws Exception {
+        if (!codec.decode(PAYLOAD, event) || event.getEventType() == null || !event.hasTs()) return null;
+        return codec.encodeEnriched(PAYLOAD, DETECTED_AT, 1, event.getEventType(), 1L, event.videoIdOrNull());
+    }
+}
@@ -14,6 +14,9 @@ public class AlertHistoryDto {
     @Schema(description = "알림 ID", example = "1")
     private Integer alertId;
 
+    @Schema(description = "사용자 키", example = "1")
+    private Integer userKey;
+
     @Schema(description = "이벤트 종류", example = "낙상")
     private String eventType;
 
@@ -39,4 +42,7 @@ public class AlertHistoryDto {
 
     @Schema(description = "원본 epoch timestamp", example = "1757920000.1234")
     private Double ts;
+
+    @Schema(description = "연결된 영상 ID", example = "12")
+    private Integer videoId;
 }
@@ -0,0 +1,9 @@
+package com.kong.backend.DTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class UserProNumUpdateDto {
+    private String newProNum;
+}
@@ -44,7 +44,7 @@ public class WebSocketConfig implements WebSocketConfigurer {
     public ServletServerContainerFactoryBean createWebSocketContainer() {
         ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
         container.setMaxTextMessageBufferSize(1024 * 1024);   // 1MB (이벤트 JSON은 훨씬 작음)
-        container.setMaxBinaryMessageBufferSize(1024 * 1024); // 1MB (영상 바이너리 사용 시 조정)
+        container.setMaxBinaryMessageBufferSize(1024 * 1024); // 1MB (조각 단위 버퍼, 더 큰 영상 프레임은 핸들러에서 재조립)
         // 필요 시 idle timeout, async send timeout 등도 설정 가능:
         // container.setMaxSessionIdleTimeout(60_000L); // 60s
         // container.setAsyncSendTimeout(10_000L);     // 10s
@@ -0,0 +1,120 @@
+package com.kong.backend.controller;
+
+import com.kong.backend.Entity.VideoEntity;
+import com.kong.backend.service.DeviceControlService;
+import com.kong.backend.service.DeviceControlService.ClipCommand;
+import com.kong.backend.service.DeviceControlService.SaveClipAck;
+import com.kong.backend.service.DvrService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Tag(name = "디바이스 제어 API", description = "라즈베리파이 명령 전송 / ACK 상태 조회 API")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/devices")
+public class DeviceController {
+
+    private final DeviceControlService deviceControlService;
+    private final DvrService dvrService;
+
+    @Value("${app.device.command.await-ms:3000}")
+    private long awaitMs; // 요청 스레드에서 ACK 를 기다리는 최대 시간
+
+    @Operation(summary = "클립 저장 명령", description = "서버 영상 링 버퍼에 해당 디바이스 영상이 있으면 서버에서 바로 클립 저장 (videoId 반환), 없으면 해당 환자(또는 deviceId)의 Pi 로만 SAVE_CLIP 전송. 완료되면 200, 대기 시간 안에 안 끝나면 202 + 상태 조회 URL", responses = {
+            @ApiResponse(responseCode = "200", description = "디바이스 ACK 수신 / 서버 클립 저장 완료"),
+            @ApiResponse(responseCode = "202", description = "전송됨(또는 서버 저장 중), 완료 대기 중 (Location 으로 상태 조회)"),
+            @ApiResponse(responseCode = "404", description = "연결된 디바이스 없음 (서버 영상 버퍼도 없음)"),
+            @ApiResponse(responseCode = "502", description = "디바이스 오류 응답 / 전송 실패 / ACK 시간 초과")
+    })
+    @PostMapping("/{paKey}/clips")
+    public ResponseEntity<SaveClipAck> saveClip(
+            @PathVariable int paKey,
+            @RequestParam(required = false) String deviceId,
+            @RequestParam(defaultValue = "10") int durationSec,
+            @RequestParam(defaultValue = "5") int preBufferSec,
+            @RequestParam(defaultValue = "5") int postBufferSec
+    ) throws Exception {
+        ClipCommand command = deviceControlService.sendSaveClip(paKey, deviceId, durationSec, preBufferSec, postBufferSec);
+        try {
+            return toResponse(command.getAck().get(awaitMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            URI location = UriComponentsBuilder.fromPath("/devices/clips/{clipId}")
+                    .buildAndExpand(command.getClipId()).toUri();
+            return ResponseEntity.accepted().location(location).body(command.snapshot());
+        }
+    }
+
+    @Operation(summary = "클립 저장 명령 상태 조회", responses = {
+            @ApiResponse(responseCode = "200", description = "ACK 수신"),
+            @ApiResponse(responseCode = "202", description = "ACK 대기 중"),
+            @ApiResponse(responseCode = "404", description = "없는 clipId (또는 보관 기간 지남)"),
+            @ApiResponse(responseCode = "502", description = "디바이스 오류 응답 / 전송 실패 / ACK 시간 초과")
+    })
+    @GetMapping("/clips/{clipId}")
+    public ResponseEntity<SaveClipAck> getClipStatus(@PathVariable String clipId) {
+        ClipCommand command = deviceControlService.getClipCommand(clipId);
+        if (command == null) return ResponseEntity.notFound().build();
+        return toResponse(command.snapshot());
+    }
+
+    @Operation(summary = "연결된 디바이스 ID 목록", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping
+    public ResponseEntity<List<String>> getConnectedDevices() {
+        return ResponseEntity.ok(deviceControlService.connectedDeviceIds());
+    }
+
+    @Operation(summary = "녹화 구간 조회", description = "연속 녹화(app.video.dvr.enabled)가 보관 중인 가장 오래된/최근 시각 (KST)", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공"),
+            @ApiResponse(responseCode = "404", description = "녹화 없음")
+    })
+    @GetMapping("/{paKey}/recordings")
+    public ResponseEntity<DvrService.Range> getRecordingRange(
+            @PathVariable int paKey,
+            @RequestParam(required = false) String deviceId
+    ) {
+        DvrService.Range range = dvrService.range(paKey, deviceId);
+        return range == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(range);
+    }
+
+    @Operation(summary = "녹화 구간 저장", description = "연속 녹화에서 [from, to] (KST) 구간을 잘라 동영상으로 저장 (MJPEG, 재인코딩 없음). 이후 일반 동영상처럼 조회/재생", responses = {
+            @ApiResponse(responseCode = "200", description = "저장 성공"),
+            @ApiResponse(responseCode = "400", description = "잘못된 구간 / 녹화 없음"),
+            @ApiResponse(responseCode = "409", description = "구간에 녹화된 프레임 없음")
+    })
+    @PostMapping("/{paKey}/recordings/export")
+    public ResponseEntity<RecordingExportResponse> exportRecording(
+            @PathVariable int paKey,
+            @RequestParam(required = false) String deviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) throws Exception {
+        VideoEntity v = dvrService.export(paKey, deviceId, from, to);
+        return ResponseEntity.ok(new RecordingExportResponse(v.getVideoId(), v.getFilePath(), v.getFileSize()));
+    }
+
+    public record RecordingExportResponse(Integer videoId, String filePath, Long fileSize) {}
+
+    private ResponseEntity<SaveClipAck> toResponse(SaveClipAck ack) {
+        return switch (ack.state()) {
+            case ACKED -> ResponseEntity.ok(ack);
+            case PENDING -> ResponseEntity.accepted().body(ack);
+            case FAILED, TIMED_OUT -> ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(ack);
+        };
+    }
+}
@@ -142,4 +142,17 @@ public class UserController {
         return ResponseEntity.ok("전화번호 수정 성공");
     }
 
+    @Operation(summary = "보호자 번호(proNum) 수정", description = "디바이스는 /ws/fall?proNum= 으로 이 번호를 보내 유저를 식별함", responses = {
+            @ApiResponse(responseCode = "200", description = "보호자 번호 수정 성공"),
+            @ApiResponse(responseCode = "404", description = "해당 유저 없음")
+    })
+    @PatchMapping("/{userKey}/pronum")
+    public ResponseEntity<String> updateUserProNum(
+            @PathVariable Integer userKey,
+            @RequestBody UserProNumUpdateDto dto) {
+
+        userService.updateUserProNum(userKey, dto);
+        return ResponseEntity.ok("보호자 번호 수정 성공");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.kong.backend.controller;
+
+import com.kong.backend.service.AlertCoalescer;
+import com.kong.backend.service.DeviceEventPipeline;
+import com.kong.backend.service.DvrService;
+import com.kong.backend.service.IngestRateLimiter;
+import com.kong.backend.websocket.AdmissionControl;
+import com.kong.backend.websocket.AlertBatcher;
+import com.kong.backend.websocket.AlertBus;
+import com.kong.backend.websocket.LaneMetrics;
+import com.kong.backend.websocket.MonitorScaler;
+import com.kong.backend.websocket.OutboundDispatcher;
+import com.kong.backend.websocket.SessionOutbound;
+import com.kong.backend.websocket.SessionRegistry;
+import com.kong.backend.websocket.VideoRingBuffers;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "웹소켓 모니터링 API", description = "WebSocket 세션 송신 상태 조회 API")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/ws")
+public class WebSocketMetricsController {
+
+    private final OutboundDispatcher outboundDispatcher;
+    private final DeviceEventPipeline eventPipeline;
+    private final AlertCoalescer alertCoalescer;
+    private final SessionRegistry sessionRegistry;
+    private final AdmissionControl admissionControl;
+    private final AlertBatcher alertBatcher;
+    private final IngestRateLimiter ingestRateLimiter;
+    private final AlertBus alertBus;
+    private final VideoRingBuffers videoRingBuffers;
+    private final DvrService dvrService;
+    private final MonitorScaler monitorScaler;
+
+    @Operation(summary = "세션별 송신 큐 상태 조회", description = "큐 깊이 / 전송 수 / 드롭 수 / 건너뛴 영상 프레임 수 / 대기 바이트 / 전송 지연", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/sessions")
+    public ResponseEntity<List<SessionOutbound.Stats>> getSessionStats() {
+        return ResponseEntity.ok(outboundDispatcher.stats());
+    }
+
+    @Operation(summary = "디바이스 이벤트 적재 큐 상태 조회", description = "대기 / 저장 / 드롭 / 실패 건수, WAL 재생 상태 / 미반영 건수", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/ingest")
+    public ResponseEntity<DeviceEventPipeline.Stats> getIngestStats() {
+        return ResponseEntity.ok(eventPipeline.stats());
+    }
+
+    @Operation(summary = "반복 이벤트 병합 상태 조회", description = "열린 알림 / 새 알림 / 병합 건수", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/coalesce")
+    public ResponseEntity<AlertCoalescer.Stats> getCoalesceStats() {
+        return ResponseEntity.ok(alertCoalescer.stats());
+    }
+
+    @Operation(summary = "세션 하트비트 상태 조회", description = "추적 세션 / 식별 세션 / 중복 교체 / 만료 제거 / ping 수", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/heartbeat")
+    public ResponseEntity<SessionRegistry.Stats> getHeartbeatStats() {
+        return ResponseEntity.ok(sessionRegistry.stats());
+    }
+
+    @Operation(summary = "세션 입장 제어 상태 조회", description = "송신 대기 바이트 / 예산 / 평균 전송 지연 / 입장·거부·강제 종료 수", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/admission")
+    public ResponseEntity<AdmissionControl.Stats> getAdmissionStats() {
+        return ResponseEntity.ok(admissionControl.stats());
+    }
+
+    @Operation(summary = "알림 묶음 전송 상태 조회", description = "묶음 전송 세션 수 / 배열 프레임 수 / 묶여 나간 알림 수", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/alert-batch")
+    public ResponseEntity<AlertBatcher.Stats> getAlertBatchStats() {
+        return ResponseEntity.ok(alertBatcher.stats());
+    }
+
+    @Operation(summary = "디바이스 이벤트 유입 제한 상태 조회", description = "추적 디바이스 수 / DB 포화 여부 / 통과·표본·버림 건수", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/ratelimit")
+    public ResponseEntity<IngestRateLimiter.Stats> getRateLimitStats() {
+        return ResponseEntity.ok(ingestRateLimiter.stats());
+    }
+
+    @Operation(summary = "알림 버스 상태 조회", description = "버스 종류 / 노드 ID / 피어 연결 수 / 발행·수신·버림 건수", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/bus")
+    public ResponseEntity<AlertBus.Stats> getAlertBusStats() {
+        return ResponseEntity.ok(alertBus.stats());
+    }
+
+    @Operation(summary = "영상 링 버퍼 상태 조회", description = "서버 클립 저장용 링 버퍼 수 / 보관 프레임 수 / off-heap 사용량", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/video-ring")
+    public ResponseEntity<VideoRingBuffers.Stats> getVideoRingStats() {
+        return ResponseEntity.ok(videoRingBuffers.stats());
+    }
+
+    @Operation(summary = "DVR 녹화 상태 조회", description = "녹화 트랙(디바이스) 수 / 세그먼트 수 / 디스크 사용량 / 기록·실패 프레임 수 / 보관 정책으로 삭제한 세그먼트 수", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/dvr")
+    public ResponseEntity<DvrService.Stats> getDvrStats() {
+        return ResponseEntity.ok(dvrService.stats());
+    }
+
+    @Operation(summary = "모니터 축소 영상 상태 조회", description = "축소 / 건너뜀(fps 상한) / 버림(작업 풀 포화) / 실패 프레임 수, 대기 작업 수, 축소본/원본 바이트 비율", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/monitor")
+    public ResponseEntity<MonitorScaler.Stats> getMonitorStats() {
+        return ResponseEntity.ok(monitorScaler.stats());
+    }
+
+    @Operation(summary = "송신 레인별 지연 조회", description = "ALERT > COMMAND > TELEMETRY > VIDEO 레인별 전송 / 버림 건수, 큐 대기 포함 평균·최대 전달 지연 (세션별 EWMA 는 /sessions 의 laneLatencyMs)", responses = {
+            @ApiResponse(responseCode = "200", description = "조회 성공")
+    })
+    @GetMapping("/lanes")
+    public ResponseEntity<List<LaneMetrics.Stats>> getLaneStats() {
+        return ResponseEntity.ok(outboundDispatcher.laneStats());
+    }
+}
@@ -0,0 +1,7 @@
+package com.kong.backend.exception;
+
+public class DeviceNotConnectedException extends RuntimeException {
+    public DeviceNotConnectedException(String message) {
+        super(message);
+    }
+}
@@ -40,6 +40,13 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse(404, ex.getMessage()));
     }
 
+    // 404: 대상 디바이스 미연결
+    @ExceptionHandler(DeviceNotConnectedException.class)
+    public ResponseEntity<ErrorResponse> handleDeviceNotConnected(DeviceNotConnectedException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(404, ex.getMessage()));
+    }
+
     // 409: 상태 충돌(예: (paKey,diseaseCode,predictedAt) 중복)
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<ErrorResponse> handleConflict(IllegalStateException ex) {
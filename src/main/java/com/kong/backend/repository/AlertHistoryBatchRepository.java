@@ -0,0 +1,111 @@
+package com.kong.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * alerthistory 다건 INSERT (JDBC).
+ * IDENTITY 전략이라 Hibernate 배치가 안 되므로 multi-row INSERT ... RETURNING alertId 한 번으로 저장.
+ * 생성 키는 RETURNING 결과 행(= VALUES 순서)에서 읽음 (id 가 연속이라고 가정하지 않음).
+ * - RETURNING 을 지원하지 않는 서버(MariaDB 10.5 미만 / MySQL): 문장이 실행되지 않으므로 바로 건별 INSERT, 이후도 건별
+ * - 돌려받은 키 개수가 행 수와 다르면: 예외로 롤백 (호출자가 다시 저장), 이후 건별
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class AlertHistoryBatchRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO alerthistory (userKey, eventType, detectedAt, lay_rate, prob, ts, videoId) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final String RETURNING_KEY = " RETURNING alertId";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean multiRow = true; // false 면 RETURNING 미지원 / 키 불일치 → 건별 INSERT
+
+    /** @return 입력 순서대로 생성된 alertId */
+    public List<Integer> insertAll(List<AlertRow> rows) {
+        if (rows.isEmpty()) return List.of();
+        if (!multiRow || rows.size() == 1) return insertEach(rows);
+
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW_PLACEHOLDER);
+        }
+        sql.append(RETURNING_KEY);
+
+        List<Integer> keys;
+        try {
+            keys = jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString());
+                int idx = 1;
+                for (AlertRow r : rows) {
+                    idx = bind(ps, idx, r);
+                }
+                return ps;
+            }, (rs, rowNum) -> rs.getInt(1));
+        } catch (BadSqlGrammarException e) {
+            // 구문 오류 → 아무 행도 들어가지 않았으므로 같은 트랜잭션에서 바로 건별 INSERT
+            multiRow = false;
+            log.warn("⚠️ INSERT ... RETURNING 미지원 서버 → 이후 건별 INSERT ({})", e.getMostSpecificCause().getMessage());
+            return insertEach(rows);
+        }
+        if (keys.size() == rows.size()) return keys;
+
+        // 키를 행마다 받지 못함 → id 를 추측하지 않고 예외로 이번 트랜잭션을 롤백 (호출자가 다시 저장), 이후는 건별 INSERT
+        multiRow = false;
+        log.warn("⚠️ multi-row INSERT 생성 키 개수 불일치(rows={}, keys={}) → 이후 건별 INSERT", rows.size(), keys.size());
+        throw new IllegalStateException("생성 키 개수 불일치: rows=" + rows.size() + ", keys=" + keys.size());
+    }
+
+    /** 한 커넥션에서 행마다 INSERT 후 그 행의 생성 키를 읽음 */
+    private List<Integer> insertEach(List<AlertRow> rows) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Integer>>) con -> {
+            List<Integer> keys = new ArrayList<>(rows.size());
+            try (PreparedStatement ps = con.prepareStatement(INSERT_PREFIX + ROW_PLACEHOLDER,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (AlertRow r : rows) {
+                    bind(ps, 1, r);
+                    ps.executeUpdate();
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        if (!rs.next()) throw new IllegalStateException("생성 키 없음: userKey=" + r.userKey());
+                        keys.add(rs.getInt(1));
+                    }
+                }
+            }
+            return keys;
+        });
+    }
+
+    private static int bind(PreparedStatement ps, int idx, AlertRow r) throws SQLException {
+        ps.setInt(idx++, r.userKey());
+        ps.setString(idx++, r.eventType());
+        ps.setTimestamp(idx++, Timestamp.valueOf(r.detectedAt()));
+        ps.setObject(idx++, r.layRate(), Types.DOUBLE);
+        ps.setObject(idx++, r.prob(), Types.DOUBLE);
+        ps.setObject(idx++, r.ts(), Types.DOUBLE);
+        ps.setObject(idx++, r.videoId(), Types.INTEGER);
+        return idx;
+    }
+
+    public record AlertRow(
+            int userKey, String eventType, LocalDateTime detectedAt,
+            Double layRate, Double prob, Double ts, Integer videoId
+    ) {}
+}
@@ -40,6 +40,11 @@ public interface AlertHistoryRepository extends JpaRepository<AlertHistoryEntity
             Integer userKey, Double prob
     );
 
+    // alertId 구간 조회 (재연결 클라이언트의 누락 알림 재전송)
+    List<AlertHistoryEntity> findByAlertIdGreaterThanAndAlertIdLessThanOrderByAlertIdAsc(
+            Integer afterId, Integer beforeId, Pageable pageable
+    );
+
     Page<AlertHistoryEntity> findByUser_UserKey(Integer userKey, Pageable pageable);
 
     @Modifying
@@ -47,4 +52,9 @@ public interface AlertHistoryRepository extends JpaRepository<AlertHistoryEntity
     @Query("UPDATE AlertHistoryEntity a SET a.video = null WHERE a.video.videoId = :videoId")
     int detachVideoFromAlerts(@Param("videoId") Integer videoId);
 
+    // 반복 이벤트 병합 결과(최대 prob / layRate) 반영
+    @Modifying
+    @Query("UPDATE AlertHistoryEntity a SET a.prob = COALESCE(:prob, a.prob), a.layRate = COALESCE(:layRate, a.layRate) WHERE a.alertId = :alertId")
+    int updateMaxima(@Param("alertId") Integer alertId, @Param("prob") Double prob, @Param("layRate") Double layRate);
+
 }
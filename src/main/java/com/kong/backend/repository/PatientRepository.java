@@ -2,6 +2,13 @@ package com.kong.backend.repository;
 
 import com.kong.backend.Entity.PatientEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface PatientRepository extends JpaRepository<PatientEntity, Integer> {
+
+    @Query("SELECT p.user.userKey FROM PatientEntity p WHERE p.paKey = :paKey")
+    Optional<Integer> findUserKeyByPaKey(@Param("paKey") Integer paKey);
 }
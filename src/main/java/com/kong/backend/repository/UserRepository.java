@@ -2,8 +2,12 @@ package com.kong.backend.repository;
 
 import com.kong.backend.Entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<UserEntity, Integer> {
     Optional<UserEntity> findByUserEmail(String email);
+
+    // 디바이스 연결 시 보호자 번호로 유저 식별
+    List<UserEntity> findByProNum(String proNum);
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ public class AdminService {
     private final UserRepository userRepository;
     private final PatientRepository patientRepository;
     private final PatientInfoRepository patientInfoRepository;
+    private final DeviceDirectory deviceDirectory;
 
     /**
      * 로그인 시도 - 성공 시 로그인 로그 저장
@@ -150,5 +151,6 @@ public class AdminService {
         patientRepository.deleteAll(user.getPatients());
 
         userRepository.delete(user);
+        deviceDirectory.invalidateUser(userKey);
     }
 }
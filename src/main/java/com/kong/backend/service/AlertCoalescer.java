@@ -0,0 +1,208 @@
+package com.kong.backend.service;
+
+import com.kong.backend.DTO.AlertHistoryDto;
+import com.kong.backend.util.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 반복 이벤트 병합(debounce).
+ * 사람이 쓰러져 있는 동안 Pi 가 같은 eventType 을 계속 보내면,
+ * (디바이스, eventType) 의 열린 알림에 횟수/최대 prob·layRate 만 갱신하고 새 알림은 만들지 않음.
+ * eventType 이 바뀌면(예: 낙상 → 낙상 해제) 상태 전이로 보고 기존 알림을 닫고 새 알림을 냄.
+ * 마지막 발생 후 window 동안 조용하면 타이머 휠에서 닫힘 → 병합된 최대값을 DB 에 반영.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AlertCoalescer {
+
+    private final AlertService alertService;
+
+    @Value("${app.ingest.coalesce.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ingest.coalesce.window-ms:10000}")
+    private long windowMs;
+
+    @Value("${app.ingest.coalesce.max-keys:10000}")
+    private int maxKeys;
+
+    // 디바이스 → 열린 알림
+    private final Map<String, OpenAlert> openAlerts = new ConcurrentHashMap<>();
+    private TimerWheel timerWheel;
+    private ExecutorService updateExecutor;
+    private LongSupplier clock; // System::nanoTime (테스트에서 주입)
+
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("alert-coalesce-db-");
+        threadFactory.setDaemon(true);
+        init(new TimerWheel("alert-coalesce", 100, 512), System::nanoTime,
+                Executors.newSingleThreadExecutor(threadFactory));
+    }
+
+    /** 타이머 휠 / 시계 / DB 갱신 실행기 지정 (테스트에서 시계를 직접 움직일 때) */
+    void init(TimerWheel timerWheel, LongSupplier clock, ExecutorService updateExecutor) {
+        this.timerWheel = timerWheel;
+        this.clock = clock;
+        this.updateExecutor = updateExecutor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timerWheel.close();
+        updateExecutor.shutdown();
+    }
+
+    /**
+     * 이벤트 수신.
+     * @return 새 알림으로 내보내야 하면 OpenAlert (저장 future 를 attach 할 것), 병합되었으면 null
+     */
+    public OpenAlert offer(String deviceKey, String eventType, Double prob, Double layRate,
+                           Consumer<OpenAlert> onClose) {
+        if (!enabled) {
+            emitted.incrementAndGet();
+            return new OpenAlert(deviceKey, eventType, prob, layRate, onClose);
+        }
+        // 상태 수 제한: 가득 차면 병합 없이 통과
+        if (openAlerts.size() >= maxKeys && !openAlerts.containsKey(deviceKey)) {
+            emitted.incrementAndGet();
+            return new OpenAlert(deviceKey, eventType, prob, layRate, onClose);
+        }
+
+        OpenAlert[] created = new OpenAlert[1];
+        OpenAlert[] transitioned = new OpenAlert[1];
+        openAlerts.compute(deviceKey, (k, current) -> {
+            if (current != null && current.eventType.equals(eventType)) {
+                current.merge(prob, layRate);
+                return current;
+            }
+            transitioned[0] = current; // 상태 전이 → 기존 알림 닫기
+            created[0] = new OpenAlert(deviceKey, eventType, prob, layRate, onClose);
+            return created[0];
+        });
+
+        if (transitioned[0] != null) transitioned[0].finish();
+        if (created[0] == null) {
+            merged.incrementAndGet();
+            return null;
+        }
+        emitted.incrementAndGet();
+        scheduleExpiry(created[0], windowMs);
+        return created[0];
+    }
+
+    private void scheduleExpiry(OpenAlert alert, long delayMs) {
+        alert.timeout = timerWheel.schedule(() -> expire(alert), delayMs);
+    }
+
+    /** 조용한 구간이 window 를 넘었으면 닫고, 그 사이 반복이 있었으면 남은 시간만큼 재예약 */
+    private void expire(OpenAlert alert) {
+        long idleMs = TimeUnit.NANOSECONDS.toMillis(clock.getAsLong() - alert.lastSeenNanos);
+        if (idleMs < windowMs) {
+            scheduleExpiry(alert, windowMs - idleMs);
+            return;
+        }
+        if (openAlerts.remove(alert.deviceKey, alert)) alert.finish();
+    }
+
+    public Stats stats() {
+        return new Stats(openAlerts.size(), emitted.get(), merged.get());
+    }
+
+    public record Stats(int openAlerts, long emitted, long merged) {}
+
+    /**
+     * 열린 알림. 같은 디바이스의 이벤트는 한 스레드에서 오지만 만료는 휠 스레드에서 오므로 필드 접근은 동기화.
+     */
+    public class OpenAlert {
+        private final String deviceKey;
+        private final String eventType;
+        private final Double firstProb;
+        private final Double firstLayRate;
+        private final Consumer<OpenAlert> onClose;
+        private Double maxProb;
+        private Double maxLayRate;
+        private int occurrences = 1;
+        private volatile long lastSeenNanos = clock.getAsLong();
+        private volatile TimerWheel.Timeout timeout;
+        private volatile CompletableFuture<AlertHistoryDto> saved;
+        private boolean finished;
+
+        private OpenAlert(String deviceKey, String eventType, Double prob, Double layRate, Consumer<OpenAlert> onClose) {
+            this.deviceKey = deviceKey;
+            this.eventType = eventType;
+            this.firstProb = prob;
+            this.firstLayRate = layRate;
+            this.maxProb = prob;
+            this.maxLayRate = layRate;
+            this.onClose = onClose;
+        }
+
+        /** 새 알림의 저장 결과 연결 (닫힐 때 alertId 로 최대값 갱신) */
+        public void attach(CompletableFuture<AlertHistoryDto> saved) {
+            this.saved = saved;
+        }
+
+        private synchronized void merge(Double prob, Double layRate) {
+            occurrences++;
+            maxProb = max(maxProb, prob);
+            maxLayRate = max(maxLayRate, layRate);
+            lastSeenNanos = clock.getAsLong();
+        }
+
+        private void finish() {
+            synchronized (this) {
+                if (finished) return;
+                finished = true;
+            }
+            if (timeout != null) timeout.cancel();
+            if (occurrences <= 1) return;
+
+            boolean raised = !Objects.equals(maxProb, firstProb) || !Objects.equals(maxLayRate, firstLayRate);
+            if (raised && saved != null) {
+                // DB 갱신은 휠/저장 스레드가 아닌 별도 실행기에서
+                saved.thenAcceptAsync(dto -> {
+                    try {
+                        alertService.updateAlertMaxima(dto.getAlertId(), maxProb, maxLayRate);
+                    } catch (Exception e) {
+                        log.warn("⚠️ 병합 알림 갱신 실패: alertId={}", dto.getAlertId(), e);
+                    }
+                }, updateExecutor);
+            }
+            if (onClose != null) onClose.accept(this);
+        }
+
+        public synchronized int getOccurrences() { return occurrences; }
+        public synchronized Double getMaxProb() { return maxProb; }
+        public synchronized Double getMaxLayRate() { return maxLayRate; }
+        public String getEventType() { return eventType; }
+        public CompletableFuture<AlertHistoryDto> getSaved() { return saved; }
+    }
+
+    private static Double max(Double a, Double b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return Math.max(a, b);
+    }
+}
@@ -6,6 +6,8 @@ import com.kong.backend.Entity.AlertHistoryEntity;
 import com.kong.backend.Entity.UserEntity;
 import com.kong.backend.Entity.VideoEntity;
 import com.kong.backend.exception.UserNotFoundException;
+import com.kong.backend.repository.AlertHistoryBatchRepository;
+import com.kong.backend.repository.AlertHistoryBatchRepository.AlertRow;
 import com.kong.backend.repository.AlertHistoryRepository;
 import com.kong.backend.repository.UserRepository;
 import com.kong.backend.repository.VideoRepository;
@@ -20,7 +22,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -31,6 +37,7 @@ public class AlertService {
 
     private final UserRepository userRepository;
     private final AlertHistoryRepository alertHistoryRepository;
+    private final AlertHistoryBatchRepository alertHistoryBatchRepository;
     private final VideoRepository videoRepository;
 
     /* ------------------------------
@@ -95,20 +102,14 @@ public class AlertService {
      * ------------------------------ */
     @Transactional
     public AlertHistoryDto saveAlert(SaveAlertCommand cmd) {
-        UserEntity user = userRepository.findById(cmd.getUserKey())
-                .orElseThrow(() -> new UserNotFoundException("유저 없음: " + cmd.getUserKey()));
+        // 연결 시 확인된 유저는 조회 없이 참조만 (INSERT 시 FK 로만 사용)
+        UserEntity user = cmd.isUserVerified()
+                ? userRepository.getReferenceById(cmd.getUserKey())
+                : userRepository.findById(cmd.getUserKey())
+                        .orElseThrow(() -> new UserNotFoundException("유저 없음: " + cmd.getUserKey()));
 
         // detectedAt 보정
-        LocalDateTime detectedAt = cmd.getDetectedAt();
-        if (detectedAt == null) {
-            if (cmd.getTs() != null) {
-                detectedAt = LocalDateTime.ofInstant(
-                        Instant.ofEpochMilli((long) (cmd.getTs() * 1000)), KST
-                );
-            } else {
-                detectedAt = LocalDateTime.now();
-            }
-        }
+        LocalDateTime detectedAt = resolveDetectedAt(cmd);
 
         AlertHistoryEntity alert = new AlertHistoryEntity();
         alert.setUser(user);
@@ -136,6 +137,71 @@ public class AlertService {
         return toDto(saved);
     }
 
+    /* ------------------------------
+     * 배치 저장 (이벤트 파이프라인) - multi-row INSERT 한 번, 입력 순서대로 결과 반환
+     * 참조 무결성은 배치당 한 번씩만 확인 (없는 유저/비디오가 섞이면 예외 → 호출 측에서 건별 재시도)
+     * ------------------------------ */
+    @Transactional
+    public List<AlertHistoryDto> saveAlerts(List<SaveAlertCommand> cmds) {
+        Set<Integer> userKeys = cmds.stream().filter(cmd -> !cmd.isUserVerified())
+                .map(SaveAlertCommand::getUserKey).collect(Collectors.toSet());
+        Set<Integer> videoIds = cmds.stream().map(SaveAlertCommand::getVideoId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        if (!userKeys.isEmpty() && userRepository.findAllById(userKeys).size() != userKeys.size()) {
+            throw new UserNotFoundException("유저 없음: " + userKeys);
+        }
+        if (!videoIds.isEmpty() && videoRepository.findAllById(videoIds).size() != videoIds.size()) {
+            throw new IllegalArgumentException("비디오 없음: " + videoIds);
+        }
+
+        List<AlertRow> rows = cmds.stream()
+                .map(cmd -> new AlertRow(
+                        cmd.getUserKey(),
+                        cmd.getEventType(),
+                        resolveDetectedAt(cmd),
+                        normalizeLayRate(cmd.getLayRate()),
+                        cmd.getProb(),
+                        cmd.getTs(),
+                        cmd.getVideoId()))
+                .toList();
+        List<Integer> ids = alertHistoryBatchRepository.insertAll(rows);
+
+        List<AlertHistoryDto> saved = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            AlertRow row = rows.get(i);
+            AlertHistoryDto dto = new AlertHistoryDto();
+            dto.setAlertId(ids.get(i));
+            dto.setUserKey(row.userKey());
+            dto.setEventType(row.eventType());
+            dto.setDetectedAt(row.detectedAt());
+            dto.setLayRate(row.layRate());
+            dto.setProb(row.prob());
+            dto.setTs(row.ts());
+            dto.setVideoId(row.videoId());
+            saved.add(dto);
+        }
+        log.info("✅ 알림 배치 저장: {}건", saved.size());
+        return saved;
+    }
+
+    /* ------------------------------
+     * alertId 구간 조회 (afterId, beforeId) – 오름차순, 최대 limit 건
+     * ------------------------------ */
+    @Transactional(readOnly = true)
+    public List<AlertHistoryDto> getAlertsBetween(int afterId, int beforeId, int limit) {
+        return alertHistoryRepository
+                .findByAlertIdGreaterThanAndAlertIdLessThanOrderByAlertIdAsc(afterId, beforeId, PageRequest.of(0, limit))
+                .stream().map(this::toDto).toList();
+    }
+
+    /* ------------------------------
+     * 반복 이벤트 병합 결과 반영 (열린 알림이 닫힐 때)
+     * ------------------------------ */
+    @Transactional
+    public void updateAlertMaxima(Integer alertId, Double maxProb, Double maxLayRate) {
+        alertHistoryRepository.updateMaxima(alertId, maxProb, normalizeLayRate(maxLayRate));
+    }
+
     /* ------------------------------
      * 레거시 호환 시그니처 (videoPath 제거, videoId 없이 저장)
      * 필요 시 라즈베리파이/핸들러 구버전에서 호출
@@ -170,11 +236,19 @@ public class AlertService {
         dto.setLayRate(e.getLayRate());
         dto.setProb(e.getProb());
         dto.setTs(e.getTs());
-        // 필요 시 DTO에 videoId 필드가 있다면 아래 주석을 해제
-        // if (e.getVideo() != null) dto.setVideoId(e.getVideo().getVideoId());
+        if (e.getUser() != null) dto.setUserKey(e.getUser().getUserKey());
+        if (e.getVideo() != null) dto.setVideoId(e.getVideo().getVideoId());
         return dto;
     }
 
+    private LocalDateTime resolveDetectedAt(SaveAlertCommand cmd) {
+        if (cmd.getDetectedAt() != null) return cmd.getDetectedAt();
+        if (cmd.getTs() != null) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli((long) (cmd.getTs() * 1000)), KST);
+        }
+        return LocalDateTime.now();
+    }
+
     private Double normalizeLayRate(Double layRate) {
         if (layRate == null) return null;
         double v = layRate;
@@ -197,5 +271,6 @@ public class AlertService {
         private Double prob;               // nullable
         private Double ts;                 // nullable (epoch seconds, float)
         private Integer videoId;              // nullable (VideoEntity FK)
+        private boolean userVerified;         // 디바이스 연결 시 이미 확인된 유저면 true (존재 확인 생략)
     }
 }
@@ -1,39 +1,100 @@
 package com.kong.backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kong.backend.exception.DeviceNotConnectedException;
+import com.kong.backend.websocket.DeviceEventCodec;
+import com.kong.backend.websocket.OutboundDispatcher;
+import com.kong.backend.websocket.OutboundLane;
+import com.kong.backend.websocket.WebSocketSessions;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DeviceControlService {
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final OutboundDispatcher outboundDispatcher;
+    private final ObjectMapper mapper;
+    private final DeviceEventCodec deviceEventCodec;
+    private final ServerClipService serverClipService;
+
+    @Value("${app.device.command.ack-timeout-ms:5000}")
+    private long ackTimeoutMs; // 디바이스 ACK 대기 한도
+
+    @Value("${app.device.command.status-retention-ms:600000}")
+    private long statusRetentionMs; // 완료된 명령 상태 조회 보관 시간
 
     // Pi(WebSocket) 세션 관리
     private final Set<WebSocketSession> deviceSessions = ConcurrentHashMap.newKeySet();
+    // 디바이스 레지스트리 (/ws/fall?deviceId=&paKey= 로 연결 시 등록)
+    private final Map<String, WebSocketSession> devicesById = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<WebSocketSession>> devicesByPaKey = new ConcurrentHashMap<>();
+
+    // 진행 중/최근 명령 (clipId = 상관관계 ID)
+    private final Map<String, ClipCommand> commands = new ConcurrentHashMap<>();
 
     private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private static final String ACK_TYPE = "SAVE_CLIP_ACK";
+    private static final String SERVER_SOURCE = "server";
 
     public void registerDevice(WebSocketSession session) {
         deviceSessions.add(session);
+        String deviceId = WebSocketSessions.queryParam(session, "deviceId");
+        if (deviceId != null) devicesById.put(deviceId, session);
+        Integer paKey = paKeyOf(session);
+        if (paKey != null) {
+            devicesByPaKey.computeIfAbsent(paKey, k -> ConcurrentHashMap.newKeySet()).add(session);
+        }
     }
 
     public void unregisterDevice(WebSocketSession session) {
         deviceSessions.remove(session);
+        String deviceId = WebSocketSessions.queryParam(session, "deviceId");
+        if (deviceId != null) devicesById.remove(deviceId, session);
+        Integer paKey = paKeyOf(session);
+        if (paKey != null) {
+            devicesByPaKey.computeIfPresent(paKey, (k, set) -> {
+                set.remove(session);
+                return set.isEmpty() ? null : set;
+            });
+        }
     }
 
-    /** REST 요청 시 호출 → Pi로 SAVE_CLIP 명령 전송 */
-    public SaveClipAck sendSaveClip(int paKey, int durationSec, int preBufferSec, int postBufferSec) throws Exception {
+    /**
+     * REST 요청 시 호출.
+     * 서버 영상 링 버퍼에 해당 디바이스 영상이 있으면 서버에서 바로 클립 저장 (Pi 재업로드 없음),
+     * 없으면 deviceId 가 있으면 그 Pi, 없으면 해당 환자(paKey)의 Pi 로만 SAVE_CLIP 명령 전송.
+     * 반환된 명령의 ack 는 클립 저장 / 디바이스 SAVE_CLIP_ACK 로 완료, 시간이 지나면 TIMED_OUT.
+     */
+    public ClipCommand sendSaveClip(int paKey, String deviceId, int durationSec, int preBufferSec,
+                                    int postBufferSec) throws Exception {
+        if (serverClipService.canServe(paKey, deviceId)) {
+            return saveClipOnServer(paKey, deviceId, durationSec, preBufferSec, postBufferSec);
+        }
+        Set<WebSocketSession> targets = targetsOf(paKey, deviceId);
+        if (targets.isEmpty()) {
+            throw new DeviceNotConnectedException("연결된 디바이스 없음: paKey=" + paKey
+                    + (deviceId != null ? ", deviceId=" + deviceId : ""));
+        }
+
         String clipId = generateClipId(paKey);
         String uploadUrl = "/api/videos/upload/" + clipId;
 
@@ -48,13 +109,103 @@ public class DeviceControlService {
 
         String json = mapper.writeValueAsString(root);
 
-        for (WebSocketSession s : deviceSessions) {
-            if (s.isOpen()) {
-                s.sendMessage(new TextMessage(json));
+        ClipCommand command = new ClipCommand(clipId, uploadUrl, durationSec, preBufferSec, postBufferSec, paKey);
+        track(command, ackTimeoutMs);
+
+        // 송신 큐에 넣기만 하므로 한 세션 실패가 나머지 전송을 막지 않음
+        int queued = outboundDispatcher.broadcast(targets, new TextMessage(json), OutboundLane.COMMAND);
+        if (queued == 0) command.finish(ClipState.FAILED, null, "전송 실패");
+        log.info("🎬 SAVE_CLIP 전송: clipId={}, paKey={}, devices={}", clipId, paKey, queued);
+        return command;
+    }
+
+    /** 링 버퍼 구간을 서버에서 잘라 저장 → 저장되면 ACKED (videoId 포함) */
+    private ClipCommand saveClipOnServer(int paKey, String deviceId, int durationSec, int preBufferSec,
+                                         int postBufferSec) {
+        String clipId = generateClipId(paKey);
+        ClipCommand command = new ClipCommand(clipId, null, durationSec, preBufferSec, postBufferSec, paKey);
+        track(command, postBufferSec * 1000L + ackTimeoutMs);
+        serverClipService.saveClip(clipId, paKey, deviceId, preBufferSec, postBufferSec)
+                .whenComplete((video, error) -> {
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        log.warn("⚠️ 서버 클립 저장 실패: clipId={}", clipId, cause);
+                        command.finish(ClipState.FAILED, SERVER_SOURCE, cause.getMessage());
+                        return;
+                    }
+                    command.videoId = video.getVideoId();
+                    command.finish(ClipState.ACKED, SERVER_SOURCE, null);
+                });
+        log.info("🎬 SAVE_CLIP 서버 처리: clipId={}, paKey={}, deviceId={}", clipId, paKey, deviceId);
+        return command;
+    }
+
+    /** 시간 초과 처리 + 완료 후 조회용으로 잠시 보관했다가 정리 */
+    private void track(ClipCommand command, long timeoutMs) {
+        commands.put(command.clipId, command);
+        CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS)
+                .execute(() -> command.finish(ClipState.TIMED_OUT, null, "ACK 시간 초과"));
+        command.ack.thenRun(() -> CompletableFuture.delayedExecutor(statusRetentionMs, TimeUnit.MILLISECONDS)
+                .execute(() -> commands.remove(command.clipId, command)));
+    }
+
+    /** 진행 중/최근 명령 조회 (없으면 null) */
+    public ClipCommand getClipCommand(String clipId) {
+        return commands.get(clipId);
+    }
+
+    /**
+     * 디바이스 응답 처리: {"type":"SAVE_CLIP_ACK","clipId":"...","status":"OK"|"ERROR","message":"..."}
+     * @return 응답 메시지였으면 true (이벤트 처리 생략)
+     */
+    public boolean onDeviceReply(WebSocketSession session, String payload) {
+        if (!payload.contains(ACK_TYPE)) return false; // 일반 이벤트는 파싱 없이 통과
+        try {
+            JsonNode json = mapper.readTree(payload);
+            if (!ACK_TYPE.equals(json.path("type").asText())) return false;
+
+            ClipCommand command = commands.get(json.path("clipId").asText(""));
+            if (command == null) {
+                log.warn("⚠️ 알 수 없는 clipId ACK: {}", payload);
+                return true;
             }
+            String deviceId = WebSocketSessions.queryParam(session, "deviceId");
+            boolean ok = !"ERROR".equalsIgnoreCase(json.path("status").asText("OK"));
+            command.finish(ok ? ClipState.ACKED : ClipState.FAILED,
+                    deviceId != null ? deviceId : session.getId(),
+                    json.path("message").isTextual() ? json.path("message").asText() : null);
+            log.info("✅ SAVE_CLIP ACK: clipId={}, state={}", command.clipId, command.state);
+            return true;
+        } catch (Exception e) {
+            log.warn("⚠️ 디바이스 응답 파싱 실패: {}", payload);
+            return false;
         }
+    }
+
+    public List<String> connectedDeviceIds() {
+        return List.copyOf(devicesById.keySet());
+    }
+
+    /** deviceId 를 지정해도 그 디바이스가 paKey 환자의 것일 때만 (다른 환자 Pi 로 명령을 보내지 않음) */
+    private Set<WebSocketSession> targetsOf(int paKey, String deviceId) {
+        if (deviceId != null) {
+            WebSocketSession device = devicesById.get(deviceId);
+            return device != null && Integer.valueOf(paKey).equals(paKeyOf(device)) ? Set.of(device) : Set.of();
+        }
+        return devicesByPaKey.getOrDefault(paKey, Set.of());
+    }
 
-        return new SaveClipAck(clipId, uploadUrl, durationSec, preBufferSec, postBufferSec, paKey);
+    /** 연결 시 확정된 환자 우선, 없으면 ?paKey= */
+    private Integer paKeyOf(WebSocketSession session) {
+        DeviceDirectory.DeviceIdentity identity = DeviceDirectory.identityOf(session);
+        if (identity != null && identity.getPaKey() != null) return identity.getPaKey();
+        String paKey = WebSocketSessions.queryParam(session, "paKey");
+        if (paKey == null) return null;
+        try {
+            return Integer.parseInt(paKey);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     private String generateClipId(int paKey) {
@@ -63,15 +214,73 @@ public class DeviceControlService {
         return (paKey > 0 ? ("pa" + paKey + "_") : "") + ts + "_" + rand;
     }
 
+    public enum ClipState { PENDING, ACKED, FAILED, TIMED_OUT }
+
     public record SaveClipAck(
-            String clipId, String uploadUrl, int durationSec, int preBufferSec, int postBufferSec, int paKey
+            String clipId, String uploadUrl, int durationSec, int preBufferSec, int postBufferSec, int paKey,
+            ClipState state, String deviceId, String message, Integer videoId
     ) {}
 
+    /** 전송한 SAVE_CLIP 명령 하나. 첫 응답(ACK/실패/시간 초과)으로 한 번만 완료 */
+    public static final class ClipCommand {
+        private final String clipId;
+        private final String uploadUrl;
+        private final int durationSec;
+        private final int preBufferSec;
+        private final int postBufferSec;
+        private final int paKey;
+        private final CompletableFuture<SaveClipAck> ack = new CompletableFuture<>();
+        private volatile ClipState state = ClipState.PENDING;
+        private volatile String deviceId;
+        private volatile String message;
+        private volatile Integer videoId; // 서버에서 저장한 클립
+
+        private ClipCommand(String clipId, String uploadUrl, int durationSec, int preBufferSec,
+                            int postBufferSec, int paKey) {
+            this.clipId = clipId;
+            this.uploadUrl = uploadUrl;
+            this.durationSec = durationSec;
+            this.preBufferSec = preBufferSec;
+            this.postBufferSec = postBufferSec;
+            this.paKey = paKey;
+        }
+
+        private synchronized void finish(ClipState state, String deviceId, String message) {
+            if (this.state != ClipState.PENDING) return;
+            this.state = state;
+            this.deviceId = deviceId;
+            this.message = message;
+            ack.complete(snapshot());
+        }
+
+        public String getClipId() { return clipId; }
+        public CompletableFuture<SaveClipAck> getAck() { return ack; }
+
+        public SaveClipAck snapshot() {
+            return new SaveClipAck(clipId, uploadUrl, durationSec, preBufferSec, postBufferSec, paKey,
+                    state, deviceId, message, videoId);
+        }
+    }
+
+    /** 디바이스 브로드캐스트. CBOR 로 연결한 디바이스에는 바이너리로 (한 번만 변환) */
     public void broadcastToDevices(TextMessage message) {
+        BinaryMessage cbor = null;
+        boolean cborFailed = false;
         for (WebSocketSession s : deviceSessions) {
-            try {
-                if (s.isOpen()) s.sendMessage(message);
-            } catch (Exception ignored) {}
+            if (!s.isOpen()) continue;
+            if (!WebSocketSessions.isCbor(s)) {
+                outboundDispatcher.send(s, message, OutboundLane.COMMAND);
+                continue;
+            }
+            if (cbor == null && !cborFailed) {
+                try {
+                    cbor = new BinaryMessage(deviceEventCodec.toCbor(message.getPayload()));
+                } catch (Exception e) {
+                    cborFailed = true;
+                    log.warn("⚠️ CBOR 변환 실패 → CBOR 디바이스 전송 생략", e);
+                }
+            }
+            if (cbor != null) outboundDispatcher.send(s, cbor, OutboundLane.COMMAND);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package com.kong.backend.service;
+
+import com.kong.backend.Entity.PatientEntity;
+import com.kong.backend.Entity.UserEntity;
+import com.kong.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 디바이스(Pi) → 유저/환자 매핑 디렉터리.
+ * /ws/fall?proNum= 연결 시 한 번만 풀어서 세션 속성에 붙여 두고,
+ * 이벤트마다는 세션 속성만 읽음 (DB 조회 없음).
+ * 유저의 proNum / 환자 구성이 바뀌거나 유저가 삭제되면 invalidateUser() 로 캐시를 무효화 →
+ * 이미 연결된 세션도 다음 이벤트에서 다시 확인.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeviceDirectory {
+
+    public static final String ATTR_IDENTITY = "deviceIdentity";
+
+    private final UserRepository userRepository;
+
+    // proNum → 유저/환자 (DB 에 있는 것만 캐시)
+    private final Map<String, Entry> byProNum = new ConcurrentHashMap<>();
+
+    /**
+     * proNum 으로 디바이스 식별. requestedPaKey 가 유저의 환자면 그 환자, 아니면 환자가 하나뿐일 때 그 환자.
+     * @return 없거나 proNum 이 여러 유저에 걸쳐 있으면 null
+     */
+    @Transactional(readOnly = true)
+    public DeviceIdentity resolve(String proNum, Integer requestedPaKey) {
+        if (proNum == null) return null;
+        Entry entry = byProNum.get(proNum);
+        if (entry == null || entry.revoked) {
+            entry = load(proNum);
+            if (entry == null) return null;
+            byProNum.put(proNum, entry);
+        }
+        Integer paKey = null;
+        if (requestedPaKey != null && entry.paKeys.contains(requestedPaKey)) paKey = requestedPaKey;
+        else if (entry.paKeys.size() == 1) paKey = entry.paKeys.iterator().next();
+        return new DeviceIdentity(entry, paKey);
+    }
+
+    /** 유저 정보 변경 시 호출 (proNum 변경 / 환자 재구성 / 삭제) */
+    public void invalidateUser(Integer userKey) {
+        byProNum.values().removeIf(entry -> {
+            if (entry.userKey != userKey) return false;
+            entry.revoked = true;
+            return true;
+        });
+        log.info("🔄 디바이스 디렉터리 무효화: userKey={}", userKey);
+    }
+
+    /**
+     * 유저의 환자 paKey (DB 에서 재전송하는 알림의 토픽 계산용).
+     * 연결된 디바이스로 캐시된 유저면 DB 조회 없음, 없는 유저면 빈 집합
+     */
+    @Transactional(readOnly = true)
+    public Set<Integer> patientsOf(int userKey) {
+        for (Entry entry : byProNum.values()) {
+            if (entry.userKey == userKey && !entry.revoked) return entry.paKeys;
+        }
+        return userRepository.findById(userKey).map(DeviceDirectory::paKeysOf).orElse(Set.of());
+    }
+
+    /** 세션에 붙은 식별 정보 (없으면 null) */
+    public static DeviceIdentity identityOf(WebSocketSession session) {
+        return (DeviceIdentity) session.getAttributes().get(ATTR_IDENTITY);
+    }
+
+    private Entry load(String proNum) {
+        List<UserEntity> users = userRepository.findByProNum(proNum);
+        if (users.size() != 1) {
+            if (users.size() > 1) log.warn("⚠️ proNum 이 여러 유저에 등록됨: {} ({}명)", proNum, users.size());
+            return null;
+        }
+        UserEntity user = users.get(0);
+        return new Entry(proNum, user.getUserKey(), paKeysOf(user));
+    }
+
+    private static Set<Integer> paKeysOf(UserEntity user) {
+        return user.getPatients() == null ? Set.of()
+                : user.getPatients().stream().map(PatientEntity::getPaKey).collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static final class Entry {
+        private final String proNum;
+        private final int userKey;
+        private final Set<Integer> paKeys;
+        private volatile boolean revoked;
+
+        private Entry(String proNum, int userKey, Set<Integer> paKeys) {
+            this.proNum = proNum;
+            this.userKey = userKey;
+            this.paKeys = paKeys;
+        }
+    }
+
+    /** 연결 시 확정된 디바이스 식별 정보 (세션 속성) */
+    public static final class DeviceIdentity {
+        private final Entry entry;
+        private final Integer paKey;
+
+        private DeviceIdentity(Entry entry, Integer paKey) {
+            this.entry = entry;
+            this.paKey = paKey;
+        }
+
+        public int getUserKey() { return entry.userKey; }
+        public Integer getPaKey() { return paKey; }
+        public String getProNum() { return entry.proNum; }
+        /** 유저 정보가 바뀌어 다시 확인해야 하면 true */
+        public boolean isRevoked() { return entry.revoked; }
+    }
+}
@@ -0,0 +1,162 @@
+package com.kong.backend.service;
+
+import com.kong.backend.service.AlertService.SaveAlertCommand;
+import com.kong.backend.util.MappedSegmentLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 디바이스 이벤트 로컬 WAL.
+ * 저장 전에 모든 이벤트를 디스크(메모리 매핑 세그먼트)에 먼저 기록하고,
+ * DB 에 반영된 순번까지 체크포인트 → DB / SSH 터널이 끊겨도 재시작·복구 후 이어서 저장.
+ */
+@Slf4j
+@Component
+public class DeviceEventJournal {
+
+    private static final byte VERSION = 1;
+
+    @Value("${app.ingest.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ingest.journal.dir:./journal}")
+    private String dir;
+
+    @Value("${app.ingest.journal.segment-bytes:16777216}")
+    private int segmentBytes; // 세그먼트 파일 크기 (기본 16MB)
+
+    @Value("${app.ingest.journal.fsync:false}")
+    private boolean fsync; // true 면 레코드마다 force (OS 장애까지 보호, 대신 느림)
+
+    private MappedSegmentLog segmentLog;
+
+    @PostConstruct
+    void open() {
+        if (!enabled) return;
+        try {
+            segmentLog = new MappedSegmentLog(Path.of(dir), segmentBytes, fsync);
+            log.info("✅ 이벤트 WAL 사용: dir={}, 미반영 {}건", dir, pendingCount());
+        } catch (IOException e) {
+            // WAL 을 못 열어도 수집은 계속 (기존처럼 메모리 큐만 사용)
+            log.error("❌ 이벤트 WAL 열기 실패 → WAL 없이 동작: {}", dir, e);
+            segmentLog = null;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (segmentLog != null) segmentLog.close();
+    }
+
+    public boolean isEnabled() {
+        return segmentLog != null;
+    }
+
+    /** 기록 후 순번 반환 (WAL 미사용이면 0) */
+    public long append(SaveAlertCommand cmd) throws IOException {
+        if (segmentLog == null) return 0;
+        return segmentLog.append(encode(cmd));
+    }
+
+    /** afterSeq 다음부터 최대 max 건 */
+    public List<Entry> readAfter(long afterSeq, int max) throws IOException {
+        if (segmentLog == null) return List.of();
+        List<Entry> entries = new ArrayList<>();
+        for (MappedSegmentLog.Record r : segmentLog.readAfter(afterSeq, max)) {
+            entries.add(new Entry(r.seq(), decode(r.payload())));
+        }
+        return entries;
+    }
+
+    public void checkpoint(long seq) {
+        if (segmentLog != null && seq > 0) segmentLog.checkpoint(seq);
+    }
+
+    public long getCheckpoint() {
+        return segmentLog == null ? 0 : segmentLog.getCheckpoint();
+    }
+
+    public long lastSeq() {
+        return segmentLog == null ? 0 : segmentLog.lastSeq();
+    }
+
+    /** DB 에 아직 반영되지 않은 기록 수 */
+    public long pendingCount() {
+        return segmentLog == null ? 0 : segmentLog.lastSeq() - segmentLog.getCheckpoint();
+    }
+
+    public int segmentCount() {
+        return segmentLog == null ? 0 : segmentLog.segmentCount();
+    }
+
+    public record Entry(long seq, SaveAlertCommand cmd) {}
+
+    // ---- 직렬화 (필드 순서 고정, 버전 1) ----
+
+    private static byte[] encode(SaveAlertCommand cmd) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(cmd.getEventType());
+            writeNullableUtf(out, cmd.getDetectedAt() != null ? cmd.getDetectedAt().toString() : null);
+            out.writeInt(cmd.getUserKey());
+            writeNullableDouble(out, cmd.getLayRate());
+            writeNullableDouble(out, cmd.getProb());
+            writeNullableDouble(out, cmd.getTs());
+            out.writeBoolean(cmd.getVideoId() != null);
+            if (cmd.getVideoId() != null) out.writeInt(cmd.getVideoId());
+            out.writeBoolean(cmd.isUserVerified());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SaveAlertCommand decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != VERSION) throw new IOException("unknown journal record version: " + version);
+            String eventType = in.readUTF();
+            String detectedAt = readNullableUtf(in);
+            return SaveAlertCommand.builder()
+                    .eventType(eventType)
+                    .detectedAt(detectedAt != null ? LocalDateTime.parse(detectedAt) : null)
+                    .userKey(in.readInt())
+                    .layRate(readNullableDouble(in))
+                    .prob(readNullableDouble(in))
+                    .ts(readNullableDouble(in))
+                    .videoId(in.readBoolean() ? in.readInt() : null)
+                    .userVerified(in.readBoolean())
+                    .build();
+        }
+    }
+
+    private static void writeNullableUtf(DataOutputStream out, String v) throws IOException {
+        out.writeBoolean(v != null);
+        if (v != null) out.writeUTF(v);
+    }
+
+    private static String readNullableUtf(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullableDouble(DataOutputStream out, Double v) throws IOException {
+        out.writeBoolean(v != null);
+        if (v != null) out.writeDouble(v);
+    }
+
+    private static Double readNullableDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+}
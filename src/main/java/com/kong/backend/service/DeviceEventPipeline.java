@@ -0,0 +1,400 @@
+package com.kong.backend.service;
+
+import com.kong.backend.DTO.AlertHistoryDto;
+import com.kong.backend.service.AlertService.SaveAlertCommand;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.JDBCConnectionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 디바이스 이벤트 적재 파이프라인 (write-behind).
+ * 파싱(수신 스레드) → 제한된 메모리 큐 → 전용 저장 스레드(배치) 순으로 처리해서
+ * 알림 전송이 DB(SSH 터널) 왕복을 기다리지 않도록 함.
+ * 저장 스레드는 최대 maxBatch 건 또는 flushIntervalMs 동안 모아서 multi-row INSERT 한 번으로 저장.
+ * WAL(DeviceEventJournal) 사용 시: 큐에 넣기 전에 WAL 에 먼저 기록하고 저장된 순번까지 체크포인트.
+ * DB 연결 장애 / 큐 넘침으로 빠진 이벤트는 WAL 에서 순서대로 재생(replay)해서 저장 (최소 1회 저장).
+ * 재생으로 넘긴 이벤트의 future 는 순번별로 보관했다가 재생 저장 시 완료 → 알림 후속 처리(alertId 전송 등)가 유지됨.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeviceEventPipeline {
+
+    private final AlertService alertService;
+    private final DeviceEventJournal journal;
+
+    @Value("${app.ingest.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${app.ingest.overflow-policy:CALLER_RUNS}")
+    private IngestOverflowPolicy overflowPolicy;
+
+    @Value("${app.ingest.max-batch:50}")
+    private int maxBatch;
+
+    @Value("${app.ingest.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    @Value("${app.ingest.journal.retry-ms:5000}")
+    private long replayRetryMs; // DB 연결 장애 시 WAL 재생 재시도 간격
+
+    @Value("${app.ingest.journal.max-awaiting:10000}")
+    private int maxAwaiting; // 재생 저장을 기다리는 future 보관 한도 (넘으면 후속 처리 없이 저장만)
+
+    private BlockingQueue<PendingAlert> queue;
+    private Thread worker;
+    private volatile boolean running;
+    // true 면 큐 대신 WAL 체크포인트 이후부터 재생 (DB 장애 / 큐 넘침 / 재시작 시 미반영분)
+    private volatile boolean replaying;
+    private final Object appendLock = new Object(); // WAL 순번 순서 = 큐 순서
+    // WAL 순번 → 재생 저장을 기다리는 호출자 future
+    private final Map<Long, CompletableFuture<AlertHistoryDto>> awaitingReplay = new ConcurrentHashMap<>();
+
+    // 카운터
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong(); // 큐 대신 WAL 재생으로 넘긴 건수
+    private final AtomicLong replayed = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        running = true;
+        if (journal.pendingCount() > 0) {
+            replaying = true;
+            log.info("🔁 WAL 미반영 이벤트 {}건 → 재생부터 시작", journal.pendingCount());
+        }
+        worker = new Thread(this::runLoop, "alert-persist");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("✅ 이벤트 파이프라인 시작: capacity={}, policy={}, maxBatch={}, flushIntervalMs={}",
+                queueCapacity, overflowPolicy, maxBatch, flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingAlert> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (journal.isEnabled()) {
+            // WAL 에 이미 있으므로 다음 기동 때 재생 (이번 프로세스의 후속 처리는 없음)
+            for (PendingAlert p : rest) {
+                p.future().completeExceptionally(new RejectedExecutionException("deferred to next start"));
+            }
+            awaitingReplay.values().forEach(f -> f.completeExceptionally(new RejectedExecutionException("deferred to next start")));
+            awaitingReplay.clear();
+            log.info("🧹 종료: WAL 미반영 {}건은 다음 기동 시 재생", journal.pendingCount());
+            return;
+        }
+        // 남은 이벤트는 종료 전에 동기 저장
+        if (!rest.isEmpty()) {
+            log.info("🧹 종료 전 잔여 이벤트 저장: {}건", rest.size());
+            for (int i = 0; i < rest.size(); i += maxBatch) {
+                List<PendingAlert> chunk = rest.subList(i, Math.min(rest.size(), i + maxBatch));
+                failRemainder(chunk, persist(chunk));
+            }
+        }
+    }
+
+    /** 저장 요청 (즉시 반환). 저장이 끝나면 future 가 완료됨 */
+    public CompletableFuture<AlertHistoryDto> submit(SaveAlertCommand cmd) {
+        submitted.incrementAndGet();
+        if (journal.isEnabled()) return submitJournaled(cmd);
+        PendingAlert pending = new PendingAlert(0, cmd, new CompletableFuture<>());
+
+        while (!queue.offer(pending)) {
+            switch (overflowPolicy) {
+                case DROP_OLDEST -> {
+                    PendingAlert oldest = queue.poll();
+                    if (oldest != null) {
+                        dropped.incrementAndGet();
+                        oldest.future().completeExceptionally(new RejectedExecutionException("ingest queue overflow"));
+                    }
+                }
+                case DROP_NEWEST -> {
+                    dropped.incrementAndGet();
+                    pending.future().completeExceptionally(new RejectedExecutionException("ingest queue overflow"));
+                    return pending.future();
+                }
+                case CALLER_RUNS -> {
+                    failRemainder(List.of(pending), persist(List.of(pending)));
+                    return pending.future();
+                }
+            }
+        }
+        return pending.future();
+    }
+
+    /** WAL 에 먼저 기록 → 큐. 큐가 가득 차면 버리지 않고 재생으로 넘김 (수신 스레드는 막히지 않음) */
+    private CompletableFuture<AlertHistoryDto> submitJournaled(SaveAlertCommand cmd) {
+        PendingAlert pending;
+        synchronized (appendLock) {
+            long seq;
+            try {
+                seq = journal.append(cmd);
+            } catch (IOException e) {
+                // 디스크 가득 참 등 → 이 이벤트만 WAL 없이 메모리 큐로
+                log.error("❌ WAL 기록 실패 → 메모리 큐로만 처리: type={}", cmd.getEventType(), e);
+                seq = 0;
+            }
+            pending = new PendingAlert(seq, cmd, new CompletableFuture<>());
+            if (queue.offer(pending)) return pending.future();
+            if (seq != 0) {
+                // 재생이 이 순번을 읽기 전에 future 를 등록 (appendLock 안에서)
+                replaying = true;
+                defer(List.of(pending));
+                return pending.future();
+            }
+        }
+        dropped.incrementAndGet();
+        pending.future().completeExceptionally(new RejectedExecutionException("ingest queue overflow"));
+        return pending.future();
+    }
+
+    private void runLoop() {
+        List<PendingAlert> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                if (replaying) {
+                    replayOnce();
+                    continue;
+                }
+                PendingAlert first = queue.poll(1, TimeUnit.SECONDS); // 재생 전환 확인용으로 주기적으로 깨어남
+                if (first == null) continue;
+                batch.add(first);
+                fillBatch(batch);
+                if (journal.isEnabled()) persistJournaled(batch);
+                else failRemainder(batch, persist(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("❌ 이벤트 저장 루프 오류", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** 첫 이벤트 이후 maxBatch 건이 차거나 flushIntervalMs 가 지날 때까지 모음 */
+    private void fillBatch(List<PendingAlert> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < maxBatch) {
+            queue.drainTo(batch, maxBatch - batch.size());
+            if (batch.size() >= maxBatch) return;
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return;
+            PendingAlert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) return;
+            batch.add(next);
+        }
+    }
+
+    /**
+     * 큐에서 꺼낸 배치 저장 (WAL 사용 시).
+     * 이미 재생으로 저장된 순번은 건너뛰고, 체크포인트와 순번이 이어지지 않으면(중간 누락) 재생으로 전환.
+     */
+    private void persistJournaled(List<PendingAlert> batch) {
+        long checkpoint = journal.getCheckpoint();
+        List<PendingAlert> live = new ArrayList<>(batch.size());
+        for (PendingAlert p : batch) {
+            if (p.seq() == 0) failRemainder(List.of(p), persist(List.of(p))); // WAL 기록 실패분
+            else if (p.seq() <= checkpoint) {
+                // 재생은 큐에 있던 순번을 먼저 등록하므로 생기지 않아야 함
+                p.future().completeExceptionally(new IllegalStateException("already persisted by journal replay"));
+            }
+            else live.add(p);
+        }
+        if (live.isEmpty()) return;
+        // 체크포인트부터 순번이 이어지는 앞부분만 저장, 끊긴 뒤(넘쳐서 큐에 못 들어간 순번 이후)는 재생으로
+        int contiguous = 0;
+        while (contiguous < live.size() && live.get(contiguous).seq() == checkpoint + 1 + contiguous) contiguous++;
+        if (contiguous < live.size()) {
+            replaying = true;
+            defer(live.subList(contiguous, live.size()));
+            live = live.subList(0, contiguous);
+            if (live.isEmpty()) return;
+        }
+        int done = persist(live);
+        if (done > 0) journal.checkpoint(live.get(done - 1).seq());
+        if (done < live.size()) {
+            log.warn("⚠️ DB 연결 장애 → WAL 재생 모드 전환 (미반영 {}건)", journal.pendingCount());
+            replaying = true;
+            defer(live.subList(done, live.size()));
+        }
+    }
+
+    /**
+     * 체크포인트 이후 WAL 레코드를 한 배치 재생. 다 따라잡으면 큐 처리로 복귀.
+     * 재생 범위는 큐를 비운 시점의 마지막 순번까지 → 그 안의 순번은 모두 future 가 등록되어 있음 (재시작 전 것은 없음)
+     */
+    private void replayOnce() throws InterruptedException {
+        // 재생 중 큐에 들어온 이벤트는 WAL 에 있으므로 future 만 등록
+        List<PendingAlert> queued = new ArrayList<>();
+        long upTo;
+        synchronized (appendLock) {
+            queue.drainTo(queued);
+            upTo = journal.lastSeq();
+        }
+        for (PendingAlert p : queued) {
+            if (p.seq() == 0) failRemainder(List.of(p), persist(List.of(p)));
+            else defer(List.of(p));
+        }
+
+        List<DeviceEventJournal.Entry> entries;
+        try {
+            entries = journal.readAfter(journal.getCheckpoint(), maxBatch).stream()
+                    .filter(e -> e.seq() <= upTo)
+                    .toList();
+        } catch (IOException e) {
+            log.error("❌ WAL 읽기 실패 → {}ms 후 재시도", replayRetryMs, e);
+            Thread.sleep(replayRetryMs);
+            return;
+        }
+        if (entries.isEmpty()) {
+            replaying = false;
+            log.info("✅ WAL 재생 완료: 누적 {}건", replayed.get());
+            return;
+        }
+        List<PendingAlert> batch = entries.stream()
+                .map(e -> new PendingAlert(e.seq(), e.cmd(),
+                        awaitingReplay.getOrDefault(e.seq(), new CompletableFuture<>())))
+                .toList();
+        int done = persist(batch);
+        if (done > 0) {
+            journal.checkpoint(batch.get(done - 1).seq());
+            replayed.addAndGet(done);
+            for (int i = 0; i < done; i++) awaitingReplay.remove(batch.get(i).seq());
+        }
+        if (done < batch.size()) {
+            log.warn("⚠️ DB 연결 불가 → {}ms 후 WAL 재생 재시도 (미반영 {}건)", replayRetryMs, journal.pendingCount());
+            Thread.sleep(replayRetryMs);
+        }
+    }
+
+    /**
+     * 배치를 한 트랜잭션으로 저장, 실패 시 건별 저장으로 실패 이벤트만 분리.
+     * @return 앞에서부터 처리(저장 또는 데이터 오류로 실패)된 건수. DB 연결 장애면 그 지점에서 멈춤
+     */
+    private int persist(List<PendingAlert> batch) {
+        try {
+            List<AlertHistoryDto> saved = alertService.saveAlerts(batch.stream().map(PendingAlert::cmd).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(saved.get(i));
+            }
+            persisted.addAndGet(batch.size());
+            return batch.size();
+        } catch (Exception batchError) {
+            if (isConnectionFailure(batchError)) return 0;
+            if (batch.size() == 1) {
+                fail(batch.get(0), batchError);
+                return 1;
+            }
+            log.warn("⚠️ 배치 저장 실패({}건) → 건별 재시도: {}", batch.size(), batchError.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                PendingAlert p = batch.get(i);
+                try {
+                    p.future().complete(alertService.saveAlert(p.cmd()));
+                    persisted.incrementAndGet();
+                } catch (Exception e) {
+                    if (isConnectionFailure(e)) return i;
+                    fail(p, e);
+                }
+            }
+            return batch.size();
+        }
+    }
+
+    /** WAL 없이 처리한 배치에서 DB 연결 장애로 남은 이벤트는 실패 처리 */
+    private void failRemainder(List<PendingAlert> batch, int done) {
+        for (int i = done; i < batch.size(); i++) {
+            fail(batch.get(i), new RejectedExecutionException("database unreachable"));
+        }
+    }
+
+    /**
+     * WAL 에 남아 재생으로 저장될 이벤트 → future 를 순번별로 보관, 재생 저장 시 완료.
+     * 보관 한도를 넘으면 저장은 재생에 맡기고 호출자에게는 완료 실패로 알림
+     */
+    private void defer(List<PendingAlert> pending) {
+        for (PendingAlert p : pending) {
+            deferred.incrementAndGet();
+            if (awaitingReplay.size() < maxAwaiting) {
+                awaitingReplay.put(p.seq(), p.future());
+            } else {
+                p.future().completeExceptionally(new RejectedExecutionException("deferred to journal replay"));
+            }
+        }
+    }
+
+    /** DB / SSH 터널 연결 문제면 true (데이터 오류와 구분 → 재시도 대상) */
+    private static boolean isConnectionFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataAccessResourceFailureException
+                    || t instanceof TransientDataAccessResourceException
+                    || t instanceof CannotCreateTransactionException
+                    || t instanceof JDBCConnectionException
+                    || t instanceof SQLTransientConnectionException
+                    || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException
+                    || t instanceof ConnectException) {
+                return true;
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+
+    private void fail(PendingAlert p, Exception e) {
+        failed.incrementAndGet();
+        log.error("❌ 알림 저장 실패: type={}, userKey={}", p.cmd().getEventType(), p.cmd().getUserKey(), e);
+        p.future().completeExceptionally(e);
+    }
+
+    /** 저장 큐 사용률 (0.0 ~ 1.0) */
+    public double queueUtilization() {
+        return (double) queue.size() / Math.max(1, queueCapacity);
+    }
+
+    public Stats stats() {
+        return new Stats(queue.size(), submitted.get(), persisted.get(), dropped.get(), failed.get(),
+                deferred.get(), replayed.get(), replaying, journal.pendingCount(), journal.segmentCount());
+    }
+
+    public record Stats(int queueDepth, long submitted, long persisted, long dropped, long failed,
+                        long deferred, long replayed, boolean replaying, long journalPending, int journalSegments) {}
+
+    /** seq = WAL 순번 (WAL 미사용 / 기록 실패면 0) */
+    private record PendingAlert(long seq, SaveAlertCommand cmd, CompletableFuture<AlertHistoryDto> future) {}
+}
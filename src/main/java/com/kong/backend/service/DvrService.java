@@ -0,0 +1,255 @@
+package com.kong.backend.service;
+
+import com.kong.backend.Entity.VideoEntity;
+import com.kong.backend.repository.PatientRepository;
+import com.kong.backend.util.MappedVideoTrack;
+import com.kong.backend.websocket.WebSocketSessions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * /ws/video 로 중계한 프레임의 연속 녹화 (DVR, app.video.dvr.enabled=true 일 때).
+ * - 보낸 세션의 ?deviceId= (없으면 ?paKey=) 별로 dir 아래 디렉터리 하나 = MappedVideoTrack (메모리 매핑 세그먼트 파일)
+ * - 보관 정책: 디바이스별 max-bytes-per-device / max-age-hours 를 넘는 오래된 세그먼트부터 삭제 (retention-check-ms 마다)
+ * - export: 시간 구간 → 세그먼트 순차 읽기로 MJPEG 파일 생성 후 VideoEntity 등록 (Pi 재업로드 / 재인코딩 없음)
+ * - 세그먼트 닫기(디스크 반영 / 인덱스 저장)와 다음 세그먼트 준비는 dvr-seal 스레드에서 → 중계(수신) 스레드는 기다리지 않음
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DvrService {
+
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private static final String ATTR_TRACK = "dvrTrack";
+    private static final Object NOT_RECORDED = new Object(); // 디바이스를 알 수 없는 세션 표시
+    private static final String PA_KEY_FILE = "paKey";       // 디바이스 디렉터리 → 환자 매핑 (재시작 후 paKey 로 조회)
+
+    private final VideoService videoService;
+    private final PatientRepository patientRepository;
+
+    @Value("${app.video.dvr.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.video.dvr.dir:${app.storage.local.base-dir:/home/ubuntu/app/videos}/dvr}")
+    private String dir;
+
+    @Value("${app.video.dvr.segment-bytes:67108864}")
+    private int segmentBytes; // 세그먼트 파일 크기 (기본 64MB)
+
+    @Value("${app.video.dvr.index-interval-ms:1000}")
+    private long indexIntervalMs; // 시각 → 위치 인덱스 간격
+
+    @Value("${app.video.dvr.max-bytes-per-device:2147483648}")
+    private long maxBytesPerDevice;
+
+    @Value("${app.video.dvr.max-age-hours:24}")
+    private long maxAgeHours;
+
+    @Value("${app.video.dvr.max-export-seconds:600}")
+    private long maxExportSeconds; // 한 번에 내보낼 수 있는 최대 구간
+
+    private final Map<String, MappedVideoTrack> tracks = new ConcurrentHashMap<>();  // 디렉터리 이름 → 트랙
+    private final Map<Integer, String> trackByPatient = new ConcurrentHashMap<>();    // paKey → 디렉터리 이름
+    private final Map<String, Integer> patientByTrack = new ConcurrentHashMap<>();    // 디렉터리 이름 → 기록된 paKey
+
+    private final AtomicLong framesWritten = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private final AtomicLong segmentsDeleted = new AtomicLong();
+
+    private ExecutorService sealExecutor;
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) return;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("dvr-seal-");
+        threadFactory.setDaemon(true);
+        sealExecutor = Executors.newSingleThreadExecutor(threadFactory);
+        Path root = Files.createDirectories(Path.of(dir));
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path trackDir : dirs.filter(Files::isDirectory).toList()) {
+                String name = trackDir.getFileName().toString();
+                tracks.put(name, open(trackDir));
+                Path paKeyFile = trackDir.resolve(PA_KEY_FILE);
+                if (Files.exists(paKeyFile)) {
+                    Integer paKey = parseInt(Files.readString(paKeyFile, StandardCharsets.UTF_8).trim());
+                    if (paKey != null) {
+                        trackByPatient.putIfAbsent(paKey, name);
+                        patientByTrack.put(name, paKey);
+                    }
+                }
+            }
+        }
+        log.info("✅ DVR 녹화 사용: dir={}, tracks={}", root.toAbsolutePath(), tracks.size());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        for (MappedVideoTrack track : tracks.values()) track.close();
+        if (sealExecutor == null) return;
+        sealExecutor.shutdown(); // 닫는 중인 세그먼트는 마저 디스크에 반영
+        if (!sealExecutor.awaitTermination(30, TimeUnit.SECONDS)) log.warn("⚠️ DVR 세그먼트 닫기가 끝나지 않음");
+    }
+
+    /** 보낸 세션의 프레임 녹화. 디바이스를 알 수 없는 세션(시청자 등)은 무시, 실패해도 중계는 계속 */
+    public void record(WebSocketSession sender, ByteBuffer frame) {
+        if (!enabled) return;
+        Object attached = sender.getAttributes().get(ATTR_TRACK);
+        if (attached == NOT_RECORDED) return;
+        MappedVideoTrack track = attached instanceof MappedVideoTrack t ? t : attach(sender);
+        if (track == null) return;
+        try {
+            if (track.append(System.currentTimeMillis(), frame)) framesWritten.incrementAndGet();
+        } catch (IOException e) {
+            if (writeErrors.incrementAndGet() % 100 == 1) log.warn("⚠️ DVR 녹화 실패: {}", sender.getId(), e);
+        }
+    }
+
+    /** 보내던 세션 종료 → 진행 중 세그먼트 닫기 (재연결 시 새 세그먼트) */
+    public void release(WebSocketSession sender) {
+        if (sender.getAttributes().remove(ATTR_TRACK) instanceof MappedVideoTrack track) track.seal();
+    }
+
+    /**
+     * [from, to] (KST) 구간 녹화를 MJPEG 파일로 저장하고 등록.
+     * deviceId 가 있으면 그 디바이스, 없으면 환자(paKey)의 녹화
+     */
+    public VideoEntity export(int paKey, String deviceId, LocalDateTime from, LocalDateTime to) throws Exception {
+        long fromMillis = from.atZone(KST).toInstant().toEpochMilli();
+        long toMillis = to.atZone(KST).toInstant().toEpochMilli();
+        if (toMillis <= fromMillis) throw new IllegalArgumentException("to 는 from 이후여야 합니다.");
+        if (toMillis - fromMillis > maxExportSeconds * 1000) {
+            throw new IllegalArgumentException("구간은 최대 " + maxExportSeconds + "초까지 가능합니다.");
+        }
+        MappedVideoTrack track = find(paKey, deviceId);
+        if (track == null) throw new IllegalArgumentException("녹화 없음: paKey=" + paKey + ", deviceId=" + deviceId);
+        int userKey = patientRepository.findUserKeyByPaKey(paKey)
+                .orElseThrow(() -> new IllegalArgumentException("Patient not found: " + paKey));
+
+        String name = "dvr_" + paKey + "_" + from.format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".mjpeg";
+        long[] frames = {0};
+        VideoEntity saved = videoService.saveGenerated(userKey, name, ServerClipService.CONTENT_TYPE, out -> {
+            frames[0] = track.writeBetween(fromMillis, toMillis, out);
+            if (frames[0] == 0) throw new IllegalStateException("구간에 녹화된 프레임 없음");
+        });
+        log.info("🎬 DVR 구간 저장: paKey={}, {} ~ {}, frames={}, videoId={}", paKey, from, to, frames[0], saved.getVideoId());
+        return saved;
+    }
+
+    /** 녹화된 구간 (녹화 없으면 null) */
+    public Range range(int paKey, String deviceId) {
+        MappedVideoTrack track = find(paKey, deviceId);
+        if (track == null || track.oldestMillis() < 0) return null;
+        return new Range(toKst(track.oldestMillis()), toKst(track.newestMillis()), track.segmentCount(), track.bytes());
+    }
+
+    @Scheduled(fixedDelayString = "${app.video.dvr.retention-check-ms:60000}")
+    void enforceRetention() {
+        if (!enabled) return;
+        long oldest = System.currentTimeMillis() - maxAgeHours * 3600_000L;
+        for (MappedVideoTrack track : tracks.values()) {
+            int deleted = track.enforceRetention(maxBytesPerDevice, oldest);
+            if (deleted > 0) segmentsDeleted.addAndGet(deleted);
+        }
+    }
+
+    /** deviceId 를 지정해도 그 트랙에 기록된 paKey 가 같을 때만 (다른 환자 녹화를 내보내지 않음) */
+    private MappedVideoTrack find(int paKey, String deviceId) {
+        if (!enabled) return null;
+        if (deviceId != null) {
+            String name = deviceDir(deviceId);
+            return Integer.valueOf(paKey).equals(patientByTrack.get(name)) ? tracks.get(name) : null;
+        }
+        String name = trackByPatient.get(paKey);
+        return tracks.get(name != null ? name : "patient-" + paKey);
+    }
+
+    private synchronized MappedVideoTrack attach(WebSocketSession sender) {
+        String deviceId = WebSocketSessions.queryParam(sender, "deviceId");
+        Integer paKey = parseInt(WebSocketSessions.queryParam(sender, "paKey"));
+        if (deviceId == null && paKey == null) {
+            sender.getAttributes().put(ATTR_TRACK, NOT_RECORDED);
+            return null;
+        }
+        String name = deviceId != null ? deviceDir(deviceId) : "patient-" + paKey;
+        try {
+            MappedVideoTrack track = tracks.get(name);
+            if (track == null) {
+                track = open(Path.of(dir, name));
+                tracks.put(name, track);
+                log.info("🎞️ DVR 녹화 시작: {}", name);
+            }
+            if (paKey != null && !name.equals(trackByPatient.put(paKey, name))) {
+                Files.writeString(Path.of(dir, name, PA_KEY_FILE), paKey.toString(), StandardCharsets.UTF_8);
+            }
+            if (paKey != null) patientByTrack.put(name, paKey);
+            sender.getAttributes().put(ATTR_TRACK, track);
+            return track;
+        } catch (IOException e) {
+            log.warn("⚠️ DVR 트랙 열기 실패 → 이 세션은 녹화 안 함: {}", name, e);
+            sender.getAttributes().put(ATTR_TRACK, NOT_RECORDED);
+            return null;
+        }
+    }
+
+    private MappedVideoTrack open(Path trackDir) throws IOException {
+        return new MappedVideoTrack(trackDir, segmentBytes, indexIntervalMs, sealExecutor);
+    }
+
+    /** 파일 이름으로 쓸 수 없는 문자는 '_' 로 */
+    private static String deviceDir(String deviceId) {
+        return "device-" + deviceId.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    private static LocalDateTime toKst(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), KST);
+    }
+
+    private static Integer parseInt(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Stats stats() {
+        long bytes = 0;
+        int segments = 0;
+        for (MappedVideoTrack track : tracks.values()) {
+            bytes += track.bytes();
+            segments += track.segmentCount();
+        }
+        return new Stats(enabled, tracks.size(), segments, bytes, framesWritten.get(), writeErrors.get(),
+                segmentsDeleted.get());
+    }
+
+    public record Range(LocalDateTime from, LocalDateTime to, int segments, long bytes) {}
+
+    public record Stats(boolean enabled, int tracks, int segments, long bytes, long framesWritten,
+                        long writeErrors, long segmentsDeleted) {}
+}
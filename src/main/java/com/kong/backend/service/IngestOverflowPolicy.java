@@ -0,0 +1,10 @@
+package com.kong.backend.service;
+
+/**
+ * 디바이스 이벤트 적재 큐가 가득 찼을 때의 처리 정책
+ */
+public enum IngestOverflowPolicy {
+    DROP_OLDEST,  // 가장 오래된 대기 이벤트를 버림 (해당 future 는 실패 처리)
+    DROP_NEWEST,  // 새 이벤트를 버림
+    CALLER_RUNS   // 수신 스레드에서 바로 저장 (기존 동기 방식으로 후퇴)
+}
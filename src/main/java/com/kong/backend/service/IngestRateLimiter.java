@@ -0,0 +1,185 @@
+package com.kong.backend.service;
+
+import com.kong.backend.util.TokenBucket;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * /ws/fall 이벤트 유입 제한.
+ * - 디바이스별 토큰 버킷: 고장/루프 도는 Pi 하나가 저장·브로드캐스트를 독점하지 못하게
+ * - 전체 제한: DB 커넥션 풀이 포화(대기 스레드 발생 / 사용률 초과)거나 저장 큐가 차면 전체 토큰 버킷 적용
+ * - 초과 이벤트는 버리되 N 건마다 하나는 표본으로 통과
+ * - eventType 이 바뀌는 상태 전이도 디바이스 토큰을 씀. 토큰이 없으면 transition-interval 마다 한 번만 예외로 통과
+ *   (eventType 을 번갈아 보내는 Pi 가 제한을 피하지 못하게). DB 포화 시 전체 제한은 상태 전이에도 적용
+ * - 전체 제한으로 버려진 이벤트는 디바이스 토큰 / 전이 예외를 쓰지 않음 (포화가 풀린 뒤 이중으로 불이익 없음)
+ * - 디바이스 상태는 연결 종료가 아니라 idle-ttl 동안 이벤트가 없을 때 정리 (재연결로 제한이 초기화되지 않게)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IngestRateLimiter {
+
+    private final DataSource dataSource;
+    private final DeviceEventPipeline eventPipeline;
+
+    @Value("${app.ingest.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ingest.rate-limit.device-rate-per-sec:5}")
+    private double deviceRatePerSec;
+
+    @Value("${app.ingest.rate-limit.device-burst:20}")
+    private double deviceBurst;
+
+    @Value("${app.ingest.rate-limit.global-rate-per-sec:200}")
+    private double globalRatePerSec; // DB 포화 시 전체 허용량
+
+    @Value("${app.ingest.rate-limit.pool-saturation:0.9}")
+    private double poolSaturation; // 활성 커넥션 / 최대 커넥션 이 비율 이상이면 포화
+
+    @Value("${app.ingest.rate-limit.queue-saturation:0.8}")
+    private double queueSaturation; // 저장 큐 사용률 이 비율 이상이면 포화
+
+    @Value("${app.ingest.rate-limit.sample-every:10}")
+    private int sampleEvery; // 초과 이벤트 중 N 건마다 하나는 통과 (0 이면 표본 없음)
+
+    @Value("${app.ingest.rate-limit.transition-interval-ms:1000}")
+    private long transitionIntervalMs; // 토큰이 없어도 상태 전이를 통과시키는 최소 간격 (디바이스별)
+
+    @Value("${app.ingest.rate-limit.idle-ttl-ms:600000}")
+    private long idleTtlMs; // 이 시간 동안 이벤트가 없던 디바이스 상태는 정리
+
+    private final Map<String, DeviceState> devices = new ConcurrentHashMap<>();
+    private TokenBucket globalBucket;
+    private HikariPoolMXBean pool; // Hikari 가 아니면 null (큐 기준만 사용)
+    private int maxPoolSize;
+    private LongSupplier clock; // System::nanoTime (테스트에서 주입, 토큰 버킷도 같은 시계)
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong sampled = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        init(System::nanoTime);
+    }
+
+    /** 시계 지정 (테스트에서 시계를 직접 움직일 때, 토큰 채움도 이 시계 기준) */
+    void init(LongSupplier clock) {
+        this.clock = clock;
+        globalBucket = new TokenBucket(globalRatePerSec, globalRatePerSec, clock);
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                maxPoolSize = hikari.getMaximumPoolSize();
+                pool = hikari.getHikariPoolMXBean();
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ 커넥션 풀 상태 조회 불가 → 저장 큐 기준으로만 포화 판단", e);
+        }
+    }
+
+    public enum Decision { ACCEPT, SAMPLED, SHED }
+
+    /** 이벤트 허용 여부 (디바이스 수신 스레드에서 호출, DB 접근 없음) */
+    public Decision admit(String deviceKey, String eventType) {
+        if (!enabled) return Decision.ACCEPT;
+        long now = clock.getAsLong();
+        DeviceState state = devices.computeIfAbsent(deviceKey,
+                k -> new DeviceState(new TokenBucket(deviceRatePerSec, deviceBurst, clock)));
+        state.lastSeenNanos = now;
+
+        // 상태 전이(낙상 → 낙상 해제 등)도 토큰을 쓰고, 토큰이 없을 때만 간격 제한 안에서 예외 통과
+        boolean transition = !eventType.equals(state.lastEventType);
+        boolean token = state.bucket.tryAcquire();
+        boolean exempt = !token && transition && state.canExempt(now, transitionIntervalMs * 1_000_000L);
+        if (token || exempt) {
+            if (!saturated() || globalBucket.tryAcquire()) {
+                if (exempt) state.markExempt(now);
+                return pass(state, eventType, Decision.ACCEPT);
+            }
+            if (token) state.bucket.refund(); // 전체 제한으로 버림 → 디바이스 몫은 쓰지 않은 것으로
+        }
+
+        if (sampleEvery > 0 && state.rejected.incrementAndGet() % sampleEvery == 0) {
+            return pass(state, eventType, Decision.SAMPLED);
+        }
+        if (shed.get() % 1000 == 0) log.warn("🚫 이벤트 유입 제한: device={}, shed 누적={}", deviceKey, shed.get());
+        return count(Decision.SHED);
+    }
+
+    /** 통과한 이벤트의 eventType 만 기억 (버린 전이는 다음 이벤트에서 다시 전이로 판단) */
+    private Decision pass(DeviceState state, String eventType, Decision decision) {
+        state.lastEventType = eventType;
+        return count(decision);
+    }
+
+    /**
+     * idle-ttl 동안 이벤트가 없던 디바이스 상태 정리.
+     * 연결 종료 시 바로 지우면 재연결만으로 버킷이 다시 가득 차고,
+     * 중복 연결 교체 시 이전 세션 정리가 새 세션의 상태를 지움 → 시간 기준으로만 정리
+     */
+    @Scheduled(fixedDelayString = "${app.ingest.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        long ttlNanos = idleTtlMs * 1_000_000L;
+        devices.values().removeIf(state -> now - state.lastSeenNanos >= ttlNanos);
+    }
+
+    private boolean saturated() {
+        if (eventPipeline.queueUtilization() >= queueSaturation) return true;
+        if (pool == null || maxPoolSize <= 0) return false;
+        return pool.getThreadsAwaitingConnection() > 0
+                || (double) pool.getActiveConnections() / maxPoolSize >= poolSaturation;
+    }
+
+    private Decision count(Decision decision) {
+        switch (decision) {
+            case ACCEPT -> accepted.incrementAndGet();
+            case SAMPLED -> sampled.incrementAndGet();
+            case SHED -> shed.incrementAndGet();
+        }
+        return decision;
+    }
+
+    public Stats stats() {
+        return new Stats(devices.size(), saturated(), accepted.get(), sampled.get(), shed.get());
+    }
+
+    public record Stats(int devices, boolean saturated, long accepted, long sampled, long shed) {}
+
+    private static final class DeviceState {
+        private final TokenBucket bucket;
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile String lastEventType;
+        private volatile long lastSeenNanos;
+        private long lastExemptNanos;
+        private boolean exempted;
+
+        private DeviceState(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+
+        /** 토큰 없이 통과한 상태 전이가 intervalNanos 안에 없었으면 true (기록은 실제로 통과했을 때 markExempt) */
+        private synchronized boolean canExempt(long nowNanos, long intervalNanos) {
+            return !exempted || nowNanos - lastExemptNanos >= intervalNanos;
+        }
+
+        private synchronized void markExempt(long nowNanos) {
+            exempted = true;
+            lastExemptNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.kong.backend.service;
+
+import com.kong.backend.Entity.VideoEntity;
+import com.kong.backend.repository.PatientRepository;
+import com.kong.backend.util.OffHeapFrameRing;
+import com.kong.backend.websocket.VideoRingBuffers;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SAVE_CLIP 서버 처리: Pi 에 업로드를 요청하지 않고, 서버가 이미 중계한 프레임(VideoRingBuffers)으로 클립 생성.
+ * 요청 시각 기준 [-preBufferSec, +postBufferSec] 구간의 JPEG 프레임을 이어 붙인 MJPEG 파일로
+ * app.storage.local.base-dir 에 쓰고 VideoEntity 로 등록 (재인코딩 없음).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ServerClipService {
+
+    public static final String CONTENT_TYPE = "video/x-motion-jpeg";
+
+    private final VideoRingBuffers videoRingBuffers;
+    private final VideoService videoService;
+    private final PatientRepository patientRepository;
+
+    @Value("${app.video.ring.server-clips:true}")
+    private boolean serverClips; // false 면 항상 Pi 업로드 방식
+
+    private ExecutorService writer;
+
+    @PostConstruct
+    void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("clip-writer-");
+        threadFactory.setDaemon(true);
+        writer = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.shutdown();
+    }
+
+    /** 서버에서 클립을 만들 수 있으면 true (해당 디바이스 영상이 링 버퍼에 있음) */
+    public boolean canServe(int paKey, String deviceId) {
+        if (!serverClips) return false;
+        OffHeapFrameRing ring = videoRingBuffers.find(paKey, deviceId);
+        return ring != null && ring.frameCount() > 0;
+    }
+
+    /**
+     * postBufferSec 가 지난 뒤 링 버퍼에서 구간을 잘라 저장.
+     * @return 저장된 영상 (구간에 프레임이 없으면 예외로 완료)
+     */
+    public CompletableFuture<VideoEntity> saveClip(String clipId, int paKey, String deviceId,
+                                                   int preBufferSec, int postBufferSec) {
+        OffHeapFrameRing ring = videoRingBuffers.find(paKey, deviceId);
+        if (ring == null) return CompletableFuture.failedFuture(new IllegalStateException("영상 버퍼 없음"));
+
+        long now = System.currentTimeMillis();
+        long retain = videoRingBuffers.retainMillis();
+        long postMillis = Math.min(Math.max(0, postBufferSec) * 1000L, retain / 2);
+        long preMillis = Math.min(Math.max(0, preBufferSec) * 1000L, retain - postMillis); // 저장 시점까지 남아 있는 구간만
+        long from = now - preMillis;
+        long to = now + postMillis;
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                List<byte[]> frames = ring.copyBetween(from, to);
+                if (frames.isEmpty()) throw new IllegalStateException("구간에 프레임 없음");
+                int userKey = patientRepository.findUserKeyByPaKey(paKey)
+                        .orElseThrow(() -> new IllegalArgumentException("Patient not found: " + paKey));
+                VideoEntity saved = videoService.saveGenerated(userKey, clipId + ".mjpeg", CONTENT_TYPE, out -> {
+                    for (byte[] frame : frames) out.write(frame);
+                });
+                log.info("🎬 서버 클립 저장: clipId={}, frames={}, videoId={}", clipId, frames.size(), saved.getVideoId());
+                return saved;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, CompletableFuture.delayedExecutor(postMillis, TimeUnit.MILLISECONDS, writer));
+    }
+}
@@ -27,6 +27,7 @@ public class UserService {
     private final PatientRepository patientRepository;
     private final PatientInfoRepository patientInfoRepository;
     private final AlertHistoryRepository alertHistoryRepository;
+    private final DeviceDirectory deviceDirectory;
 
 
     public UserEntity signup(UserSignUpDto dto) {
@@ -177,6 +178,7 @@ public class UserService {
         }
 
         userRepository.save(user);
+        deviceDirectory.invalidateUser(userKey); // 환자 구성 변경 → 디바이스 매핑 재확인
     }
 
     public void updateUserPassword(Integer userKey, PasswordUpdateDto dto) {
@@ -199,6 +201,15 @@ public class UserService {
         userRepository.save(user);
     }
 
+    public void updateUserProNum(Integer userKey, UserProNumUpdateDto dto) {
+        UserEntity user = userRepository.findById(userKey)
+                .orElseThrow(() -> new UserNotFoundException("해당 유저가 존재하지 않습니다."));
+
+        user.setProNum(dto.getNewProNum());
+        userRepository.save(user);
+        deviceDirectory.invalidateUser(userKey); // 이전 proNum 으로 연결된 디바이스는 다시 확인
+    }
+
     public void saveAlert(Integer userKey, String eventType, String level) {
         UserEntity user = userRepository.findById(userKey)
                 .orElseThrow(() -> new UserNotFoundException("해당 유저가 존재하지 않습니다."));
@@ -13,8 +13,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.*;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.time.LocalDateTime;
 
@@ -69,6 +72,50 @@ public class VideoService {
         return saved;
     }
 
+    /**
+     * 서버에서 만든 영상(링 버퍼 클립 / 녹화 구간)을 base-dir 에 바로 쓰고 등록.
+     * 파일 쓰기는 트랜잭션 밖에서 → 쓰는 동안 DB 커넥션을 잡지 않음
+     */
+    public VideoEntity saveGenerated(Integer userKey, String name, String contentType, VideoWriter writer) throws Exception {
+        UserEntity user = userRepo.findById(userKey)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userKey));
+
+        Path dir = Path.of(basePath);
+        Files.createDirectories(dir);
+        String filename = System.currentTimeMillis() + "_" + name.replaceAll("\\s+", "_");
+        Path target = dir.resolve(filename);
+
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), 256 * 1024), md)) {
+            writer.writeTo(out);
+        } catch (Exception e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        log.info("✅ 파일 저장 완료: {}", target.toAbsolutePath());
+
+        VideoEntity saved = videoRepo.save(
+                VideoEntity.builder()
+                        .user(user)
+                        .fileName(filename)
+                        .filePath(target.toAbsolutePath().toString())
+                        .fileSize(Files.size(target))
+                        .contentType(contentType)
+                        .uploadedAt(LocalDateTime.now())
+                        .checksum(hex(md.digest()))
+                        .build()
+        );
+        log.info("✅ DB 저장 완료: videoId={}, userKey={}", saved.getVideoId(), userKey);
+        return saved;
+    }
+
+    /** 파일 본문 출력 (스트림은 호출 측에서 닫음) */
+    @FunctionalInterface
+    public interface VideoWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
     @Transactional
     public void deleteVideo(Integer videoId, Integer requestUserKey) throws IOException {
         VideoEntity v = videoRepo.findById(videoId)
@@ -102,7 +149,10 @@ public class VideoService {
 
     private String sha256(byte[] bytes) throws Exception {
         MessageDigest md = MessageDigest.getInstance("SHA-256");
-        byte[] d = md.digest(bytes);
+        return hex(md.digest(bytes));
+    }
+
+    private String hex(byte[] d) {
         StringBuilder sb = new StringBuilder();
         for (byte b : d) sb.append(String.format("%02x", b));
         return sb.toString();
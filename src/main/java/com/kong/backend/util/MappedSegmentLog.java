@@ -0,0 +1,224 @@
+package com.kong.backend.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 추가 전용 메모리 매핑 세그먼트 로그 (WAL).
+ * - 세그먼트 파일 이름 = 첫 레코드 순번 (%020d.seg), 가득 차면 다음 세그먼트로
+ * - 레코드: [int 길이][long 순번][int CRC32][본문]. 본문/순번을 먼저 쓰고 길이를 마지막에 써서
+ *   중간에 죽으면 길이 0 또는 CRC 불일치 → 거기까지만 유효로 복구
+ * - 체크포인트(저장 완료된 마지막 순번)는 별도 8바이트 매핑 파일, 체크포인트 이전 세그먼트는 삭제(재활용)
+ * 쓰기/체크포인트는 한 번에 한 스레드씩 (synchronized).
+ */
+@Slf4j
+public class MappedSegmentLog implements AutoCloseable {
+
+    private static final int HEADER = 4 + 8 + 4;
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean fsync;
+
+    private final NavigableMap<Long, Path> segments = new TreeMap<>(); // 첫 순번 → 파일
+    private MappedByteBuffer active;
+    private long activeBase;
+    private long nextSeq;
+
+    private final MappedByteBuffer checkpointBuf;
+    private long checkpoint;
+
+    // 순차 읽기 커서 (다음 읽을 위치 캐시 → 매번 세그먼트 처음부터 훑지 않음)
+    private long cursorSeq = -1;
+    private long cursorBase = -1;
+    private int cursorPos;
+
+    public MappedSegmentLog(Path dir, int segmentBytes, boolean fsync) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.segmentBytes = Math.max(64 * 1024, segmentBytes);
+        this.fsync = fsync;
+        this.checkpointBuf = map(dir.resolve("checkpoint"), 8);
+        this.checkpoint = checkpointBuf.getLong(0);
+        recover();
+    }
+
+    /** 레코드 추가. @return 부여된 순번 */
+    public synchronized long append(byte[] payload) throws IOException {
+        int size = HEADER + payload.length;
+        if (size + 4 > segmentBytes) throw new IOException("record too large: " + payload.length);
+        if (active == null || active.position() + size + 4 > segmentBytes) roll();
+
+        long seq = nextSeq++;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int pos = active.position();
+        active.putLong(pos + 4, seq);
+        active.putInt(pos + 12, (int) crc.getValue());
+        active.put(pos + HEADER, payload);
+        active.putInt(pos, payload.length); // 마지막에 길이 → 레코드 확정
+        active.position(pos + size);
+        if (fsync) active.force();
+        return seq;
+    }
+
+    /** afterSeq 다음 레코드부터 최대 max 건 */
+    public synchronized List<Record> readAfter(long afterSeq, int max) throws IOException {
+        List<Record> out = new ArrayList<>(max);
+        long want = afterSeq + 1;
+        if (want >= nextSeq) return out;
+
+        long base;
+        int pos;
+        if (cursorSeq == want && segments.containsKey(cursorBase)) {
+            base = cursorBase;
+            pos = cursorPos;
+        } else {
+            Long floor = segments.floorKey(want);
+            if (floor == null && segments.isEmpty()) return out;
+            base = floor != null ? floor : segments.firstKey();
+            pos = 0;
+        }
+        while (true) {
+            ByteBuffer buf = bufferOf(base, segments.get(base));
+            while (out.size() < max && pos + HEADER <= buf.limit()) {
+                int len = buf.getInt(pos);
+                if (len <= 0) break;
+                long seq = buf.getLong(pos + 4);
+                if (seq >= want) {
+                    byte[] payload = new byte[len];
+                    buf.get(pos + HEADER, payload);
+                    out.add(new Record(seq, payload));
+                    want = seq + 1;
+                }
+                pos += HEADER + len;
+            }
+            if (out.size() >= max) break;
+            Long next = segments.higherKey(base);
+            if (next == null) break;
+            base = next;
+            pos = 0;
+        }
+        cursorSeq = want;
+        cursorBase = base;
+        cursorPos = pos;
+        return out;
+    }
+
+    /** seq 까지 저장 완료 기록 + 전부 완료된 세그먼트 삭제 */
+    public synchronized void checkpoint(long seq) {
+        if (seq <= checkpoint) return;
+        checkpoint = seq;
+        checkpointBuf.putLong(0, seq);
+        if (fsync) checkpointBuf.force();
+        recycle();
+    }
+
+    public synchronized long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /** 마지막으로 부여한 순번 */
+    public synchronized long lastSeq() {
+        return nextSeq - 1;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (active != null) active.force();
+        checkpointBuf.force();
+    }
+
+    private void recycle() {
+        while (segments.size() > 1) {
+            Map.Entry<Long, Path> first = segments.firstEntry();
+            Long nextBase = segments.higherKey(first.getKey());
+            if (nextBase == null || nextBase > checkpoint + 1) return;
+            segments.pollFirstEntry();
+            try {
+                Files.deleteIfExists(first.getValue());
+            } catch (IOException e) {
+                log.warn("⚠️ 세그먼트 삭제 실패: {}", first.getValue(), e);
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        if (active != null) active.force();
+        activeBase = nextSeq;
+        Path file = dir.resolve(String.format("%020d%s", activeBase, SUFFIX));
+        active = map(file, segmentBytes);
+        segments.put(activeBase, file);
+    }
+
+    /** 기존 세그먼트를 읽어 마지막 유효 레코드 다음부터 이어 씀 */
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).forEach(p -> {
+                String name = p.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), p);
+            });
+        }
+        nextSeq = Math.max(1, checkpoint + 1);
+        if (segments.isEmpty()) return;
+
+        Map.Entry<Long, Path> last = segments.lastEntry();
+        activeBase = last.getKey();
+        active = map(last.getValue(), segmentBytes);
+        long seq = activeBase;
+        int pos = 0;
+        while (pos + HEADER <= segmentBytes) {
+            int len = active.getInt(pos);
+            if (len <= 0 || pos + HEADER + len > segmentBytes) break;
+            byte[] payload = new byte[len];
+            active.get(pos + HEADER, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != active.getInt(pos + 12)) {
+                log.warn("⚠️ WAL 손상 레코드 발견 → 이후 무시: {} @{}", last.getValue(), pos);
+                break;
+            }
+            seq = active.getLong(pos + 4) + 1;
+            pos += HEADER + len;
+        }
+        // 잘린 꼬리는 지워서 다음 레코드가 오래된 바이트와 섞이지 않게
+        for (int i = pos; i < Math.min(segmentBytes, pos + HEADER); i++) active.put(i, (byte) 0);
+        active.position(pos);
+        nextSeq = Math.max(nextSeq, seq);
+        log.info("✅ WAL 복구: segments={}, checkpoint={}, nextSeq={}", segments.size(), checkpoint, nextSeq);
+    }
+
+    private ByteBuffer bufferOf(long base, Path file) throws IOException {
+        if (base == activeBase && active != null) return active.duplicate().limit(active.position());
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel ch = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    public record Record(long seq, byte[] payload) {}
+}
@@ -0,0 +1,422 @@
+package com.kong.backend.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * 디바이스 하나의 연속 녹화(DVR) 세그먼트 파일들.
+ * - 세그먼트 파일 이름 = 첫 프레임 시각 (%020d.seg), 고정 크기로 메모리 매핑해 이어 쓰고 가득 차면 다음 세그먼트로
+ * - 레코드: [int 길이][long 시각][본문]. 시각/본문을 먼저 쓰고 길이를 마지막에 써서 중간에 죽으면 거기까지만 유효
+ * - 세그먼트마다 희소 인덱스 (indexIntervalMillis 마다 시각 → 위치 한 항목).
+ *   닫힌 세그먼트는 실제 크기로 잘라내고 인덱스를 같은 이름의 .idx 로 저장 (없으면 시작 시 훑어서 다시 만듦)
+ * - 세그먼트 닫기(force / 잘라내기 / .idx)와 다음 세그먼트 파일 생성·매핑은 background 실행기에서
+ *   → append 를 부르는 수신 스레드는 세그먼트가 바뀔 때 미리 만든 파일 이름만 바꾸고 바로 이어 씀
+ * - 구간 읽기: 인덱스로 시작 위치를 찾고 그 뒤로 순차 읽기 (재인코딩 없음)
+ * 쓰기/정리는 synchronized, 구간 읽기는 세그먼트 매핑만 락 안에서 잡고 파일 읽기는 락 밖에서 (녹화를 막지 않음).
+ * 매핑은 파일이 보관 정책으로 삭제된 뒤에도 유효하므로 읽는 도중 정리돼도 내보내기가 실패하지 않음.
+ */
+@Slf4j
+public class MappedVideoTrack implements AutoCloseable {
+
+    private static final int HEADER = 4 + 8;
+    private static final String SEG = ".seg";
+    private static final String IDX = ".idx";
+    private static final String SPARE = "next.spare"; // 미리 만들어 둔 다음 세그먼트 (첫 프레임 때 이름 변경)
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long indexIntervalMillis;
+    private final Executor background;
+
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>(); // 첫 프레임 시각 → 세그먼트
+    private Segment active;
+    private MappedByteBuffer activeBuf;
+    private long lastMillis;
+    private CompletableFuture<Spare> spare; // 준비 중/준비된 다음 세그먼트 (null 이면 요청 전)
+
+    /** 세그먼트 닫기 / 다음 세그먼트 준비를 호출한 스레드에서 바로 하는 트랙 */
+    public MappedVideoTrack(Path dir, int segmentBytes, long indexIntervalMillis) throws IOException {
+        this(dir, segmentBytes, indexIntervalMillis, Runnable::run);
+    }
+
+    public MappedVideoTrack(Path dir, int segmentBytes, long indexIntervalMillis, Executor background)
+            throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.segmentBytes = Math.max(1024 * 1024, segmentBytes);
+        this.indexIntervalMillis = Math.max(1, indexIntervalMillis);
+        this.background = background;
+        recover();
+    }
+
+    /** 프레임 추가 (frame 의 position 은 움직이지 않음). 세그먼트보다 큰 프레임은 버리고 false */
+    public synchronized boolean append(long timeMillis, ByteBuffer frame) throws IOException {
+        int n = frame.remaining();
+        if (n == 0 || HEADER + n + 4 > segmentBytes) return false;
+        long time = Math.max(timeMillis, lastMillis); // 시계가 뒤로 가도 파일 안에서는 시간순 유지
+        if (active == null || active.size + HEADER + n + 4 > segmentBytes) {
+            roll(time);
+            time = active.startMillis;
+        }
+
+        int pos = active.size;
+        activeBuf.putLong(pos + 4, time);
+        activeBuf.put(pos + HEADER, frame, frame.position(), n);
+        activeBuf.putInt(pos, n); // 마지막에 길이 → 레코드 확정
+        active.addIndex(time, pos, indexIntervalMillis);
+        active.size = pos + HEADER + n;
+        active.endMillis = time;
+        lastMillis = time;
+        return true;
+    }
+
+    /**
+     * [fromMillis, toMillis] 구간 프레임 본문을 시간순으로 out 에 이어 씀.
+     * @return 쓴 프레임 수
+     */
+    public long writeBetween(long fromMillis, long toMillis, OutputStream out) throws IOException {
+        List<View> views = new ArrayList<>();
+        synchronized (this) {
+            Long start = segments.floorKey(fromMillis);
+            for (Segment seg : segments.tailMap(start != null ? start : Long.MIN_VALUE, true).values()) {
+                if (seg.startMillis > toMillis) break;
+                if (seg.endMillis < fromMillis || seg.size == 0) continue;
+                // 닫힌 세그먼트도 락 안에서 매핑 → 이후 enforceRetention 이 파일을 지워도 매핑으로 계속 읽음
+                ByteBuffer buf = seg == active ? activeBuf.duplicate() : mapReadOnly(seg.file);
+                views.add(new View(buf, seg.size, seg.floorOffset(fromMillis)));
+            }
+        }
+
+        long frames = 0;
+        byte[] chunk = new byte[64 * 1024];
+        for (View view : views) {
+            ByteBuffer buf = view.buf;
+            int pos = view.startPos;
+            while (pos + HEADER <= view.limit) {
+                int len = buf.getInt(pos);
+                if (len <= 0) break;
+                long time = buf.getLong(pos + 4);
+                if (time > toMillis) return frames;
+                if (time >= fromMillis) {
+                    for (int off = 0; off < len; off += chunk.length) {
+                        int n = Math.min(chunk.length, len - off);
+                        buf.get(pos + HEADER + off, chunk, 0, n);
+                        out.write(chunk, 0, n);
+                    }
+                    frames++;
+                }
+                pos += HEADER + len;
+            }
+        }
+        return frames;
+    }
+
+    /** 진행 중인 세그먼트 닫기 (다음 프레임은 새 세그먼트로). 디스크 반영 / 잘라내기 / 인덱스 저장은 background */
+    public synchronized void seal() {
+        if (active == null) return;
+        Segment seg = active;
+        MappedByteBuffer buf = activeBuf;
+        active = null;
+        activeBuf = null;
+        runInBackground(() -> {
+            buf.force();
+            finish(seg);
+        });
+    }
+
+    /**
+     * 보관 정책 적용: 전체 크기가 maxBytes 를 넘거나 끝 시각이 oldestMillis 보다 오래된 닫힌 세그먼트를 오래된 순으로 삭제.
+     * @return 삭제한 세그먼트 수
+     */
+    public synchronized int enforceRetention(long maxBytes, long oldestMillis) {
+        long total = bytes();
+        int deleted = 0;
+        while (!segments.isEmpty()) {
+            Segment first = segments.firstEntry().getValue();
+            // 아직 닫는 중(background)인 세그먼트는 다음 정리 때
+            if (first == active || !first.finished || (total <= maxBytes && first.endMillis >= oldestMillis)) break;
+            segments.pollFirstEntry();
+            total -= first.size;
+            deleted++;
+            try {
+                Files.deleteIfExists(first.file);
+                Files.deleteIfExists(indexFile(first.file));
+            } catch (IOException e) {
+                log.warn("⚠️ 녹화 세그먼트 삭제 실패: {}", first.file, e);
+            }
+        }
+        return deleted;
+    }
+
+    /** 가장 오래된 프레임 시각 (녹화 없으면 -1) */
+    public synchronized long oldestMillis() {
+        for (Segment seg : segments.values()) {
+            if (seg.size > 0) return seg.startMillis;
+        }
+        return -1;
+    }
+
+    /** 가장 최근 프레임 시각 (녹화 없으면 -1) */
+    public synchronized long newestMillis() {
+        for (Segment seg : segments.descendingMap().values()) {
+            if (seg.size > 0) return seg.endMillis;
+        }
+        return -1;
+    }
+
+    /** 녹화 데이터 크기 (사용 중인 부분만) */
+    public synchronized long bytes() {
+        long total = 0;
+        for (Segment seg : segments.values()) total += seg.size;
+        return total;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        seal();
+        if (spare != null) {
+            spare.thenAccept(s -> deleteQuietly(s.file)); // 쓰지 않은 예비 세그먼트 정리
+            spare = null;
+        }
+    }
+
+    private void roll(long startMillis) throws IOException {
+        seal();
+        // 같은 밀리초에 다시 여는 경우 파일 이름이 겹치지 않게
+        long start = segments.isEmpty() ? startMillis : Math.max(startMillis, segments.lastKey() + 1);
+        Path file = dir.resolve(String.format("%020d%s", start, SEG));
+        Spare ready = takeSpare();
+        if (ready != null) {
+            Files.move(ready.file, file, StandardCopyOption.ATOMIC_MOVE); // 매핑은 이름이 바뀌어도 그대로
+            activeBuf = ready.buf;
+        } else {
+            activeBuf = createMapped(file);
+        }
+        active = new Segment(file, start);
+        segments.put(start, active);
+        if (spare == null) spare = prepareSpare();
+    }
+
+    /** 준비가 끝난 예비 세그먼트 (아직 준비 중이면 null 이고 그대로 둠, 실패했으면 다시 요청) */
+    private Spare takeSpare() {
+        if (spare == null) return null;
+        try {
+            Spare ready = spare.getNow(null);
+            if (ready != null) spare = null;
+            return ready;
+        } catch (CompletionException e) {
+            log.warn("⚠️ 다음 녹화 세그먼트 준비 실패: {}", dir, e.getCause());
+            spare = null;
+            return null;
+        }
+    }
+
+    private CompletableFuture<Spare> prepareSpare() {
+        CompletableFuture<Spare> future = new CompletableFuture<>();
+        runInBackground(() -> {
+            try {
+                Path file = dir.resolve(SPARE);
+                Files.deleteIfExists(file);
+                future.complete(new Spare(file, createMapped(file)));
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private MappedByteBuffer createMapped(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    /** 실행기가 이미 종료됐으면(애플리케이션 종료 중) 호출한 스레드에서 */
+    private void runInBackground(Runnable task) {
+        try {
+            background.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /** 닫힌 세그먼트: 쓴 만큼만 남기고 인덱스 저장 (background) */
+    private void finish(Segment seg) {
+        try (FileChannel ch = FileChannel.open(seg.file, StandardOpenOption.WRITE)) {
+            ch.truncate(seg.size);
+        } catch (IOException e) {
+            // 매핑이 남아 있으면 잘라내지 못하는 OS 가 있음 → 빈 꼬리는 길이 0 으로 끝나므로 읽기에는 문제 없음
+            log.debug("녹화 세그먼트 잘라내기 실패: {}", seg.file, e);
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(indexFile(seg.file)))) {
+            out.writeLong(seg.endMillis);
+            out.writeInt(seg.size);
+            out.writeInt(seg.count);
+            for (int i = 0; i < seg.count; i++) {
+                out.writeLong(seg.times[i]);
+                out.writeInt(seg.offsets[i]);
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ 녹화 인덱스 저장 실패: {}", seg.file, e);
+        }
+        seg.finished = true;
+    }
+
+    /** 기존 세그먼트 목록 복구 (인덱스 파일이 없으면 = 녹화 중 종료 → 훑어서 다시 만듦). 녹화는 항상 새 세그먼트부터 */
+    private void recover() throws IOException {
+        Files.deleteIfExists(dir.resolve(SPARE));
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(SEG)).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            Segment seg = new Segment(file, Long.parseLong(name.substring(0, name.length() - SEG.length())));
+            if (!loadIndex(seg)) {
+                scan(seg);
+                if (seg.size == 0) { // 첫 프레임도 못 쓰고 종료된 세그먼트
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                finish(seg);
+            }
+            seg.finished = true;
+            segments.put(seg.startMillis, seg);
+            lastMillis = Math.max(lastMillis, seg.endMillis);
+        }
+        if (!segments.isEmpty()) {
+            Map.Entry<Long, Segment> last = segments.lastEntry();
+            log.info("✅ 녹화 복구: {} segments={}, 마지막 프레임={}", dir, segments.size(), last.getValue().endMillis);
+        }
+    }
+
+    private boolean loadIndex(Segment seg) {
+        Path idx = indexFile(seg.file);
+        if (!Files.exists(idx)) return false;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(idx))) {
+            seg.endMillis = in.readLong();
+            seg.size = in.readInt();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) seg.putIndex(in.readLong(), in.readInt());
+            return seg.size <= Files.size(seg.file);
+        } catch (IOException e) {
+            log.warn("⚠️ 녹화 인덱스 손상 → 다시 생성: {}", idx);
+            seg.count = 0;
+            seg.endMillis = seg.startMillis;
+            return false;
+        }
+    }
+
+    private void scan(Segment seg) throws IOException {
+        ByteBuffer buf = mapReadOnly(seg.file);
+        int pos = 0;
+        while (pos + HEADER <= buf.limit()) {
+            int len = buf.getInt(pos);
+            if (len <= 0 || pos + HEADER + len > buf.limit()) break;
+            long time = buf.getLong(pos + 4);
+            seg.addIndex(time, pos, indexIntervalMillis);
+            seg.endMillis = time;
+            pos += HEADER + len;
+        }
+        seg.size = pos;
+    }
+
+    private static ByteBuffer mapReadOnly(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("예비 녹화 세그먼트 삭제 실패: {}", file, e);
+        }
+    }
+
+    private static Path indexFile(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEG.length()) + IDX);
+    }
+
+    /** 세그먼트 하나의 메타데이터 + 희소 인덱스 */
+    private static final class Segment {
+        private final Path file;
+        private final long startMillis;
+        private long endMillis;
+        private int size;
+        private long[] times = new long[64];
+        private int[] offsets = new int[64];
+        private int count;
+        private volatile boolean finished; // 잘라내기 / 인덱스 저장까지 끝남 (그 전에는 삭제하지 않음)
+
+        private Segment(Path file, long startMillis) {
+            this.file = file;
+            this.startMillis = startMillis;
+            this.endMillis = startMillis;
+        }
+
+        private void addIndex(long time, int pos, long intervalMillis) {
+            if (count > 0 && time - times[count - 1] < intervalMillis) return;
+            putIndex(time, pos);
+        }
+
+        private void putIndex(long time, int pos) {
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            times[count] = time;
+            offsets[count] = pos;
+            count++;
+        }
+
+        /** time 이전의 마지막 인덱스 위치 (없으면 0) */
+        private int floorOffset(long time) {
+            int lo = 0, hi = count - 1, found = 0;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] <= time) {
+                    found = offsets[mid];
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    /** 미리 만들어 매핑해 둔 다음 세그먼트 파일 */
+    private record Spare(Path file, MappedByteBuffer buf) {}
+
+    /** 락 밖에서 읽을 세그먼트 구간 (락 안에서 매핑해 둔 버퍼) */
+    private record View(ByteBuffer buf, int limit, int startPos) {}
+}
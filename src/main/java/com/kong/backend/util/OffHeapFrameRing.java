@@ -0,0 +1,98 @@
+package com.kong.backend.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 최근 영상 프레임을 힙 밖(direct buffer)에 보관하는 링 버퍼 (디바이스당 하나).
+ * - 프레임 본문은 하나의 direct buffer 에 순서대로 이어 쓰고, 끝에 닿으면 처음으로 돌아감
+ * - 인덱스(시각/위치/길이)는 고정 크기 배열 링. 덮어쓸 자리에 있던 오래된 프레임 / retainMillis 보다 오래된 프레임은 제거
+ * - GC 대상 힙을 키우지 않고 초당 수십 장의 프레임을 수 초~수십 초 보관
+ * 쓰기/읽기는 synchronized (디바이스당 송신 스레드 하나 + 드문 클립 조회).
+ */
+public class OffHeapFrameRing {
+
+    private final ByteBuffer data;
+    private final long retainMillis;
+
+    private final long[] times;
+    private final int[] offsets;
+    private final int[] lengths;
+    private int first;  // 가장 오래된 프레임 인덱스
+    private int count;
+    private int writePos;
+
+    public OffHeapFrameRing(int capacityBytes, int maxFrames, long retainMillis) {
+        this.data = ByteBuffer.allocateDirect(capacityBytes);
+        this.retainMillis = retainMillis;
+        this.times = new long[maxFrames];
+        this.offsets = new int[maxFrames];
+        this.lengths = new int[maxFrames];
+    }
+
+    /** 프레임 추가 (frame 의 position 은 움직이지 않음). 버퍼보다 큰 프레임은 버리고 false */
+    public synchronized boolean append(long timeMillis, ByteBuffer frame) {
+        int n = frame.remaining();
+        if (n == 0 || n > data.capacity()) return false;
+
+        evictOlderThan(timeMillis - retainMillis);
+        if (writePos + n > data.capacity()) {
+            // 끝부분은 비워 두고 처음으로 → 그 구간에 있던(가장 오래된) 프레임부터 제거
+            while (count > 0 && offsets[first] >= writePos) evictFirst();
+            writePos = 0;
+        }
+        while (count > 0 && overlaps(first, writePos, n)) evictFirst();
+        if (count == times.length) evictFirst();
+
+        data.put(writePos, frame, frame.position(), n);
+        int slot = (first + count) % times.length;
+        times[slot] = timeMillis;
+        offsets[slot] = writePos;
+        lengths[slot] = n;
+        count++;
+        writePos += n;
+        return true;
+    }
+
+    /** [fromMillis, toMillis] 구간 프레임 복사본 (시간순) */
+    public synchronized List<byte[]> copyBetween(long fromMillis, long toMillis) {
+        List<byte[]> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int slot = (first + i) % times.length;
+            if (times[slot] < fromMillis) continue;
+            if (times[slot] > toMillis) break;
+            byte[] frame = new byte[lengths[slot]];
+            data.get(offsets[slot], frame);
+            frames.add(frame);
+        }
+        return frames;
+    }
+
+    /** 가장 오래된 프레임 시각 (비어 있으면 -1) */
+    public synchronized long oldestMillis() {
+        return count == 0 ? -1 : times[first];
+    }
+
+    public synchronized int frameCount() {
+        return count;
+    }
+
+    public int capacityBytes() {
+        return data.capacity();
+    }
+
+    private void evictOlderThan(long cutoff) {
+        while (count > 0 && times[first] < cutoff) evictFirst();
+    }
+
+    private boolean overlaps(int slot, int pos, int n) {
+        int start = offsets[slot];
+        return start < pos + n && start + lengths[slot] > pos;
+    }
+
+    private void evictFirst() {
+        first = (first + 1) % times.length;
+        count--;
+    }
+}
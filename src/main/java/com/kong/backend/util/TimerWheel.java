@@ -0,0 +1,172 @@
+package com.kong.backend.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * 해시 타이머 휠.
+ * 예약/취소는 O(1), 틱마다 해당 버킷만 확인하므로 전체 스캔 없이 만료 처리.
+ * 만료 작업은 휠 스레드에서 실행되므로 짧게 유지할 것 (무거운 작업은 다른 실행기로 넘김).
+ * 예약된 작업이 하나도 없으면 휠 스레드는 다음 schedule() 까지 잠듦 (빈 틱을 돌지 않음).
+ * 시계를 주입한 휠은 스레드 없이 advance() 를 부를 때만 진행 (테스트용).
+ */
+@Slf4j
+public class TimerWheel implements AutoCloseable {
+
+    private final long tickNanos;
+    private final List<Timeout>[] wheel; // 휠 스레드 전용
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(); // 아직 휠로 옮기지 않은 예약 수
+    private int inWheel; // 휠 버킷에 있는 예약 수 (휠 스레드 전용)
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final Thread worker; // null 이면 advance() 로 진행
+    private volatile boolean running = true;
+    private long tick;
+
+    public TimerWheel(String name, long tickMs, int wheelSize) {
+        this(name, tickMs, wheelSize, System::nanoTime);
+    }
+
+    /** 스레드 없이 nanoClock 기준으로 advance() 때만 진행하는 휠 */
+    public TimerWheel(long tickMs, int wheelSize, LongSupplier nanoClock) {
+        this(null, tickMs, wheelSize, nanoClock);
+    }
+
+    @SuppressWarnings("unchecked")
+    private TimerWheel(String name, long tickMs, int wheelSize, LongSupplier nanoClock) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1; // 2의 거듭제곱으로 올림
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        this.wheel = new List[size];
+        for (int i = 0; i < size; i++) wheel[i] = new ArrayList<>();
+        this.mask = size - 1;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        if (name == null) {
+            this.worker = null;
+            return;
+        }
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /** delayMs 후 task 실행 */
+    public Timeout schedule(Runnable task, long delayMs) {
+        long deadline = elapsedNanos() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        Timeout timeout = new Timeout(task, deadline);
+        pending.add(timeout);
+        if (pendingCount.getAndIncrement() == 0 && worker != null) LockSupport.unpark(worker); // 쉬던 휠 깨움
+        return timeout;
+    }
+
+    /** 주입한 시계까지 지난 틱을 모두 처리 (스레드 없는 휠 전용, 호출한 스레드에서 만료 작업 실행) */
+    public void advance() {
+        if (worker != null) throw new IllegalStateException("휠 스레드가 진행하는 휠");
+        long now = elapsedNanos();
+        if (idle()) tick = now / tickNanos;
+        while ((tick + 1) * tickNanos <= now) {
+            processTick();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (worker != null) worker.interrupt();
+    }
+
+    private long elapsedNanos() {
+        return nanoClock.getAsLong() - startNanos;
+    }
+
+    private void run() {
+        long nextTick = tickNanos;
+        while (running) {
+            if (idle()) {
+                LockSupport.park(this);
+                tick = elapsedNanos() / tickNanos; // 빈 휠: 쉬는 동안의 틱은 건너뜀
+                nextTick = (tick + 1) * tickNanos;
+                continue;
+            }
+            long sleep = nextTick - elapsedNanos();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+                if (Thread.interrupted() && !running) return;
+                continue;
+            }
+            processTick();
+            nextTick += tickNanos;
+        }
+    }
+
+    /** 휠에도, 옮길 대기열에도 예약이 없음 */
+    private boolean idle() {
+        return inWheel == 0 && pendingCount.get() == 0;
+    }
+
+    private void processTick() {
+        transferPending();
+        expire(wheel[(int) (tick & mask)]);
+        tick++;
+    }
+
+    private void transferPending() {
+        Timeout t;
+        while ((t = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            if (t.cancelled) continue;
+            long expiryTick = Math.max(t.deadline / tickNanos, tick); // 이미 지났으면 현재 틱
+            t.remainingRounds = (expiryTick - tick) / wheel.length;
+            wheel[(int) (expiryTick & mask)].add(t);
+            inWheel++;
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout t = it.next();
+            if (t.cancelled) {
+                it.remove();
+                inWheel--;
+            } else if (t.remainingRounds <= 0) {
+                it.remove();
+                inWheel--;
+                try {
+                    t.task.run();
+                } catch (Exception e) {
+                    log.warn("⚠️ 타이머 작업 실패", e);
+                }
+            } else {
+                t.remainingRounds--;
+            }
+        }
+    }
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
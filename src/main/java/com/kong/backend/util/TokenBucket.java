@@ -0,0 +1,44 @@
+package com.kong.backend.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 토큰 버킷. 초당 ratePerSec 개씩 채워지고 최대 burst 개까지 쌓임.
+ * 요청마다 경과 시간만큼 한 번에 채우므로 별도 타이머 스레드 없음.
+ * 시계(nanoClock)를 주입하면 그 시계 기준으로만 채워짐 (테스트용).
+ */
+public class TokenBucket {
+
+    private final double ratePerNano;
+    private final double burst;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double ratePerSec, double burst) {
+        this(ratePerSec, burst, System::nanoTime);
+    }
+
+    public TokenBucket(double ratePerSec, double burst, LongSupplier nanoClock) {
+        this.ratePerNano = ratePerSec / 1_000_000_000.0;
+        this.burst = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.tokens = this.burst;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /** 토큰 하나 사용. 없으면 false */
+    public synchronized boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * ratePerNano);
+        lastRefillNanos = now;
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    /** tryAcquire 로 받은 토큰을 쓰지 않았을 때 되돌림 (burst 이상으로는 쌓이지 않음) */
+    public synchronized void refund() {
+        tokens = Math.min(burst, tokens + 1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.kong.backend.websocket;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 영상 수신(/ws/video, /ws/admin/monitor) 세션 입장 제어.
+ * 고정 세션 수 대신 전체 송신 대기 바이트와 영상 세션 전송 지연을 기준으로 판단:
+ * - 입장: 대기 바이트가 예산의 admit-ratio 미만 + 영상 세션 평균 전송 지연이 한도 미만일 때만
+ * - 부하 시: 가장 느린 영상 세션부터 끊어 예산 아래로 되돌림
+ * /ws/alert, /ws/fall 은 영상 부하로 거부하거나 끊지 않음 (알림 전달이 우선)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionControl {
+
+    private static final CloseStatus SHED = CloseStatus.SERVICE_OVERLOAD.withReason("slow consumer shed");
+
+    private final OutboundDispatcher outboundDispatcher;
+
+    @Value("${app.websocket.admission.max-queued-bytes:67108864}")
+    private long maxQueuedBytes; // 전체 송신 대기 바이트 예산 (기본 64MB)
+
+    @Value("${app.websocket.admission.admit-ratio:0.8}")
+    private double admitRatio; // 예산의 이 비율 미만일 때만 새 세션 입장 (경계에서 입장/차단 반복 방지)
+
+    @Value("${app.websocket.admission.max-send-latency-ms:250}")
+    private double maxSendLatencyMs; // 세션 평균 전송 지연 한도
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+
+    /** 새 영상 수신 세션 입장 가능 여부 */
+    public boolean tryAdmit() {
+        long bytes = outboundDispatcher.queuedBytes();
+        double latencyMs = outboundDispatcher.meanViewerSendLatencyMs();
+        if (bytes >= admitThreshold() || latencyMs >= maxSendLatencyMs) {
+            rejected.incrementAndGet();
+            log.warn("🚫 입장 거부: queued={}B / budget={}B, latency={}ms", bytes, maxQueuedBytes,
+                    String.format("%.1f", latencyMs));
+            return false;
+        }
+        admitted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 예산 초과 시 느린 세션부터 끊어 admit-ratio 아래로.
+     * 지연만 초과면 틱마다 가장 느린 세션 하나씩.
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.admission.check-interval-ms:1000}")
+    public void shedUnderPressure() {
+        long bytes = outboundDispatcher.queuedBytes();
+        boolean memoryPressure = bytes > maxQueuedBytes;
+        boolean latencyPressure = outboundDispatcher.meanViewerSendLatencyMs() > maxSendLatencyMs;
+        if (!memoryPressure && !latencyPressure) return;
+
+        List<SessionOutbound> slowestFirst = outboundDispatcher.outbounds().stream()
+                .filter(o -> WebSocketSessions.isViewer(o.getSession()))
+                .sorted(Comparator.comparingLong(SessionOutbound::sendLatencyNanos).reversed())
+                .toList();
+
+        for (SessionOutbound outbound : slowestFirst) {
+            if (memoryPressure && bytes < admitThreshold()) break;
+            bytes -= outbound.queuedBytes();
+            shed.incrementAndGet();
+            log.warn("🚫 부하로 느린 세션 종료: {} (latency={}ms, queued={}B)", outbound.getSession().getId(),
+                    outbound.sendLatencyNanos() / 1_000_000, outbound.queuedBytes());
+            outbound.close(SHED);
+            if (!memoryPressure) break;
+        }
+    }
+
+    private long admitThreshold() {
+        return (long) (maxQueuedBytes * admitRatio);
+    }
+
+    public Stats stats() {
+        return new Stats(outboundDispatcher.queuedBytes(), maxQueuedBytes, outboundDispatcher.meanViewerSendLatencyMs(),
+                maxSendLatencyMs, admitted.get(), rejected.get(), shed.get());
+    }
+
+    public record Stats(
+            long queuedBytes, long budgetBytes, double meanSendLatencyMs, double maxSendLatencyMs,
+            long admitted, long rejected, long shed
+    ) {}
+}
@@ -0,0 +1,148 @@
+package com.kong.backend.websocket;
+
+import com.kong.backend.util.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /ws/alert 묶음 전송 (연결 시 ?batch=true 또는 ?batchMs=50 으로 선택).
+ * - 창이 닫혀 있을 때 온 알림은 즉시 단건 전송하고 창을 엶 (혼자 온 알림은 지연 없음)
+ * - 창이 열린 동안 온 알림은 모았다가 창이 끝날 때 JSON 배열 프레임 하나로 전송
+ * - 창 끝에 모인 것이 없으면 창을 닫음 (열린 창이 없으면 타이머 휠도 쉼)
+ * - 송신 큐에 넣는 것까지 세션 묶음 잠금 안에서 → 단건 / 배열 프레임이 받은 순서대로 나감
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AlertBatcher {
+
+    private static final long MIN_WINDOW_MS = 10;
+    private static final long MAX_WINDOW_MS = 1000;
+
+    private final OutboundDispatcher outboundDispatcher;
+
+    @Value("${app.websocket.alert-batch.window-ms:50}")
+    private long defaultWindowMs;
+
+    @Value("${app.websocket.alert-batch.max-items:200}")
+    private int maxItems; // 창이 끝나기 전이라도 이만큼 모이면 바로 전송
+
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private TimerWheel timerWheel;
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong batchedAlerts = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        timerWheel = new TimerWheel("alert-batch", 5, 512);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timerWheel.close();
+    }
+
+    /** 연결 쿼리로 묶음 전송 선택 여부 확인 후 등록. @return 적용된 창(ms), 미선택이면 0 */
+    public long enableIfRequested(WebSocketSession session) {
+        if (WebSocketSessions.isCbor(session)) return 0; // CBOR 구독자는 단건 바이너리 프레임만
+        String batchMs = WebSocketSessions.queryParam(session, "batchMs");
+        String batch = WebSocketSessions.queryParam(session, "batch");
+        long windowMs;
+        if (batchMs != null) {
+            try {
+                windowMs = Long.parseLong(batchMs);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        } else if ("true".equalsIgnoreCase(batch)) {
+            windowMs = defaultWindowMs;
+        } else {
+            return 0;
+        }
+        windowMs = Math.max(MIN_WINDOW_MS, Math.min(MAX_WINDOW_MS, windowMs));
+        batches.put(session.getId(), new Batch(session, windowMs));
+        return windowMs;
+    }
+
+    public void disable(WebSocketSession session) {
+        batches.remove(session.getId());
+    }
+
+    /** @return 묶음 전송 세션이면 true (처리 완료), 아니면 false (호출 측이 그대로 전송) */
+    public boolean offer(WebSocketSession session, TextMessage message) {
+        Batch batch = batches.get(session.getId());
+        if (batch == null) return false;
+        batch.offer(message);
+        return true;
+    }
+
+    public Stats stats() {
+        return new Stats(batches.size(), frames.get(), batchedAlerts.get());
+    }
+
+    public record Stats(int sessions, long arrayFrames, long batchedAlerts) {}
+
+    private final class Batch {
+        private final WebSocketSession session;
+        private final long windowMs;
+        private final List<String> pending = new ArrayList<>();
+        private boolean windowOpen;
+
+        private Batch(WebSocketSession session, long windowMs) {
+            this.session = session;
+            this.windowMs = windowMs;
+        }
+
+        // send 는 세션 큐에 넣기만 하므로(논블로킹) 잠금 안에서 호출해도 됨
+        private synchronized void offer(TextMessage message) {
+            if (!windowOpen) {
+                windowOpen = true;
+                timerWheel.schedule(this::flush, windowMs);
+                outboundDispatcher.send(session, message, OutboundLane.ALERT);
+                return;
+            }
+            pending.add(message.getPayload());
+            if (pending.size() >= maxItems) {
+                outboundDispatcher.send(session, new TextMessage(drainPending()), OutboundLane.ALERT);
+            }
+        }
+
+        /** 휠 스레드: 창 종료 → 모인 것 전송 후 다음 창, 없으면 창 닫음 */
+        private synchronized void flush() {
+            if (pending.isEmpty()) {
+                windowOpen = false;
+                return;
+            }
+            String ready = drainPending();
+            timerWheel.schedule(this::flush, windowMs);
+            if (batches.get(session.getId()) == this) {
+                outboundDispatcher.send(session, new TextMessage(ready), OutboundLane.ALERT);
+            }
+        }
+
+        private String drainPending() {
+            StringBuilder sb = new StringBuilder(pending.size() * 256).append('[');
+            for (int i = 0; i < pending.size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append(pending.get(i));
+            }
+            frames.incrementAndGet();
+            batchedAlerts.addAndGet(pending.size());
+            pending.clear();
+            return sb.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.kong.backend.websocket;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 알림 팬아웃 버스.
+ * 이벤트를 받은 노드가 한 번만 publish → 모든 노드(자신 포함)의 구독자에게 한 번씩 전달.
+ * 각 노드는 받은 메시지를 자기 로컬 세션에만 전송 (다른 노드로 재전달하지 않음 → 중복 없음).
+ * - in-process (기본): 단일 인스턴스, 바로 로컬 전달
+ * - tcp: 피어 노드와 TCP 로 주고받음 (app.alert-bus.type=tcp)
+ */
+public interface AlertBus {
+
+    /** 로컬 구독자에게 바로 전달하고, 다른 노드가 있으면 그쪽에도 전송 */
+    void publish(Message message);
+
+    /** 메시지 수신 리스너 등록 (로컬 publish / 다른 노드 수신 모두) */
+    void subscribe(Consumer<Message> listener);
+
+    /** 알림 seq 시작값. 여러 노드가 같은 seq 를 쓰지 않도록 노드별로 다르게 */
+    default long seqBase() {
+        return 0;
+    }
+
+    Stats stats();
+
+    enum Delivery {
+        SUBSCRIBERS,              // /ws/alert 구독자
+        SUBSCRIBERS_AND_DEVICES,  // 구독자 + /ws/fall 디바이스
+        REPLAY_BUFFER             // 재연결 재전송 버퍼에만 보관 (저장 완료된 alertId 포함 알림)
+    }
+
+    /** topics: 알림 토픽 (user:/patient:/ward:), frame: 인코딩된 알림 JSON, alertId: REPLAY_BUFFER 일 때만 */
+    record Message(Delivery delivery, List<String> topics, String frame, Integer alertId) {}
+
+    record Stats(String type, String nodeId, int peers, int connectedPeers,
+                 long published, long received, long dropped) {}
+}
@@ -0,0 +1,55 @@
+package com.kong.backend.websocket;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 최근 알림 N건을 alertId 와 함께 보관하는 링 버퍼.
+ * 재연결한 관리자 클라이언트가 lastSeenId 를 보내면 놓친 구간만 메모리에서 재전송.
+ */
+@Component
+public class AlertReplayBuffer {
+
+    @Value("${app.websocket.alert-replay.capacity:1000}")
+    private int capacity;
+
+    private Entry[] ring;
+    private int head;   // 다음에 쓸 위치
+    private int size;
+
+    @PostConstruct
+    void init() {
+        ring = new Entry[Math.max(1, capacity)];
+    }
+
+    public synchronized void append(int alertId, List<String> topics, String frame) {
+        ring[head] = new Entry(alertId, topics, frame);
+        head = (head + 1) % ring.length;
+        if (size < ring.length) size++;
+    }
+
+    /** 보관 중인 가장 오래된 alertId (비어 있으면 null) */
+    public synchronized Integer oldestId() {
+        if (size == 0) return null;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) min = Math.min(min, ring[i].alertId());
+        return min;
+    }
+
+    /** lastSeenId 이후 알림 (alertId 오름차순) */
+    public synchronized List<Entry> since(int lastSeenId) {
+        List<Entry> gap = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (ring[i].alertId() > lastSeenId) gap.add(ring[i]);
+        }
+        gap.sort(Comparator.comparingInt(Entry::alertId));
+        return gap;
+    }
+
+    public record Entry(int alertId, List<String> topics, String frame) {}
+}
@@ -0,0 +1,48 @@
+package com.kong.backend.websocket;
+
+/**
+ * /ws/fall 디바이스 이벤트의 알려진 필드만 담는 작은 구조체 (이벤트마다 하나).
+ * 숫자 필드는 박싱 없이 primitive + 존재 여부로 보관.
+ */
+public class DeviceEvent {
+
+    private String eventType;
+    private double layRate;
+    private boolean hasLayRate;
+    private double prob;
+    private boolean hasProb;
+    private double ts;
+    private boolean hasTs;
+    private int videoId;
+    private boolean hasVideoId;
+
+    public void reset() {
+        eventType = null;
+        hasLayRate = hasProb = hasTs = hasVideoId = false;
+    }
+
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+
+    public boolean hasLayRate() { return hasLayRate; }
+    public double getLayRate() { return layRate; }
+    public void setLayRate(double v) { layRate = v; hasLayRate = true; }
+
+    public boolean hasProb() { return hasProb; }
+    public double getProb() { return prob; }
+    public void setProb(double v) { prob = v; hasProb = true; }
+
+    public boolean hasTs() { return hasTs; }
+    public double getTs() { return ts; }
+    public void setTs(double v) { ts = v; hasTs = true; }
+
+    public boolean hasVideoId() { return hasVideoId; }
+    public int getVideoId() { return videoId; }
+    public void setVideoId(int v) { videoId = v; hasVideoId = true; }
+
+    // 저장 커맨드 변환용 (nullable)
+    public Double layRateOrNull() { return hasLayRate ? layRate : null; }
+    public Double probOrNull() { return hasProb ? prob : null; }
+    public Double tsOrNull() { return hasTs ? ts : null; }
+    public Integer videoIdOrNull() { return hasVideoId ? videoId : null; }
+}
@@ -0,0 +1,261 @@
+package com.kong.backend.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.kong.backend.DTO.AlertHistoryDto;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * /ws/fall 디바이스 이벤트 스트리밍 코덱.
+ * - 디코딩: JsonParser 로 알려진 필드만 DeviceEvent 에 채움 (JsonNode 트리 생성 없음)
+ * - 인코딩: 원본의 나머지 필드는 그대로 통과시키고 서버 필드만 덧붙여 JsonGenerator 로 출력
+ * - CBOR: 서브프로토콜 "cbor" 로 연결한 디바이스/구독자용. 같은 필드 구조를 바이너리로 (JSON 과 같은 스트리밍 경로)
+ */
+@Component
+public class DeviceEventCodec {
+
+    private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    public static final String CBOR_PROTOCOL = "cbor";
+    public static final String JSON_PROTOCOL = "json";
+
+    private final JsonFactory factory;
+    private final CBORFactory cborFactory = new CBORFactory();
+
+    // 출력 버퍼 풀 (스레드 수와 무관하게 최대 POOL_SIZE 개만 보관 → 가상 스레드마다 새로 만들지 않음)
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private final BlockingQueue<ReusableStringWriter> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public DeviceEventCodec(ObjectMapper mapper) {
+        this.factory = mapper.getFactory();
+    }
+
+    /** @return 최상위가 JSON 객체가 아니면 false */
+    public boolean decode(String payload, DeviceEvent into) throws IOException {
+        try (JsonParser p = factory.createParser(payload)) {
+            return read(p, into);
+        }
+    }
+
+    /** CBOR 바이너리 이벤트 → DeviceEvent (텍스트 변환 없이 바로). @return 최상위가 맵이 아니면 false */
+    public boolean decodeCbor(byte[] payload, DeviceEvent into) throws IOException {
+        try (JsonParser p = cborFactory.createParser(payload)) {
+            return read(p, into);
+        }
+    }
+
+    private boolean read(JsonParser p, DeviceEvent into) throws IOException {
+        into.reset();
+        if (p.nextToken() != JsonToken.START_OBJECT) return false;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken t = p.nextToken();
+            switch (name) {
+                case "eventType" -> {
+                    if (t.isScalarValue() && t != JsonToken.VALUE_NULL) into.setEventType(p.getText());
+                    else if (t != JsonToken.VALUE_NULL) {
+                        p.skipChildren();
+                        into.setEventType("");
+                    }
+                }
+                case "layRate" -> {
+                    if (t.isNumeric()) into.setLayRate(p.getDoubleValue());
+                    else p.skipChildren();
+                }
+                case "prob" -> {
+                    if (t.isNumeric()) into.setProb(p.getDoubleValue());
+                    else p.skipChildren();
+                }
+                case "ts" -> {
+                    if (t.isNumeric()) into.setTs(p.getDoubleValue());
+                    else p.skipChildren();
+                }
+                case "videoId" -> readIntIfFits(p, t, into);
+                default -> p.skipChildren();
+            }
+        }
+        return true;
+    }
+
+    /** 원본 필드를 통과시키고 detectedAtIso / userKey / eventType / seq / videoId 를 덧붙인 알림 JSON */
+    public String encodeEnriched(String payload, LocalDateTime detectedAt, int userKey,
+                                 String eventType, long seq, Integer videoId) throws IOException {
+        return encodeEnriched(payload, detectedAt, userKey, eventType, seq, videoId, null);
+    }
+
+    /** 저장 후 alertId 까지 포함한 알림 JSON (재전송 버퍼 보관용) */
+    public String encodeEnriched(String payload, LocalDateTime detectedAt, int userKey,
+                                 String eventType, long seq, Integer videoId, Integer alertId) throws IOException {
+        try (JsonParser p = factory.createParser(payload)) {
+            return writeEnriched(p, detectedAt, userKey, eventType, seq, videoId, alertId);
+        }
+    }
+
+    /** CBOR 로 받은 이벤트의 알림 JSON (원본 필드 통과는 동일) */
+    public String encodeEnriched(byte[] cborPayload, LocalDateTime detectedAt, int userKey,
+                                 String eventType, long seq, Integer videoId, Integer alertId) throws IOException {
+        try (JsonParser p = cborFactory.createParser(cborPayload)) {
+            return writeEnriched(p, detectedAt, userKey, eventType, seq, videoId, alertId);
+        }
+    }
+
+    private String writeEnriched(JsonParser p, LocalDateTime detectedAt, int userKey,
+                                 String eventType, long seq, Integer videoId, Integer alertId) throws IOException {
+        return write(g -> {
+            g.writeStartObject();
+            if (p.nextToken() == JsonToken.START_OBJECT) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = p.currentName();
+                    p.nextToken();
+                    if (isOverridden(name, videoId, alertId)) {
+                        p.skipChildren();
+                        continue;
+                    }
+                    g.writeFieldName(name);
+                    g.copyCurrentStructure(p);
+                }
+            }
+            g.writeStringField("detectedAtIso", detectedAt.format(TS_FMT));
+            g.writeNumberField("userKey", userKey);
+            g.writeStringField("eventType", eventType);
+            g.writeNumberField("seq", seq);
+            if (videoId != null) g.writeNumberField("videoId", videoId);
+            if (alertId != null) g.writeNumberField("alertId", alertId);
+            g.writeEndObject();
+        });
+    }
+
+    /** 재전송 버퍼보다 오래된 알림을 DB 에서 읽어 보낼 때의 알림 JSON */
+    public String encodeHistory(AlertHistoryDto dto) throws IOException {
+        return write(g -> {
+            g.writeStartObject();
+            g.writeStringField("eventType", dto.getEventType());
+            if (dto.getLayRate() != null) g.writeNumberField("layRate", dto.getLayRate());
+            if (dto.getProb() != null) g.writeNumberField("prob", dto.getProb());
+            if (dto.getTs() != null) g.writeNumberField("ts", dto.getTs());
+            if (dto.getDetectedAt() != null) g.writeStringField("detectedAtIso", dto.getDetectedAt().format(TS_FMT));
+            if (dto.getUserKey() != null) g.writeNumberField("userKey", dto.getUserKey());
+            if (dto.getVideoId() != null) g.writeNumberField("videoId", dto.getVideoId());
+            g.writeNumberField("alertId", dto.getAlertId());
+            g.writeEndObject();
+        });
+    }
+
+    /** 저장 완료 후속 메시지 */
+    public String encodePersisted(long seq, Integer alertId, String eventType, int userKey) throws IOException {
+        return write(g -> {
+            g.writeStartObject();
+            g.writeStringField("type", "ALERT_PERSISTED");
+            g.writeNumberField("seq", seq);
+            if (alertId != null) g.writeNumberField("alertId", alertId);
+            g.writeStringField("eventType", eventType);
+            g.writeNumberField("userKey", userKey);
+            g.writeEndObject();
+        });
+    }
+
+    /** 병합되었던 알림이 닫힐 때의 요약 메시지 */
+    public String encodeCoalesced(long seq, Integer alertId, String eventType, int occurrences,
+                                  Double maxProb, Double maxLayRate) throws IOException {
+        return write(g -> {
+            g.writeStartObject();
+            g.writeStringField("type", "ALERT_UPDATED");
+            g.writeNumberField("seq", seq);
+            if (alertId != null) g.writeNumberField("alertId", alertId);
+            g.writeStringField("eventType", eventType);
+            g.writeNumberField("occurrences", occurrences);
+            if (maxProb != null) g.writeNumberField("maxProb", maxProb);
+            if (maxLayRate != null) g.writeNumberField("maxLayRate", maxLayRate);
+            g.writeEndObject();
+        });
+    }
+
+    /** 알림 JSON → CBOR (CBOR 구독자 전송용, 브로드캐스트당 한 번) */
+    public byte[] toCbor(String json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length());
+        try (JsonParser p = factory.createParser(json);
+             JsonGenerator g = cborFactory.createGenerator(out)) {
+            p.nextToken();
+            g.copyCurrentStructure(p);
+        }
+        return out.toByteArray();
+    }
+
+    /** CBOR → JSON 텍스트 (디바이스 명령 응답 등 드문 메시지용) */
+    public String toJson(byte[] cbor) throws IOException {
+        try (JsonParser p = cborFactory.createParser(cbor)) {
+            p.nextToken();
+            return write(g -> g.copyCurrentStructure(p));
+        }
+    }
+
+    /** 풀에서 빌린 버퍼에 JSON 을 쓰고 문자열로 반환 (버퍼는 반납) */
+    private String write(JsonBody body) throws IOException {
+        ReusableStringWriter out = buffers.poll();
+        if (out == null) out = new ReusableStringWriter();
+        try {
+            try (JsonGenerator g = factory.createGenerator(out)) {
+                body.writeTo(g);
+            }
+            return out.toString();
+        } finally {
+            out.reset();
+            buffers.offer(out); // 풀이 가득 차면 버림
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void writeTo(JsonGenerator g) throws IOException;
+    }
+
+    private boolean isOverridden(String name, Integer videoId, Integer alertId) {
+        return switch (name) {
+            case "detectedAtIso", "userKey", "eventType", "seq" -> true;
+            case "videoId" -> videoId != null;
+            case "alertId" -> alertId != null;
+            default -> false;
+        };
+    }
+
+    private void readIntIfFits(JsonParser p, JsonToken t, DeviceEvent into) throws IOException {
+        if (t == JsonToken.VALUE_NUMBER_INT) {
+            if (p.getNumberType() == JsonParser.NumberType.INT) into.setVideoId(p.getIntValue());
+        } else if (t == JsonToken.VALUE_NUMBER_FLOAT) {
+            double d = p.getDoubleValue();
+            if (d >= Integer.MIN_VALUE && d <= Integer.MAX_VALUE) into.setVideoId((int) d);
+        } else {
+            p.skipChildren();
+        }
+    }
+
+    /** StringBuilder 기반 Writer. close() 는 무시하고 reset() 으로 재사용 */
+    private static final class ReusableStringWriter extends Writer {
+        private static final int MAX_RETAINED = 64 * 1024;
+        private StringBuilder sb = new StringBuilder(1024);
+
+        void reset() {
+            if (sb.capacity() > MAX_RETAINED) sb = new StringBuilder(1024);
+            else sb.setLength(0);
+        }
+
+        @Override public void write(char[] cbuf, int off, int len) { sb.append(cbuf, off, len); }
+        @Override public void write(String str, int off, int len) { sb.append(str, off, off + len); }
+        @Override public void write(int c) { sb.append((char) c); }
+        @Override public void flush() {}
+        @Override public void close() {}
+        @Override public String toString() { return sb.toString(); }
+    }
+}
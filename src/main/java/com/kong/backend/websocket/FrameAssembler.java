@@ -0,0 +1,92 @@
+package com.kong.backend.websocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 분할(partial) 수신 메시지 재조립기 (세션당 하나).
+ * - 컨테이너 버퍼(1MB)보다 큰 프레임도 조각 단위로 받아서 하나로 합침
+ * - 컨테이너는 수신 버퍼를 재사용하므로 조각은 여기서 딱 한 번만 복사
+ */
+public class FrameAssembler {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final int maxFrameBytes;
+
+    private byte[] binary;
+    private int binaryLength;
+    private StringBuilder text;
+
+    public FrameAssembler(int maxFrameBytes) {
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * 바이너리 조각 추가.
+     * @return 마지막 조각이면 완성된 프레임(읽기 전용), 아직 조각 수신 중이면 null
+     */
+    public ByteBuffer appendBinary(ByteBuffer chunk, boolean last) {
+        int n = chunk.remaining();
+        if (binaryLength + n > maxFrameBytes) {
+            int size = binaryLength + n;
+            binary = null;
+            binaryLength = 0;
+            throw new FrameTooLargeException(size, maxFrameBytes);
+        }
+
+        // 조각 없이 한 번에 온 프레임 → 정확한 크기로 한 번 복사
+        if (last && binaryLength == 0) {
+            byte[] frame = new byte[n];
+            chunk.get(frame);
+            return ByteBuffer.wrap(frame).asReadOnlyBuffer();
+        }
+
+        ensureCapacity(binaryLength + n);
+        chunk.get(binary, binaryLength, n);
+        binaryLength += n;
+        if (!last) return null;
+
+        ByteBuffer frame = ByteBuffer.wrap(binary, 0, binaryLength).asReadOnlyBuffer();
+        binary = null; // 완성된 프레임이 배열을 소유 → 다음 프레임은 새 배열
+        binaryLength = 0;
+        return frame;
+    }
+
+    /**
+     * 텍스트 조각 추가.
+     * @return 마지막 조각이면 완성된 문자열, 아직 조각 수신 중이면 null
+     */
+    public String appendText(String part, boolean last) {
+        if (last && text == null) return part;
+
+        if (text == null) text = new StringBuilder(part.length() * 2);
+        if (text.length() + part.length() > maxFrameBytes) {
+            int size = text.length() + part.length();
+            text = null;
+            throw new FrameTooLargeException(size, maxFrameBytes);
+        }
+        text.append(part);
+        if (!last) return null;
+
+        String whole = text.toString();
+        text = null;
+        return whole;
+    }
+
+    private void ensureCapacity(int required) {
+        if (binary == null) {
+            binary = new byte[Math.min(maxFrameBytes, Math.max(INITIAL_CAPACITY, required))];
+        } else if (binary.length < required) {
+            int grown = Math.min(maxFrameBytes, Math.max(required, binary.length * 2));
+            byte[] next = new byte[grown];
+            System.arraycopy(binary, 0, next, 0, binaryLength);
+            binary = next;
+        }
+    }
+
+    public static class FrameTooLargeException extends RuntimeException {
+        public FrameTooLargeException(int size, int limit) {
+            super("프레임 크기 초과: " + size + " > " + limit);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.kong.backend.websocket;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 시청자 세션 하나의 영상 프레임 전달 간격 조절 (모든 프레임, 2장 중 1장, 4장 중 1장 … maxDivisor 장 중 1장).
+ * - window-ms 마다 판단. 창 안에서 못 보내고 덮어쓴 프레임이 있거나, 영상 전송 지연이 목표보다 길거나,
+ *   송신 큐가 절반 넘게 차 있으면 → 간격 2배
+ * - 여유(덮어쓴 프레임 없음, 지연 < 목표/2, 큐 비어 있음)인 창이 recover-windows 번 이어지면 → 간격 절반
+ * 간격은 시청자 단위, 건너뛸 프레임 계산(도착 순번)은 카메라(source)별 → 여러 카메라가 번갈아 와도 모든 카메라가 프레임을 받음.
+ * 프레임 도착(수신 스레드)과 전송 완료(드레인 스레드)가 다른 스레드라 상태 변경은 synchronized.
+ */
+public class FrameRateGovernor {
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final Settings settings;
+
+    private int divisor = 1;
+    private final Map<String, Arrivals> arrivals = new HashMap<>(); // 카메라별 도착 순번
+    private long windowStartMillis;
+    private int overwrittenInWindow;
+    private int calmWindows;
+    private double latencyEwmaNanos;
+
+    private long droppedFrames; // 간격 조절로 건너뛴 프레임
+    private long downshifts;    // 간격을 늘린 횟수
+    private long upshifts;      // 간격을 줄인 횟수
+
+    public FrameRateGovernor(Settings settings) {
+        this.settings = settings;
+    }
+
+    /** source(카메라)에서 도착한 프레임을 전달할지 판단. false 면 이번 간격에서는 건너뜀 */
+    public synchronized boolean admit(String source, long nowMillis, int queueDepth, int queueCapacity) {
+        evaluate(nowMillis, queueDepth, queueCapacity);
+        Arrivals a = arrivals.computeIfAbsent(source, k -> new Arrivals());
+        a.lastMillis = nowMillis;
+        if (a.count++ % divisor == 0) return true;
+        droppedFrames++;
+        return false;
+    }
+
+    /** 보내기 전에 다음 프레임이 와서 덮어씀 (시청자가 현재 간격도 따라오지 못함) */
+    public synchronized void onOverwritten() {
+        overwrittenInWindow++;
+    }
+
+    /** 영상 프레임 한 장 전송 완료 */
+    public synchronized void onSent(long nanos) {
+        latencyEwmaNanos = latencyEwmaNanos == 0 ? nanos : latencyEwmaNanos + EWMA_ALPHA * (nanos - latencyEwmaNanos);
+    }
+
+    private void evaluate(long nowMillis, int queueDepth, int queueCapacity) {
+        if (windowStartMillis == 0) {
+            windowStartMillis = nowMillis;
+            return;
+        }
+        if (nowMillis - windowStartMillis < settings.windowMs()) return;
+
+        double latencyMs = latencyEwmaNanos / 1_000_000.0;
+        boolean pressure = overwrittenInWindow > 0 || latencyMs > settings.targetLatencyMs()
+                || queueDepth * 2 > queueCapacity;
+        boolean calm = overwrittenInWindow == 0 && latencyMs < settings.targetLatencyMs() / 2.0 && queueDepth == 0;
+
+        if (pressure) {
+            calmWindows = 0;
+            if (divisor < settings.maxDivisor()) {
+                divisor *= 2;
+                downshifts++;
+            }
+        } else if (calm && divisor > 1 && ++calmWindows >= settings.recoverWindows()) {
+            calmWindows = 0;
+            divisor /= 2;
+            upshifts++;
+        } else if (!calm) {
+            calmWindows = 0;
+        }
+        overwrittenInWindow = 0;
+        long previousWindowStart = windowStartMillis;
+        arrivals.values().removeIf(a -> a.lastMillis < previousWindowStart); // 지난 창에 프레임이 없던 카메라
+        windowStartMillis = nowMillis;
+    }
+
+    /** 현재 간격 (1 = 모든 프레임, 4 = 4장 중 1장) */
+    public synchronized int divisor() {
+        return divisor;
+    }
+
+    public synchronized long droppedFrames() {
+        return droppedFrames;
+    }
+
+    public synchronized long downshifts() {
+        return downshifts;
+    }
+
+    public synchronized long upshifts() {
+        return upshifts;
+    }
+
+    private static final class Arrivals {
+        private long count;
+        private long lastMillis;
+    }
+
+    /** app.websocket.video.governor.* */
+    public record Settings(int maxDivisor, long targetLatencyMs, long windowMs, int recoverWindows) {}
+}
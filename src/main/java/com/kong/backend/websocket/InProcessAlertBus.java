@@ -0,0 +1,36 @@
+package com.kong.backend.websocket;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 단일 인스턴스용 알림 버스 (기본값). publish 한 스레드에서 바로 로컬 전달.
+ */
+@Component
+@ConditionalOnProperty(name = "app.alert-bus.type", havingValue = "in-process", matchIfMissing = true)
+public class InProcessAlertBus implements AlertBus {
+
+    private final List<Consumer<Message>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong published = new AtomicLong();
+
+    @Override
+    public void publish(Message message) {
+        published.incrementAndGet();
+        for (Consumer<Message> listener : listeners) listener.accept(message);
+    }
+
+    @Override
+    public void subscribe(Consumer<Message> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats("in-process", "local", 0, 0, published.get(), 0, 0);
+    }
+}
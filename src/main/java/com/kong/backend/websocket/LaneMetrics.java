@@ -0,0 +1,65 @@
+package com.kong.backend.websocket;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 전체 세션의 레인별 전달 지연 (큐에 넣은 시점 → sendMessage 완료).
+ * ALERT 레인은 예산(app.websocket.outbound.alert-latency-budget-ms)을 넘긴 건수도 셈.
+ */
+public class LaneMetrics {
+
+    private final long alertBudgetNanos;
+    private final LongAdder[] sent = adders();
+    private final LongAdder[] dropped = adders();
+    private final LongAdder[] totalNanos = adders();
+    private final AtomicLong[] maxNanos = new AtomicLong[OutboundLane.values().length];
+    private final LongAdder alertsOverBudget = new LongAdder();
+
+    public LaneMetrics(long alertBudgetMillis) {
+        this.alertBudgetNanos = alertBudgetMillis * 1_000_000;
+        Arrays.setAll(maxNanos, i -> new AtomicLong());
+    }
+
+    /** @return ALERT 레인이고 예산을 넘겼으면 true */
+    public boolean recordSent(OutboundLane lane, long latencyNanos) {
+        int i = lane.ordinal();
+        sent[i].increment();
+        totalNanos[i].add(latencyNanos);
+        maxNanos[i].accumulateAndGet(latencyNanos, Math::max);
+        if (lane == OutboundLane.ALERT && latencyNanos > alertBudgetNanos) {
+            alertsOverBudget.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void recordDropped(OutboundLane lane) {
+        dropped[lane.ordinal()].increment();
+    }
+
+    public long alertsOverBudget() {
+        return alertsOverBudget.sum();
+    }
+
+    public List<Stats> stats() {
+        return Arrays.stream(OutboundLane.values()).map(lane -> {
+            int i = lane.ordinal();
+            long n = sent[i].sum();
+            return new Stats(lane, n, dropped[i].sum(), n == 0 ? 0 : totalNanos[i].sum() / (double) n / 1_000_000.0,
+                    maxNanos[i].get() / 1_000_000.0, lane == OutboundLane.ALERT ? alertsOverBudget.sum() : 0);
+        }).toList();
+    }
+
+    /** @param overBudget 지연 예산을 넘긴 건수 (ALERT 레인만) */
+    public record Stats(OutboundLane lane, long sent, long dropped, double meanLatencyMs, double maxLatencyMs,
+                        long overBudget) {}
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[OutboundLane.values().length];
+        Arrays.setAll(adders, i -> new LongAdder());
+        return adders;
+    }
+}
@@ -0,0 +1,233 @@
+package com.kong.backend.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * /ws/admin/monitor 용 축소 영상.
+ * - 모니터 세션은 카메라별로 초당 max-fps 장까지, 가로/세로 1/scale-divisor 로 줄인 JPEG 를 받음 (대역폭 ≈ 1/divisor²)
+ * - 축소는 JPEG 디코딩 단계의 서브샘플링(전체 해상도로 풀지 않음) + 재인코딩, 제한된 작업 풀에서 처리
+ *   (풀이 밀리면 그 프레임은 건너뜀, 카메라당 작업은 한 번에 하나). 디코딩 버퍼/코덱은 작업 스레드별로 재사용
+ * - 모니터가 {"type":"FOCUS","channel":"cam-1"} 을 보내면 그 카메라만 원본, {"type":"UNFOCUS"} 로 해제
+ * - ?full=true 로 연결한 모니터는 기존처럼 모든 원본 수신
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonitorScaler {
+
+    private static final String ATTR_MONITOR = "monitorScaled";
+    private static final String ATTR_FOCUS = "monitorFocus";
+    private static final String ATTR_SOURCE = "monitorSource";
+    private static final int MAX_CACHED_IMAGES = 4; // 작업 스레드별로 재사용할 디코딩 버퍼 (해상도별)
+
+    private final ObjectMapper mapper;
+
+    @Value("${app.video.monitor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.video.monitor.scale-divisor:4}")
+    private int scaleDivisor; // 가로/세로를 이 값으로 나눔
+
+    @Value("${app.video.monitor.max-fps:5}")
+    private int maxFps; // 카메라별 모니터 전송 프레임 수 상한
+
+    @Value("${app.video.monitor.quality:0.7}")
+    private float quality; // 재인코딩 JPEG 품질
+
+    @Value("${app.video.monitor.threads:2}")
+    private int threads;
+
+    @Value("${app.video.monitor.queue-capacity:16}")
+    private int queueCapacity; // 대기 작업 수 (넘치면 건너뜀)
+
+    private ThreadPoolExecutor pool;
+    private final ThreadLocal<Codec> codecs = ThreadLocal.withInitial(Codec::new);
+    private long minIntervalMs;
+
+    private final AtomicLong scaled = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        minIntervalMs = 1000L / Math.max(1, maxFps);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("monitor-scale-");
+        threadFactory.setDaemon(true);
+        pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** 모니터 세션 등록 (?full=true 면 원본 수신) */
+    public void register(WebSocketSession session) {
+        if (!enabled || scaleDivisor <= 1 || "true".equals(WebSocketSessions.queryParam(session, "full"))) return;
+        session.getAttributes().put(ATTR_MONITOR, Boolean.TRUE);
+    }
+
+    /** 이 채널의 프레임을 축소본으로 보내야 하는 세션이면 true */
+    public boolean wantsScaled(WebSocketSession session, String channel) {
+        return session.getAttributes().get(ATTR_MONITOR) == Boolean.TRUE
+                && !channel.equals(session.getAttributes().get(ATTR_FOCUS));
+    }
+
+    /** 모니터의 FOCUS / UNFOCUS 메시지 처리. @return 처리했으면 true (아니면 기존처럼 중계) */
+    public boolean onControlMessage(WebSocketSession session, String payload) {
+        if (!payload.contains("FOCUS")) return false;
+        JsonNode root;
+        try {
+            root = mapper.readTree(payload);
+        } catch (IOException e) {
+            return false;
+        }
+        String type = root.path("type").asText("");
+        if ("FOCUS".equals(type) && root.hasNonNull("channel")) {
+            session.getAttributes().put(ATTR_FOCUS, root.get("channel").asText());
+        } else if ("UNFOCUS".equals(type)) {
+            session.getAttributes().remove(ATTR_FOCUS);
+        } else {
+            return false;
+        }
+        log.info("🔍 모니터 {}: {} ({})", type, session.getId(), session.getAttributes().get(ATTR_FOCUS));
+        return true;
+    }
+
+    /**
+     * 보낸 세션의 프레임을 축소해 deliver 로 전달 (작업 스레드에서).
+     * 카메라별 fps 상한 / 진행 중 작업 / 풀 포화 시 건너뜀. 디코딩 실패 시 원본 전달.
+     */
+    public void submit(WebSocketSession sender, ByteBuffer frame, Consumer<ByteBuffer> deliver) {
+        Source source = (Source) sender.getAttributes().computeIfAbsent(ATTR_SOURCE, k -> new Source());
+        long now = System.currentTimeMillis();
+        if (now - source.lastMillis < minIntervalMs || !source.busy.compareAndSet(false, true)) {
+            skipped.incrementAndGet();
+            return;
+        }
+        source.lastMillis = now;
+        byte[] jpeg = new byte[frame.remaining()];
+        frame.duplicate().get(jpeg);
+        try {
+            pool.execute(() -> {
+                try {
+                    byte[] small = codecs.get().scale(jpeg);
+                    scaled.incrementAndGet();
+                    bytesIn.addAndGet(jpeg.length);
+                    bytesOut.addAndGet(small.length);
+                    deliver.accept(ByteBuffer.wrap(small).asReadOnlyBuffer());
+                } catch (Exception e) {
+                    if (failed.incrementAndGet() % 100 == 1) log.warn("⚠️ 모니터 프레임 축소 실패 → 원본 전달", e);
+                    deliver.accept(ByteBuffer.wrap(jpeg).asReadOnlyBuffer());
+                } finally {
+                    source.busy.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            source.busy.set(false);
+            dropped.incrementAndGet();
+        }
+    }
+
+    public Stats stats() {
+        long in = bytesIn.get();
+        return new Stats(enabled, scaleDivisor, maxFps, scaled.get(), skipped.get(), dropped.get(), failed.get(),
+                pool.getQueue().size(), in == 0 ? 0 : (double) bytesOut.get() / in);
+    }
+
+    /**
+     * @param outputRatio 축소본 / 원본 바이트 비율 (대역폭 절감 확인용)
+     */
+    public record Stats(boolean enabled, int scaleDivisor, int maxFps, long scaled, long skipped, long dropped,
+                        long failed, int queued, double outputRatio) {}
+
+    /** 카메라(보낸 세션)별 상태 */
+    private static final class Source {
+        private volatile long lastMillis;
+        private final AtomicBoolean busy = new AtomicBoolean();
+    }
+
+    /** 작업 스레드 전용 JPEG 디코더/인코더 + 재사용 버퍼 */
+    private final class Codec {
+        private final ImageReader reader = ImageIO.getImageReadersByFormatName("jpeg").next();
+        private final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        private final ImageWriteParam writeParam = writer.getDefaultWriteParam();
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        private final Map<String, BufferedImage> images = new LinkedHashMap<>(8, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+                return size() > MAX_CACHED_IMAGES;
+            }
+        };
+
+        private Codec() {
+            writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            writeParam.setCompressionQuality(quality);
+        }
+
+        private byte[] scale(byte[] jpeg) throws IOException {
+            BufferedImage image;
+            try (MemoryCacheImageInputStream in = new MemoryCacheImageInputStream(new ByteArrayInputStream(jpeg))) {
+                reader.setInput(in, true, true);
+                int width = (reader.getWidth(0) + scaleDivisor - 1) / scaleDivisor;
+                int height = (reader.getHeight(0) + scaleDivisor - 1) / scaleDivisor;
+                ImageTypeSpecifier type = reader.getImageTypes(0).next();
+                image = images.computeIfAbsent(width + "x" + height + ":" + type.getBufferedImageType(),
+                        k -> type.createBufferedImage(width, height));
+
+                ImageReadParam readParam = reader.getDefaultReadParam();
+                readParam.setSourceSubsampling(scaleDivisor, scaleDivisor, 0, 0); // 필요한 픽셀만 디코딩
+                readParam.setDestination(image);
+                reader.read(0, readParam);
+            } finally {
+                reader.setInput(null);
+            }
+
+            out.reset();
+            try (MemoryCacheImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+                writer.setOutput(ios);
+                writer.write(null, new IIOImage(image, null, null), writeParam);
+            } finally {
+                writer.setOutput(null);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.kong.backend.websocket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 모든 WebSocket 송신의 단일 진입점.
+ * 세션마다 SessionOutbound(제한된 큐 + 드레인)를 두어
+ * 느린 세션 하나가 다른 세션이나 수신 스레드를 막지 않도록 함.
+ */
+@Slf4j
+@Component
+public class OutboundDispatcher {
+
+    @Value("${app.websocket.outbound.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${app.websocket.outbound.overflow-policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${app.websocket.outbound.drain-threads:32}")
+    private int drainThreads;
+
+    @Value("${app.websocket.outbound.drain-batch:16}")
+    private int drainBatch;
+
+    @Value("${app.websocket.outbound.urgent-threads:4}")
+    private int urgentThreads; // 알림/명령을 드레인 풀 대기 없이 보내는 스레드 수
+
+    @Value("${app.websocket.outbound.alert-latency-budget-ms:500}")
+    private long alertLatencyBudgetMs; // 알림 전달 지연 예산 (넘은 건수를 /admin/ws/lanes 로 확인)
+
+    @Value("${app.websocket.video.governor.enabled:true}")
+    private boolean governorEnabled; // 시청자별 영상 전달 간격 자동 조절
+
+    @Value("${app.websocket.video.governor.max-divisor:16}")
+    private int governorMaxDivisor; // 가장 느린 시청자 = N 장 중 1장 (2의 거듭제곱으로 내림)
+
+    @Value("${app.websocket.video.governor.target-latency-ms:100}")
+    private long governorTargetLatencyMs; // 영상 프레임 전송 지연 목표
+
+    @Value("${app.websocket.video.governor.window-ms:1000}")
+    private long governorWindowMs;
+
+    @Value("${app.websocket.video.governor.recover-windows:3}")
+    private int governorRecoverWindows; // 여유 있는 창이 이만큼 이어지면 간격 절반
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads; // true 면 드레인을 가상 스레드로 (sendMessage 블로킹이 플랫폼 스레드를 붙잡지 않음)
+
+    private final Map<String, SessionOutbound> outbounds = new ConcurrentHashMap<>();
+    private final AtomicLong queuedBytes = new AtomicLong(); // 전체 세션 대기 바이트 합계
+    private ExecutorService executor;
+    private ExecutorService urgentExecutor;
+    private LaneMetrics laneMetrics;
+    private FrameRateGovernor.Settings governorSettings;
+
+    @PostConstruct
+    void init() {
+        governorSettings = new FrameRateGovernor.Settings(Integer.highestOneBit(Math.max(1, governorMaxDivisor)),
+                governorTargetLatencyMs, governorWindowMs, Math.max(1, governorRecoverWindows));
+        laneMetrics = new LaneMetrics(alertLatencyBudgetMs);
+        if (virtualThreads) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-out-", 0).factory());
+            urgentExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-urgent-", 0).factory());
+        } else {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ws-out-");
+            threadFactory.setDaemon(true);
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(drainThreads, drainThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory);
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+
+            CustomizableThreadFactory urgentFactory = new CustomizableThreadFactory("ws-urgent-");
+            urgentFactory.setDaemon(true);
+            ThreadPoolExecutor urgentPool = new ThreadPoolExecutor(urgentThreads, urgentThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), urgentFactory);
+            urgentPool.allowCoreThreadTimeOut(true);
+            urgentExecutor = urgentPool;
+        }
+        log.info("✅ 송신 큐 설정: capacity={}, policy={}, threads={}", queueCapacity, overflowPolicy,
+                virtualThreads ? "virtual" : drainThreads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        urgentExecutor.shutdownNow();
+    }
+
+    public SessionOutbound register(WebSocketSession session) {
+        return outbounds.computeIfAbsent(session.getId(),
+                id -> new SessionOutbound(session, executor, urgentExecutor, queueCapacity, drainBatch, overflowPolicy,
+                        queuedBytes, governorEnabled ? new FrameRateGovernor(governorSettings) : null, laneMetrics));
+    }
+
+    public void unregister(WebSocketSession session) {
+        SessionOutbound removed = outbounds.remove(session.getId());
+        if (removed != null) removed.close(CloseStatus.NORMAL);
+    }
+
+    /** 단일 세션 송신 (논블로킹, TELEMETRY 레인). 등록되지 않았거나 버려지면 false */
+    public boolean send(WebSocketSession session, WebSocketMessage<?> message) {
+        return send(session, message, OutboundLane.TELEMETRY);
+    }
+
+    /** 단일 세션 송신 (논블로킹). 등록되지 않았거나 버려지면 false */
+    public boolean send(WebSocketSession session, WebSocketMessage<?> message, OutboundLane lane) {
+        SessionOutbound outbound = outbounds.get(session.getId());
+        return outbound != null && outbound.offer(message, lane);
+    }
+
+    /** 여러 세션에 동일 메시지 송신 (큐에 넣기만 하므로 송신자는 막히지 않음) */
+    public int broadcast(Collection<WebSocketSession> sessions, WebSocketMessage<?> message, OutboundLane lane) {
+        int queued = 0;
+        for (WebSocketSession s : sessions) {
+            if (s.isOpen() && send(s, message, lane)) queued++;
+        }
+        return queued;
+    }
+
+    /**
+     * 영상 프레임 송신 (복사 없음, 시청자별로 카메라(source)마다 최신 프레임만 유지).
+     * 세션마다 읽기 전용 duplicate 를 넘겨 position 만 독립적으로 움직이게 함
+     */
+    public void sendVideoFrame(WebSocketSession session, String source, ByteBuffer frame) {
+        ByteBuffer readOnly = frame.isReadOnly() ? frame.duplicate() : frame.asReadOnlyBuffer();
+        sendVideoFrame(session, source, new BinaryMessage(readOnly));
+    }
+
+    public void sendVideoFrame(WebSocketSession session, String source, WebSocketMessage<?> frame) {
+        SessionOutbound outbound = outbounds.get(session.getId());
+        if (outbound != null) outbound.offerLatest(source, frame);
+    }
+
+    public Collection<SessionOutbound> outbounds() {
+        return outbounds.values();
+    }
+
+    /** 전체 송신 대기 바이트 */
+    public long queuedBytes() {
+        return queuedBytes.get();
+    }
+
+    /** 영상 수신 세션 전송 지연 평균 (ms). 알림/디바이스 세션은 제외 */
+    public double meanViewerSendLatencyMs() {
+        return outbounds.values().stream()
+                .filter(o -> WebSocketSessions.isViewer(o.getSession()))
+                .mapToLong(SessionOutbound::sendLatencyNanos)
+                .average().orElse(0) / 1_000_000.0;
+    }
+
+    public List<SessionOutbound.Stats> stats() {
+        return outbounds.values().stream().map(SessionOutbound::stats).toList();
+    }
+
+    /** 전체 세션 레인별 전달 지연 / 버림 건수 */
+    public List<LaneMetrics.Stats> laneStats() {
+        return laneMetrics.stats();
+    }
+}
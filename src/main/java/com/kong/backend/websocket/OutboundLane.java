@@ -0,0 +1,16 @@
+package com.kong.backend.websocket;
+
+/**
+ * 세션 송신 우선순위 (위가 먼저). 세션 큐는 항상 높은 레인부터 비움
+ */
+public enum OutboundLane {
+    ALERT,      // 낙상 알림 (실시간 / 묶음 / 재전송)
+    COMMAND,    // 디바이스 명령 (SAVE_CLIP, 디바이스 브로드캐스트)
+    TELEMETRY,  // 그 외 제어/상태 메시지 (ping 등, 기본값)
+    VIDEO;      // 영상 프레임 (최신 한 장만 보관)
+
+    /** 일반 드레인 풀 대기 없이 바로 보내는 레인 */
+    public boolean isUrgent() {
+        return this == ALERT || this == COMMAND;
+    }
+}
@@ -0,0 +1,10 @@
+package com.kong.backend.websocket;
+
+/**
+ * 세션별 송신 큐가 가득 찼을 때의 처리 정책
+ */
+public enum OverflowPolicy {
+    DROP_OLDEST,  // 가장 오래된 메시지를 버리고 새 메시지를 넣음
+    DROP_NEWEST,  // 새 메시지를 버림
+    DISCONNECT    // 세션을 끊음 (따라오지 못하는 클라이언트 정리)
+}
@@ -0,0 +1,402 @@
+package com.kong.backend.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 세션 하나의 송신 큐.
+ * - 송신자는 offer() 로 큐에 넣기만 하고 바로 반환 (블로킹 없음)
+ * - 레인별 큐 (ALERT > COMMAND > TELEMETRY > VIDEO), 항상 높은 레인부터 보냄. 큐가 차면 낮은 레인부터 버림
+ * - 실제 sendMessage 는 공용 드레인 풀에서 세션당 한 스레드씩 순차 수행
+ * - ALERT / COMMAND 는 드레인 풀 대기열 뒤에서 기다리지 않도록 긴급 풀에서 바로 보냄
+ *   (이미 보내는 중이면 그 전송이 끝나자마자 다음으로) → 알림 지연 상한 ≈ 진행 중인 전송 한 건
+ * - 영상 프레임은 큐에 쌓지 않고 보낸 카메라(채널)별로 최신 프레임 한 장만 보관 (latest-frame-wins).
+ *   여러 카메라를 보는 시청자("*" / 모니터)도 카메라마다 자기 최신 프레임이 남고, 오래 기다린 카메라부터 보냄
+ * - 영상 프레임 전달 간격은 FrameRateGovernor 가 전송 지연 / 큐 깊이에 맞춰 조절 (느린 시청자는 1/2, 1/4 … 로)
+ * - 대기 중인 바이트 수 / 전송 지연(EWMA)을 기록 → 입장 제어(AdmissionControl) 판단 근거
+ */
+@Slf4j
+public class SessionOutbound {
+
+    private static final int QUEUED_LANES = OutboundLane.VIDEO.ordinal(); // VIDEO 는 큐 대신 카메라별 최신 프레임 한 장
+    private static final String DEFAULT_SOURCE = "";
+
+    private final WebSocketSession session;
+    private final Executor executor;
+    private final Executor urgentExecutor;
+    private final int capacity;
+    private final int drainBatch;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong globalQueuedBytes; // 전체 세션 합계 (디스패처 공유)
+    private final FrameRateGovernor governor;   // null 이면 들어오는 프레임을 모두 전달
+    private final LaneMetrics laneMetrics;      // 전체 세션 레인별 지연 (디스패처 공유)
+
+    private final Object lock = new Object();   // lanes / queuedCount / latestFrames 보호
+    private final List<Deque<Queued>> lanes = List.of(new ArrayDeque<>(), new ArrayDeque<>(), new ArrayDeque<>());
+    private int queuedCount;
+    // 카메라(보낸 채널) → 아직 못 보낸 최신 프레임. 덮어써도 순서는 유지 → 먼저 기다리던 카메라부터 전송
+    private final Map<String, Queued> latestFrames = new LinkedHashMap<>();
+
+    private final ReentrantLock sendLock = new ReentrantLock(); // 드레인 / 긴급 전송 간 sendMessage 직렬화
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean urgentScheduled = new AtomicBoolean(false);
+    private volatile boolean closed = false;
+
+    // 카운터
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong skippedFrames = new AtomicLong();
+
+    // 메모리 / 지연
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private volatile double sendLatencyEwmaNanos;
+    private volatile long lastSentNanos;    // 마지막 전송 완료 시각 (쉬는 동안 EWMA 감쇠 기준)
+    private volatile long sendStartedNanos; // 0 이면 전송 중 아님
+    private final double[] laneLatencyEwmaNanos = new double[OutboundLane.values().length]; // sendLock 안에서만 갱신
+    private static final double EWMA_ALPHA = 0.2;
+    private static final double IDLE_HALF_LIFE_NANOS = 1_000_000_000.0; // 보낼 것이 없으면 1초마다 절반으로
+
+    public SessionOutbound(WebSocketSession session, Executor executor, Executor urgentExecutor,
+                           int capacity, int drainBatch, OverflowPolicy overflowPolicy,
+                           AtomicLong globalQueuedBytes, FrameRateGovernor governor, LaneMetrics laneMetrics) {
+        this.session = session;
+        this.executor = executor;
+        this.urgentExecutor = urgentExecutor;
+        this.capacity = Math.max(1, capacity);
+        this.drainBatch = Math.max(1, drainBatch);
+        this.overflowPolicy = overflowPolicy;
+        this.globalQueuedBytes = globalQueuedBytes;
+        this.governor = governor;
+        this.laneMetrics = laneMetrics;
+    }
+
+    /** 큐에 메시지 추가 (즉시 반환). 버려졌으면 false */
+    public boolean offer(WebSocketMessage<?> message, OutboundLane lane) {
+        if (lane == OutboundLane.VIDEO) {
+            offerLatest(DEFAULT_SOURCE, message);
+            return true;
+        }
+        if (closed) return false;
+
+        boolean disconnect = false;
+        synchronized (lock) {
+            if (queuedCount >= capacity) {
+                switch (overflowPolicy) {
+                    // 같거나 낮은 레인의 가장 오래된 메시지를 버림 (알림이 텔레메트리 때문에 버려지지 않음)
+                    case DROP_OLDEST -> {
+                        Deque<Queued> victim = lowestNonEmpty(lane.ordinal());
+                        if (victim == null) return reject(lane);
+                        evict(victim.pollFirst());
+                    }
+                    // 새 메시지를 버림. 단, 더 낮은 레인에 쌓인 것이 있으면 그쪽의 가장 최근 메시지를 대신 버림
+                    case DROP_NEWEST -> {
+                        Deque<Queued> victim = lowestNonEmpty(lane.ordinal() + 1);
+                        if (victim == null) return reject(lane);
+                        evict(victim.pollLast());
+                    }
+                    case DISCONNECT -> disconnect = true;
+                }
+            }
+            if (!disconnect) {
+                lanes.get(lane.ordinal()).addLast(new Queued(message, lane, System.nanoTime()));
+                queuedCount++;
+                addBytes(bytesOf(message));
+                enqueued.incrementAndGet();
+            }
+        }
+
+        if (disconnect) {
+            dropped.incrementAndGet();
+            laneMetrics.recordDropped(lane);
+            log.warn("🚫 송신 큐 초과({}) → 세션 종료: {}", capacity, session.getId());
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return false;
+        }
+
+        if (lane.isUrgent()) scheduleUrgent();
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * 영상 프레임 추가. 같은 카메라(source)의 아직 못 보낸 이전 프레임이 있으면 덮어씀
+     * → 메모리는 시청자당 카메라별 프레임 한 장, 느린 시청자도 카메라마다 최신 화면을 받음
+     * @param source 보낸 카메라 (채널 / 디바이스). 다른 카메라의 대기 프레임은 건드리지 않음
+     */
+    public void offerLatest(String source, WebSocketMessage<?> frame) {
+        if (closed) return;
+        if (governor != null && !governor.admit(source, System.currentTimeMillis(), depth(), capacity)) return;
+        Queued previous;
+        synchronized (lock) {
+            previous = latestFrames.put(source, new Queued(frame, OutboundLane.VIDEO, System.nanoTime()));
+            addBytes(bytesOf(frame) - (previous == null ? 0 : bytesOf(previous.message)));
+        }
+        if (previous != null) {
+            skippedFrames.incrementAndGet();
+            laneMetrics.recordDropped(OutboundLane.VIDEO);
+            if (governor != null) governor.onOverwritten();
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (closed || !draining.compareAndSet(false, true)) return;
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            log.warn("⚠️ 드레인 작업 거부됨: {}", session.getId());
+        }
+    }
+
+    private void scheduleUrgent() {
+        if (closed || !urgentScheduled.compareAndSet(false, true)) return;
+        try {
+            urgentExecutor.execute(this::drainUrgent);
+        } catch (RejectedExecutionException e) {
+            urgentScheduled.set(false); // 일반 드레인이 보냄
+        }
+    }
+
+    /** 한 번에 drainBatch 개까지만 보내고 양보 (다른 세션 공정성) */
+    private void drain() {
+        try {
+            for (int i = 0; i < drainBatch && !closed; i++) {
+                if (!sendNext(OutboundLane.VIDEO, true)) break;
+            }
+        } finally {
+            draining.set(false);
+        }
+        if (closed) return;
+        if (hasPending(OutboundLane.COMMAND)) scheduleUrgent(); // 남은 알림/명령은 드레인 풀 대기열 뒤로 보내지 않음
+        if (hasPending(OutboundLane.VIDEO)) scheduleDrain();
+    }
+
+    /**
+     * 긴급 레인(ALERT / COMMAND)만 전송. 다른 스레드가 보내는 중이면 기다리지 않고 빠짐
+     * → 그 스레드가 현재 전송을 끝내면 높은 레인부터 집어가므로 알림이 먼저 나감
+     */
+    private void drainUrgent() {
+        try {
+            while (!closed && sendNext(OutboundLane.COMMAND, false)) {
+                // 긴급 레인이 빌 때까지
+            }
+        } finally {
+            urgentScheduled.set(false);
+        }
+        // 빠져나온 직후 보내던 스레드도 끝났다면 다시 시도
+        if (!closed && hasPending(OutboundLane.COMMAND) && !sendLock.isLocked()) scheduleUrgent();
+    }
+
+    /**
+     * lowest 레인까지 중 가장 높은 레인의 메시지 하나 전송.
+     * @param wait false 면 다른 스레드가 보내는 중일 때 바로 false
+     * @return 보냈으면 true
+     */
+    private boolean sendNext(OutboundLane lowest, boolean wait) {
+        if (wait) {
+            sendLock.lock();
+        } else if (!sendLock.tryLock()) {
+            return false;
+        }
+        try {
+            Queued next = poll(lowest);
+            if (next == null) return false;
+
+            if (!session.isOpen()) {
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                return false;
+            }
+            try {
+                long start = System.nanoTime();
+                sendStartedNanos = start;
+                session.sendMessage(next.message);
+                long end = System.nanoTime();
+                recordLatency(start, end);
+                recordDelivery(next, end - next.enqueuedNanos);
+                if (next.lane == OutboundLane.VIDEO && governor != null) governor.onSent(end - start);
+                sent.incrementAndGet();
+                return true;
+            } catch (Exception e) {
+                log.warn("⚠️ 세션 전송 실패 → 제거: {}", session.getId());
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                return false;
+            } finally {
+                sendStartedNanos = 0;
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private Queued poll(OutboundLane lowest) {
+        synchronized (lock) {
+            for (int i = 0; i < QUEUED_LANES && i <= lowest.ordinal(); i++) {
+                Queued next = lanes.get(i).pollFirst();
+                if (next != null) {
+                    queuedCount--;
+                    addBytes(-bytesOf(next.message));
+                    return next;
+                }
+            }
+            if (lowest != OutboundLane.VIDEO || latestFrames.isEmpty()) return null;
+            Iterator<Queued> it = latestFrames.values().iterator();
+            Queued next = it.next();
+            it.remove();
+            addBytes(-bytesOf(next.message));
+            return next;
+        }
+    }
+
+    private boolean hasPending(OutboundLane lowest) {
+        synchronized (lock) {
+            for (int i = 0; i < QUEUED_LANES && i <= lowest.ordinal(); i++) {
+                if (!lanes.get(i).isEmpty()) return true;
+            }
+            return lowest == OutboundLane.VIDEO && !latestFrames.isEmpty();
+        }
+    }
+
+    /** fromLane 이하 우선순위 중 메시지가 있는 가장 낮은 레인 (없으면 null). lock 안에서 호출 */
+    private Deque<Queued> lowestNonEmpty(int fromLane) {
+        for (int i = QUEUED_LANES - 1; i >= fromLane; i--) {
+            if (!lanes.get(i).isEmpty()) return lanes.get(i);
+        }
+        return null;
+    }
+
+    /** lock 안에서 호출 */
+    private void evict(Queued victim) {
+        queuedCount--;
+        addBytes(-bytesOf(victim.message));
+        dropped.incrementAndGet();
+        laneMetrics.recordDropped(victim.lane);
+    }
+
+    private boolean reject(OutboundLane lane) {
+        dropped.incrementAndGet();
+        laneMetrics.recordDropped(lane);
+        return false;
+    }
+
+    /** 큐를 비우고 세션 종료 */
+    public void close(CloseStatus status) {
+        synchronized (lock) {
+            closed = true;
+            lanes.forEach(Deque::clear);
+            queuedCount = 0;
+            latestFrames.clear();
+            globalQueuedBytes.addAndGet(-queuedBytes.getAndSet(0));
+        }
+        try {
+            if (session.isOpen()) session.close(status);
+        } catch (Exception ignore) {}
+    }
+
+    public int depth() {
+        synchronized (lock) {
+            return queuedCount;
+        }
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    public long queuedBytes() {
+        return queuedBytes.get();
+    }
+
+    /**
+     * 전송 지연 EWMA. 지금 막혀 있는 전송이 더 길면 그 경과 시간.
+     * 보낼 것 없이 쉬는 세션은 마지막 전송 이후 시간만큼 감쇠 (한 번 느렸던 값이 계속 남지 않게)
+     */
+    public long sendLatencyNanos() {
+        long now = System.nanoTime();
+        long started = sendStartedNanos;
+        long inFlight = started == 0 ? 0 : now - started;
+        return Math.max((long) currentEwma(now), inFlight);
+    }
+
+    private double currentEwma(long now) {
+        double ewma = sendLatencyEwmaNanos;
+        if (ewma == 0 || queuedBytes.get() > 0) return ewma; // 밀려 있으면 감쇠하지 않음
+        long idle = now - lastSentNanos;
+        return idle <= 0 ? ewma : ewma * Math.pow(0.5, idle / IDLE_HALF_LIFE_NANOS);
+    }
+
+    // sendMessage 는 sendLock 안에서만 → EWMA 갱신 경쟁 없음
+    private void recordLatency(long start, long end) {
+        double prev = currentEwma(start);
+        long nanos = end - start;
+        sendLatencyEwmaNanos = prev == 0 ? nanos : prev + EWMA_ALPHA * (nanos - prev);
+        lastSentNanos = end;
+    }
+
+    /** 큐에 넣은 시점 → 전송 완료 */
+    private void recordDelivery(Queued item, long nanos) {
+        int i = item.lane.ordinal();
+        double prev = laneLatencyEwmaNanos[i];
+        laneLatencyEwmaNanos[i] = prev == 0 ? nanos : prev + EWMA_ALPHA * (nanos - prev);
+        if (laneMetrics.recordSent(item.lane, nanos) && laneMetrics.alertsOverBudget() % 100 == 1) {
+            log.warn("⚠️ 알림 전달 지연 예산 초과: {} ({}ms)", session.getId(), nanos / 1_000_000);
+        }
+    }
+
+    /**
+     * lock 안에서 호출. 닫힌 뒤에는 반영하지 않음 (close 가 같은 lock 안에서 한 번에 정산)
+     * → 정산과 엇갈려 전체 합계에 남는 바이트가 없음
+     */
+    private void addBytes(long delta) {
+        if (delta == 0 || closed) return;
+        queuedBytes.addAndGet(delta);
+        globalQueuedBytes.addAndGet(delta);
+    }
+
+    private static long bytesOf(WebSocketMessage<?> message) {
+        return message == null ? 0 : message.getPayloadLength();
+    }
+
+    public Stats stats() {
+        String path = session.getUri() != null ? session.getUri().getPath() : "";
+        Map<OutboundLane, Double> laneLatencyMs = new EnumMap<>(OutboundLane.class);
+        for (OutboundLane lane : OutboundLane.values()) {
+            laneLatencyMs.put(lane, laneLatencyEwmaNanos[lane.ordinal()] / 1_000_000.0);
+        }
+        return new Stats(session.getId(), path, depth(), enqueued.get(), sent.get(), dropped.get(),
+                skippedFrames.get(), queuedBytes(), sendLatencyNanos() / 1_000_000.0,
+                governor != null ? governor.divisor() : 1, governor != null ? governor.droppedFrames() : 0,
+                laneLatencyMs);
+    }
+
+    /**
+     * @param skippedFrames  보내기 전에 더 새 프레임으로 덮어쓴 영상 프레임 수
+     * @param frameDivisor   현재 영상 전달 간격 (1 = 모든 프레임, 4 = 4장 중 1장)
+     * @param governorDroppedFrames 전달 간격 조절로 건너뛴 영상 프레임 수
+     * @param laneLatencyMs  레인별 전달 지연 EWMA (큐에 넣은 시점 → 전송 완료)
+     */
+    public record Stats(
+            String sessionId, String path, int queueDepth, long enqueued, long sent, long dropped,
+            long skippedFrames, long queuedBytes, double sendLatencyMs, int frameDivisor, long governorDroppedFrames,
+            Map<OutboundLane, Double> laneLatencyMs
+    ) {}
+
+    /** 큐에 든 메시지 + 레인 + 넣은 시각 */
+    private record Queued(WebSocketMessage<?> message, OutboundLane lane, long enqueuedNanos) {}
+}
@@ -0,0 +1,181 @@
+package com.kong.backend.websocket;
+
+import com.kong.backend.util.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 전체 채널(/ws/video, /ws/admin/monitor, /ws/alert, /ws/fall) 세션 생존 관리.
+ * - 클라이언트 식별자(경로 + ?clientId= / 디바이스는 ?deviceId=) 기준 O(1) 중복 연결 교체
+ * - 서버 ping → 수신(메시지/pong) 시각 갱신, 타이머 휠로 세션별 점검 (전체 스캔 없음)
+ * - idle-timeout 동안 아무것도 받지 못한 반쯤 끊긴 세션은 팬아웃 대상에서 즉시 제거 후 종료
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionRegistry {
+
+    private static final CloseStatus REPLACED = CloseStatus.POLICY_VIOLATION.withReason("replaced by new connection");
+    private static final CloseStatus IDLE = CloseStatus.SESSION_NOT_RELIABLE.withReason("heartbeat timeout");
+
+    private final OutboundDispatcher outboundDispatcher;
+
+    @Value("${app.websocket.heartbeat.interval-ms:15000}")
+    private long intervalMs;
+
+    @Value("${app.websocket.heartbeat.idle-timeout-ms:45000}")
+    private long idleTimeoutMs;
+
+    private final Map<String, Tracked> sessions = new ConcurrentHashMap<>();   // 세션 ID → 추적 정보
+    private final Map<String, WebSocketSession> byIdentity = new ConcurrentHashMap<>(); // 클라이언트 식별자 → 세션
+
+    private TimerWheel timerWheel;
+    private ExecutorService evictExecutor;
+    private LongSupplier clock; // System::nanoTime (테스트에서 주입)
+
+    private final AtomicLong replaced = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong pings = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ws-evict-");
+        threadFactory.setDaemon(true);
+        init(new TimerWheel("ws-heartbeat", 500, 256), System::nanoTime,
+                Executors.newSingleThreadExecutor(threadFactory));
+        log.info("✅ 하트비트 설정: interval={}ms, idleTimeout={}ms", intervalMs, idleTimeoutMs);
+    }
+
+    /** 타이머 휠 / 시계 / 종료 처리 실행기 지정 (테스트에서 시계를 직접 움직일 때) */
+    void init(TimerWheel timerWheel, LongSupplier clock, ExecutorService evictExecutor) {
+        this.timerWheel = timerWheel;
+        this.clock = clock;
+        this.evictExecutor = evictExecutor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timerWheel.close();
+        evictExecutor.shutdownNow();
+    }
+
+    /**
+     * 세션 등록. 같은 클라이언트의 이전 연결이 있으면 정리 후 교체.
+     * @param onRelease 제거(교체/하트비트 만료) 시 팬아웃 집합에서 빼는 콜백 (중복 호출에 안전해야 함)
+     */
+    public void register(WebSocketSession session, Consumer<WebSocketSession> onRelease) {
+        Tracked tracked = new Tracked(session, onRelease, clock.getAsLong());
+        sessions.put(session.getId(), tracked);
+        scheduleCheck(tracked, intervalMs);
+
+        String identity = identityOf(session);
+        if (identity == null) return;
+        tracked.identity = identity;
+        WebSocketSession previous = byIdentity.put(identity, session);
+        if (previous != null && previous != session) {
+            replaced.incrementAndGet();
+            log.info("♻️ 중복 연결 교체: {} ({} → {})", identity, previous.getId(), session.getId());
+            Tracked old = sessions.remove(previous.getId());
+            if (old != null) evict(old, REPLACED);
+        }
+    }
+
+    public void unregister(WebSocketSession session) {
+        Tracked tracked = sessions.remove(session.getId());
+        if (tracked == null) return;
+        if (tracked.timeout != null) tracked.timeout.cancel();
+        if (tracked.identity != null) byIdentity.remove(tracked.identity, session);
+    }
+
+    /** 수신(텍스트/바이너리/pong) 시 호출 */
+    public void touch(WebSocketSession session) {
+        Tracked tracked = sessions.get(session.getId());
+        if (tracked != null) tracked.lastSeenNanos = clock.getAsLong();
+    }
+
+    private void scheduleCheck(Tracked tracked, long delayMs) {
+        tracked.timeout = timerWheel.schedule(() -> check(tracked), delayMs);
+    }
+
+    /** 휠 스레드: 만료면 제거, 조용하면 ping 후 재예약 (종료 처리는 별도 스레드) */
+    private void check(Tracked tracked) {
+        if (sessions.get(tracked.session.getId()) != tracked) return; // 이미 해제됨
+
+        long idleMs = TimeUnit.NANOSECONDS.toMillis(clock.getAsLong() - tracked.lastSeenNanos);
+        if (idleMs >= idleTimeoutMs || !tracked.session.isOpen()) {
+            if (sessions.remove(tracked.session.getId(), tracked)) {
+                if (tracked.identity != null) byIdentity.remove(tracked.identity, tracked.session);
+                evicted.incrementAndGet();
+                log.info("🧹 하트비트 만료 세션 제거: {} (idle={}ms)", tracked.session.getId(), idleMs);
+                evict(tracked, IDLE);
+            }
+            return;
+        }
+        if (idleMs >= intervalMs) {
+            // 송신은 세션 큐를 통해서만 (동시 sendMessage 방지)
+            if (outboundDispatcher.send(tracked.session, new PingMessage(ByteBuffer.allocate(0)))) pings.incrementAndGet();
+        }
+        scheduleCheck(tracked, intervalMs);
+    }
+
+    /** 블로킹될 수 있는 close 와 정리는 휠 스레드가 아닌 전용 스레드에서 (close 후 팬아웃 집합에서 제거) */
+    private void evict(Tracked tracked, CloseStatus status) {
+        if (tracked.timeout != null) tracked.timeout.cancel();
+        evictExecutor.execute(() -> {
+            try {
+                if (tracked.session.isOpen()) tracked.session.close(status);
+            } catch (Exception ignore) {}
+            try {
+                tracked.onRelease.accept(tracked.session);
+            } catch (Exception e) {
+                log.warn("⚠️ 세션 정리 실패: {}", tracked.session.getId(), e);
+            }
+        });
+    }
+
+    /** 경로 + 클라이언트 식별자 (식별자가 없으면 중복 판단하지 않음) */
+    private String identityOf(WebSocketSession session) {
+        String path = WebSocketSessions.path(session);
+        String id = WebSocketSessions.queryParam(session, "clientId");
+        if (id == null && path.contains("/ws/fall")) id = WebSocketSessions.queryParam(session, "deviceId");
+        return id == null ? null : path + "|" + id;
+    }
+
+    public Stats stats() {
+        return new Stats(sessions.size(), byIdentity.size(), replaced.get(), evicted.get(), pings.get());
+    }
+
+    public record Stats(int sessions, int identified, long replaced, long evicted, long pings) {}
+
+    private static final class Tracked {
+        private final WebSocketSession session;
+        private final Consumer<WebSocketSession> onRelease;
+        private volatile long lastSeenNanos;
+        private volatile TimerWheel.Timeout timeout;
+        private volatile String identity;
+
+        private Tracked(WebSocketSession session, Consumer<WebSocketSession> onRelease, long nowNanos) {
+            this.session = session;
+            this.onRelease = onRelease;
+            this.lastSeenNanos = nowNanos;
+        }
+    }
+}
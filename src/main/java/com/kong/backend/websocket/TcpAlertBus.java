@@ -0,0 +1,408 @@
+package com.kong.backend.websocket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 여러 인스턴스용 TCP 알림 버스 (app.alert-bus.type=tcp).
+ * - 각 노드는 app.alert-bus.tcp.port 로 수신 대기, app.alert-bus.tcp.peers 의 다른 노드마다 연결 하나 (full mesh)
+ * - publish: 로컬 전달 + 피어별 송신 큐(제한, 넘치면 버림)에 넣기만 함 → 느린/끊긴 피어가 수신 스레드를 막지 않음
+ * - 수신한 메시지는 로컬에만 전달하고 재전달하지 않음. (origin, id) 로 재연결 후 재전송분 중복 제거
+ * 전달 보장은 피어 송신 큐 범위 내 (큐가 넘치거나 노드가 죽으면 그 알림은 유실, 저장은 각 노드 파이프라인이 담당).
+ * 보안:
+ * - 기본은 127.0.0.1 에만 바인드 (다른 호스트의 노드와 묶으려면 bind-address 지정)
+ * - peers / allowed-hosts 로 해석되는 주소에서 온 연결만 받음 (그 외는 바로 끊음)
+ * - secret 을 지정하면 프레임마다 HMAC-SHA256 서명을 붙이고, 서명이 맞지 않는 연결은 끊음 (모든 노드가 같은 값)
+ * 로컬 테스트: 포트만 다르게 두 인스턴스를 띄우고 서로를 peers 로 지정.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.alert-bus.type", havingValue = "tcp")
+public class TcpAlertBus implements AlertBus {
+
+    @Value("${app.alert-bus.tcp.port:7601}")
+    private int port;
+
+    @Value("${app.alert-bus.tcp.bind-address:127.0.0.1}")
+    private String bindAddress;
+
+    @Value("${app.alert-bus.tcp.peers:}")
+    private String peers; // host:port,host:port (자기 자신이 포함돼도 무시됨)
+
+    @Value("${app.alert-bus.tcp.allowed-hosts:}")
+    private String allowedHosts; // peers 외에 연결을 받을 호스트 (host,host)
+
+    @Value("${app.alert-bus.tcp.secret:}")
+    private String secret; // 비어 있으면 서명 없음
+
+    @Value("${app.alert-bus.tcp.queue-capacity:4096}")
+    private int queueCapacity; // 피어별 송신 대기 메시지 수
+
+    @Value("${app.alert-bus.tcp.reconnect-ms:2000}")
+    private long reconnectMs;
+
+    private static final int MAX_FRAME_BYTES = 8 * 1024 * 1024;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 32;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long seqBase = System.currentTimeMillis() * 1000; // 노드마다 겹치지 않는 seq 구간
+    private final AtomicLong nextId = new AtomicLong();
+
+    private final List<Consumer<Message>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Peer> outbound = new ArrayList<>();
+    private final Set<Socket> inbound = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> lastIdByOrigin = new ConcurrentHashMap<>();
+
+    private ServerSocket server;
+    private volatile boolean running;
+
+    private SecretKeySpec macKey; // null 이면 서명 없음
+    private Mac sendMac; // publish 의 outbound 잠금 안에서만 사용
+    private final Set<String> trustedHosts = new HashSet<>();
+    private Set<InetAddress> trustedAddresses = Set.of(); // 수락 스레드 전용
+    private long lastResolveNanos;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!secret.isEmpty()) {
+            macKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+            sendMac = newMac();
+        }
+        List<String[]> peerSpecs = new ArrayList<>();
+        for (String spec : peers.split(",")) {
+            if (spec.isBlank()) continue;
+            String[] hostPort = spec.trim().split(":");
+            peerSpecs.add(hostPort);
+            trustedHosts.add(hostPort[0]);
+        }
+        for (String host : allowedHosts.split(",")) {
+            if (!host.isBlank()) trustedHosts.add(host.trim());
+        }
+        trustedAddresses = resolveTrusted();
+        lastResolveNanos = System.nanoTime();
+
+        running = true;
+        InetAddress bind = InetAddress.getByName(bindAddress);
+        server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(bind, port));
+        if (!bind.isLoopbackAddress() && macKey == null) {
+            log.warn("⚠️ 알림 버스가 {} 에 서명 없이 열려 있음: 피어 주소만으로 연결을 받음 (app.alert-bus.tcp.secret 권장)", bindAddress);
+        }
+        startThread("alert-bus-accept", this::acceptLoop);
+
+        for (String[] hostPort : peerSpecs) {
+            Peer peer = new Peer(hostPort[0], Integer.parseInt(hostPort[1]), new ArrayBlockingQueue<>(queueCapacity));
+            outbound.add(peer);
+            startThread("alert-bus-out-" + hostPort[0] + ":" + hostPort[1], peer::run);
+        }
+        log.info("✅ TCP 알림 버스 시작: node={}, bind={}:{}, peers={}, signed={}",
+                nodeId, bindAddress, port, outbound.size(), macKey != null);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        closeQuietly(server);
+        for (Socket s : inbound) closeQuietly(s);
+        for (Peer peer : outbound) peer.close();
+    }
+
+    @Override
+    public void publish(Message message) {
+        published.incrementAndGet();
+        deliverLocal(message);
+        if (outbound.isEmpty()) return;
+        // id 순서 = 피어 큐 순서 (수신 측 중복 제거가 id 증가를 전제로 함)
+        synchronized (outbound) {
+            byte[] encoded;
+            try {
+                encoded = encode(nextId.incrementAndGet(), message);
+            } catch (IOException e) {
+                log.warn("⚠️ 알림 버스 인코딩 실패", e);
+                return;
+            }
+            for (Peer peer : outbound) {
+                if (!peer.queue.offer(encoded)) dropped.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Message> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public long seqBase() {
+        return seqBase;
+    }
+
+    @Override
+    public Stats stats() {
+        int connected = (int) outbound.stream().filter(p -> p.socket != null).count();
+        return new Stats("tcp", nodeId, outbound.size(), connected, published.get(), received.get(), dropped.get());
+    }
+
+    private void deliverLocal(Message message) {
+        for (Consumer<Message> listener : listeners) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                log.warn("⚠️ 알림 버스 로컬 전달 실패", e);
+            }
+        }
+    }
+
+    // ---- 수신 ----
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = server.accept();
+                if (!isTrusted(socket.getInetAddress())) {
+                    log.warn("🚫 알림 버스: 허용되지 않은 주소의 연결 거부 {}", socket.getRemoteSocketAddress());
+                    closeQuietly(socket);
+                    continue;
+                }
+                socket.setTcpNoDelay(true);
+                inbound.add(socket);
+                startThread("alert-bus-in-" + socket.getRemoteSocketAddress(), () -> readLoop(socket));
+            } catch (IOException e) {
+                if (running) log.warn("⚠️ 알림 버스 연결 수락 실패", e);
+            }
+        }
+    }
+
+    /**
+     * 피어 주소(peers / allowed-hosts) 에서 온 연결인지.
+     * 목록에 없으면 DNS 가 바뀌었을 수 있으므로 reconnectMs 에 한 번까지만 다시 해석
+     */
+    private boolean isTrusted(InetAddress remote) {
+        if (trustedAddresses.contains(remote)) return true;
+        long now = System.nanoTime();
+        if (now - lastResolveNanos < TimeUnit.MILLISECONDS.toNanos(reconnectMs)) return false;
+        lastResolveNanos = now;
+        trustedAddresses = resolveTrusted();
+        return trustedAddresses.contains(remote);
+    }
+
+    private Set<InetAddress> resolveTrusted() {
+        Set<InetAddress> addresses = new HashSet<>();
+        for (String host : trustedHosts) {
+            try {
+                addresses.addAll(Arrays.asList(InetAddress.getAllByName(host)));
+            } catch (UnknownHostException e) {
+                log.warn("⚠️ 알림 버스 피어 주소 해석 실패: {}", host);
+            }
+        }
+        return Set.copyOf(addresses);
+    }
+
+    private void readLoop(Socket socket) {
+        Mac mac = macKey != null ? newMac() : null; // 연결(스레드)마다 하나
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (running) {
+                int len = in.readInt();
+                int minLen = mac != null ? MAC_BYTES + 1 : 1;
+                if (len < minLen || len > MAX_FRAME_BYTES) throw new IOException("invalid frame length: " + len);
+                byte[] frame = new byte[len];
+                in.readFully(frame);
+                int offset = 0;
+                if (mac != null) {
+                    mac.update(frame, MAC_BYTES, len - MAC_BYTES);
+                    if (!MessageDigest.isEqual(mac.doFinal(), Arrays.copyOf(frame, MAC_BYTES))) {
+                        log.warn("🚫 알림 버스: 서명이 맞지 않는 프레임 → 연결 종료 {}", socket.getRemoteSocketAddress());
+                        return;
+                    }
+                    offset = MAC_BYTES;
+                }
+                onFrame(frame, offset);
+            }
+        } catch (IOException e) {
+            if (running) log.info("🔻 알림 버스 피어 연결 종료: {}", socket.getRemoteSocketAddress());
+        } finally {
+            inbound.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private void onFrame(byte[] frame, int offset) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame, offset, frame.length - offset))) {
+            String origin = in.readUTF();
+            long id = in.readLong();
+            if (origin.equals(nodeId)) return; // peers 에 자기 자신이 있는 경우
+            // 같은 origin 에서 이미 받은 id 이하면 재전송분 → 무시
+            boolean[] fresh = {false};
+            lastIdByOrigin.compute(origin, (k, last) -> {
+                if (last != null && id <= last) return last;
+                fresh[0] = true;
+                return id;
+            });
+            if (!fresh[0]) return;
+
+            Delivery delivery = Delivery.values()[in.readByte()];
+            Integer alertId = in.readBoolean() ? in.readInt() : null;
+            int topicCount = in.readUnsignedShort();
+            List<String> topics = new ArrayList<>(topicCount);
+            for (int i = 0; i < topicCount; i++) topics.add(in.readUTF());
+            byte[] text = new byte[in.readInt()];
+            in.readFully(text);
+
+            received.incrementAndGet();
+            deliverLocal(new Message(delivery, List.copyOf(topics), new String(text, StandardCharsets.UTF_8), alertId));
+        }
+    }
+
+    // ---- 송신 ----
+
+    /** [int 길이][HMAC(본문)?][origin][id][delivery][alertId?][topics][frame] (서명은 secret 이 있을 때만) */
+    private byte[] encode(long id, Message message) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(message.frame().length() + 64);
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            out.writeUTF(nodeId);
+            out.writeLong(id);
+            out.writeByte(message.delivery().ordinal());
+            out.writeBoolean(message.alertId() != null);
+            if (message.alertId() != null) out.writeInt(message.alertId());
+            out.writeShort(message.topics().size());
+            for (String topic : message.topics()) out.writeUTF(topic);
+            byte[] frame = message.frame().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(frame.length);
+            out.write(frame);
+        }
+        byte[] signature = null;
+        if (sendMac != null) {
+            sendMac.update(body.toByteArray());
+            signature = sendMac.doFinal();
+        }
+        ByteArrayOutputStream framed = new ByteArrayOutputStream(body.size() + 4 + MAC_BYTES);
+        try (DataOutputStream out = new DataOutputStream(framed)) {
+            out.writeInt(body.size() + (signature != null ? signature.length : 0));
+            if (signature != null) out.write(signature);
+            body.writeTo(out);
+        }
+        return framed.toByteArray();
+    }
+
+    /** 피어 하나로의 송신 연결 (끊기면 reconnectMs 후 재연결, 보내던 메시지는 재전송) */
+    private final class Peer {
+        private final String host;
+        private final int port;
+        private final BlockingQueue<byte[]> queue;
+        private volatile Socket socket;
+        private volatile Thread thread;
+
+        private Peer(String host, int port, BlockingQueue<byte[]> queue) {
+            this.host = host;
+            this.port = port;
+            this.queue = queue;
+        }
+
+        private void run() {
+            thread = Thread.currentThread();
+            List<byte[]> inFlight = new ArrayList<>(); // flush 전 실패하면 재연결 후 다시 보냄 (수신 측에서 중복 제거)
+            while (running) {
+                try (Socket s = new Socket()) {
+                    s.connect(new InetSocketAddress(host, port), (int) reconnectMs);
+                    s.setTcpNoDelay(true);
+                    socket = s;
+                    log.info("✅ 알림 버스 피어 연결: {}:{}", host, port);
+                    BufferedOutputStream out = new BufferedOutputStream(s.getOutputStream(), 64 * 1024);
+                    while (running) {
+                        if (inFlight.isEmpty()) {
+                            inFlight.add(queue.take());
+                            queue.drainTo(inFlight, 255); // 쌓인 메시지는 한 번에 flush
+                        }
+                        for (byte[] frame : inFlight) out.write(frame);
+                        out.flush();
+                        inFlight.clear();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (IOException e) {
+                    if (running) log.warn("⚠️ 알림 버스 피어 연결 실패: {}:{} ({})", host, port, e.getMessage());
+                } finally {
+                    socket = null;
+                }
+                try {
+                    Thread.sleep(reconnectMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            closeQuietly(socket);
+            if (thread != null) thread.interrupt();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(macKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("알림 버스 서명 초기화 실패", e);
+        }
+    }
+
+    private static void startThread(String name, Runnable task) {
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (Exception ignore) {
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.kong.backend.websocket;
+
+import com.kong.backend.service.DvrService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * /ws/video, /ws/admin/monitor 영상 중계.
+ * - 채널(deviceId/paKey) 단위 구독: 보낸 세션의 채널 구독자 + 전체(*) 구독자에게만 전달
+ * - 받은 프레임은 최근 N초 링 버퍼 / 연속 녹화(DVR) 에도 기록
+ * - 모니터 세션은 MonitorScaler 가 줄인 프레임을 받음 (FOCUS 한 채널은 원본)
+ */
+@Component
+@RequiredArgsConstructor
+public class VideoRelay {
+
+    private static final String ALL_CHANNELS = "*";
+    private static final String ATTR_VIDEO_CHANNEL = "videoChannel";
+
+    private final OutboundDispatcher outboundDispatcher;
+    private final VideoRingBuffers videoRingBuffers;
+    private final DvrService dvrService;
+    private final MonitorScaler monitorScaler;
+
+    private final Set<WebSocketSession> videoSessions = ConcurrentHashMap.newKeySet(); // 영상 미러링
+
+    // 영상 채널 (deviceId/paKey → 구독 세션). 채널 미지정 세션은 "*" (전체 수신)
+    private final Map<String, Set<WebSocketSession>> videoChannels = new ConcurrentHashMap<>();
+
+    /** 영상 세션 등록 (monitor 면 축소 영상 수신). @return 들어간 채널 */
+    public String join(WebSocketSession session, boolean monitor) {
+        videoSessions.add(session);
+        if (monitor) monitorScaler.register(session);
+        return joinVideoChannel(session);
+    }
+
+    /** 채널 / 링 버퍼 / 녹화에서 제거 (여러 번 호출해도 안전) */
+    public void leave(WebSocketSession session) {
+        videoSessions.remove(session);
+        leaveVideoChannel(session);
+        videoRingBuffers.release(session);
+        dvrService.release(session);
+    }
+
+    /** 텍스트 메시지: 모니터의 FOCUS / UNFOCUS 가 아니면 그대로 중계 */
+    public void onText(WebSocketSession sender, String payload, TextMessage message, boolean monitor) {
+        if (monitor && monitorScaler.onControlMessage(sender, payload)) return;
+        fanOutVideo(sender, message);
+    }
+
+    /** 영상 프레임: 보관 / 녹화 후 한 번만 받아서 복사 없이 팬아웃 */
+    public void onFrame(WebSocketSession sender, ByteBuffer frame) {
+        videoRingBuffers.record(sender, frame); // 최근 N초 보관 → 서버 측 클립 저장
+        dvrService.record(sender, frame);       // 연속 녹화 (사용 시)
+        fanOutVideo(sender, frame);
+    }
+
+    public int sessionCount() {
+        return videoSessions.size();
+    }
+
+    // ===============================================================
+    //                  영상 채널 (디바이스별 구독)
+    // ===============================================================
+
+    /** ?channel= / ?deviceId= / ?paKey= 순으로 채널 결정, 없으면 전체 수신 */
+    private String joinVideoChannel(WebSocketSession session) {
+        String channel = ALL_CHANNELS;
+        for (String name : new String[]{"channel", "deviceId", "paKey"}) {
+            String value = WebSocketSessions.queryParam(session, name);
+            if (value != null) {
+                channel = value;
+                break;
+            }
+        }
+        session.getAttributes().put(ATTR_VIDEO_CHANNEL, channel);
+        videoChannels.compute(channel, (k, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(session);
+            return set;
+        });
+        return channel;
+    }
+
+    private void leaveVideoChannel(WebSocketSession session) {
+        Object channel = session.getAttributes().get(ATTR_VIDEO_CHANNEL);
+        if (channel == null) return;
+        videoChannels.computeIfPresent((String) channel, (k, set) -> {
+            set.remove(session);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * 보낸 세션의 채널 구독자 + 전체(*) 구독자에게만 전달 (보낸 세션 제외).
+     * 축소 영상을 받는 모니터 세션에는 원본 대신 MonitorScaler 가 줄인 프레임을 나중에 전달
+     */
+    private void fanOutVideo(WebSocketSession sender, ByteBuffer frame) {
+        String channel = (String) sender.getAttributes().getOrDefault(ATTR_VIDEO_CHANNEL, ALL_CHANNELS);
+        String source = videoSourceOf(sender, channel);
+        boolean scaled = sendVideo(sender, channel, source, videoAudience(channel), frame, false);
+        if (!ALL_CHANNELS.equals(channel)) {
+            scaled |= sendVideo(sender, channel, source, videoAudience(ALL_CHANNELS), frame, false);
+        }
+        if (scaled) {
+            monitorScaler.submit(sender, frame, small -> {
+                sendVideo(sender, channel, source, videoAudience(channel), small, true);
+                if (!ALL_CHANNELS.equals(channel)) {
+                    sendVideo(sender, channel, source, videoAudience(ALL_CHANNELS), small, true);
+                }
+            });
+        }
+    }
+
+    /**
+     * scaledOnly=false: 원본을 받을 세션에 전달, 축소본을 받을 세션이 있으면 true.
+     * scaledOnly=true: 축소본을 받을 세션에만 전달
+     */
+    private boolean sendVideo(WebSocketSession sender, String channel, String source, Set<WebSocketSession> audience,
+                              ByteBuffer frame, boolean scaledOnly) {
+        boolean wantsScaled = false;
+        for (WebSocketSession s : audience) {
+            if (s == sender || !s.isOpen()) continue;
+            if (monitorScaler.wantsScaled(s, channel)) {
+                wantsScaled = true;
+                if (scaledOnly) outboundDispatcher.sendVideoFrame(s, source, frame);
+            } else if (!scaledOnly) {
+                outboundDispatcher.sendVideoFrame(s, source, frame);
+            }
+        }
+        return wantsScaled;
+    }
+
+    private void fanOutVideo(WebSocketSession sender, TextMessage message) {
+        String channel = (String) sender.getAttributes().getOrDefault(ATTR_VIDEO_CHANNEL, ALL_CHANNELS);
+        String source = videoSourceOf(sender, channel);
+        for (WebSocketSession s : videoAudience(channel)) {
+            if (s != sender && s.isOpen()) outboundDispatcher.sendVideoFrame(s, source, message);
+        }
+        if (!ALL_CHANNELS.equals(channel)) {
+            for (WebSocketSession s : videoAudience(ALL_CHANNELS)) {
+                if (s != sender && s.isOpen()) outboundDispatcher.sendVideoFrame(s, source, message);
+            }
+        }
+    }
+
+    /** 시청자 쪽 최신 프레임 슬롯의 키: 보낸 채널 (채널 미지정 송신자는 세션마다 따로) */
+    private String videoSourceOf(WebSocketSession sender, String channel) {
+        return ALL_CHANNELS.equals(channel) ? sender.getId() : channel;
+    }
+
+    private Set<WebSocketSession> videoAudience(String channel) {
+        return videoChannels.getOrDefault(channel, Set.of());
+    }
+}
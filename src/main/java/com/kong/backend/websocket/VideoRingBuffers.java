@@ -0,0 +1,116 @@
+package com.kong.backend.websocket;
+
+import com.kong.backend.util.OffHeapFrameRing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * /ws/video 로 중계한 프레임을 디바이스별 링 버퍼(OffHeapFrameRing)에 최근 N초 보관.
+ * 보낸 세션의 ?deviceId= / ?paKey= 로 구분 → SAVE_CLIP 을 서버에서 바로 잘라 저장할 때 사용.
+ */
+@Slf4j
+@Component
+public class VideoRingBuffers {
+
+    private static final String ATTR_RING = "videoRing";
+    private static final Object NOT_RECORDED = new Object(); // 디바이스를 알 수 없는 세션 표시
+
+    @Value("${app.video.ring.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.video.ring.seconds:30}")
+    private int seconds; // 디바이스별 보관 시간
+
+    @Value("${app.video.ring.bytes-per-device:33554432}")
+    private int bytesPerDevice; // 디바이스별 off-heap 버퍼 크기 (기본 32MB)
+
+    @Value("${app.video.ring.max-frames:4096}")
+    private int maxFrames; // 디바이스별 인덱스 크기 (보관 시간 × fps 이상)
+
+    @Value("${app.video.ring.max-devices:16}")
+    private int maxDevices; // 총 off-heap 사용량 상한 = max-devices × bytes-per-device
+
+    private final Map<String, DeviceRing> byDevice = new ConcurrentHashMap<>();
+    private final Map<Integer, OffHeapFrameRing> byPatient = new ConcurrentHashMap<>();
+    private int rings; // 생성된 링 수 (attach/release 에서만 변경)
+
+    /** 보낸 세션의 프레임 기록. 디바이스를 알 수 없는 세션(시청자 등)은 무시 */
+    public void record(WebSocketSession sender, ByteBuffer frame) {
+        if (!enabled) return;
+        Object attached = sender.getAttributes().get(ATTR_RING);
+        if (attached == NOT_RECORDED) return;
+        OffHeapFrameRing ring = attached instanceof OffHeapFrameRing r ? r : attach(sender);
+        if (ring != null) ring.append(System.currentTimeMillis(), frame);
+    }
+
+    /** deviceId 가 있으면 그 디바이스(보낸 세션의 paKey 가 같을 때만), 없으면 환자(paKey)의 링 (없으면 null) */
+    public OffHeapFrameRing find(int paKey, String deviceId) {
+        if (deviceId == null) return byPatient.get(paKey);
+        DeviceRing owned = byDevice.get(deviceId);
+        return owned != null && Integer.valueOf(paKey).equals(owned.paKey()) ? owned.ring() : null;
+    }
+
+    /** 보내던 세션 종료 → 링 해제 (direct buffer 는 GC 때 반환) */
+    public synchronized void release(WebSocketSession sender) {
+        if (!(sender.getAttributes().remove(ATTR_RING) instanceof OffHeapFrameRing ring)) return;
+        byDevice.values().removeIf(owned -> owned.ring() == ring);
+        byPatient.values().remove(ring);
+        rings--;
+    }
+
+    public long retainMillis() {
+        return seconds * 1000L;
+    }
+
+    private synchronized OffHeapFrameRing attach(WebSocketSession sender) {
+        String deviceId = WebSocketSessions.queryParam(sender, "deviceId");
+        Integer paKey = parseInt(WebSocketSessions.queryParam(sender, "paKey"));
+        if (deviceId == null && paKey == null) {
+            sender.getAttributes().put(ATTR_RING, NOT_RECORDED);
+            return null;
+        }
+        if (rings >= maxDevices) {
+            log.warn("⚠️ 영상 링 버퍼 디바이스 수 한도({}) → 기록 안 함: {}", maxDevices, sender.getId());
+            sender.getAttributes().put(ATTR_RING, NOT_RECORDED);
+            return null;
+        }
+        OffHeapFrameRing ring = new OffHeapFrameRing(bytesPerDevice, maxFrames, retainMillis());
+        rings++;
+        if (deviceId != null) byDevice.put(deviceId, new DeviceRing(ring, paKey));
+        if (paKey != null) byPatient.put(paKey, ring);
+        sender.getAttributes().put(ATTR_RING, ring);
+        log.info("🎞️ 영상 링 버퍼 생성: deviceId={}, paKey={}, {}초 / {}MB", deviceId, paKey, seconds,
+                bytesPerDevice / (1024 * 1024));
+        return ring;
+    }
+
+    private static Integer parseInt(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public synchronized Stats stats() {
+        Set<OffHeapFrameRing> all = new HashSet<>(byPatient.values());
+        for (DeviceRing owned : byDevice.values()) all.add(owned.ring());
+        long frames = 0;
+        for (OffHeapFrameRing ring : all) frames += ring.frameCount();
+        return new Stats(enabled, rings, frames, (long) rings * bytesPerDevice);
+    }
+
+    public record Stats(boolean enabled, int rings, long frames, long offHeapBytes) {}
+
+    /** 디바이스 링 + 기록한 세션이 밝힌 환자 (없으면 null → deviceId 로 조회 불가) */
+    private record DeviceRing(OffHeapFrameRing ring, Integer paKey) {}
+}
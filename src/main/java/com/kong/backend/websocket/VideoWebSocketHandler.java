@@ -2,63 +2,154 @@ package com.kong.backend.websocket;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.kong.backend.DTO.AlertHistoryDto;
+import com.kong.backend.service.AlertCoalescer;
 import com.kong.backend.service.AlertService;
 import com.kong.backend.service.AlertService.SaveAlertCommand;
 import com.kong.backend.service.DeviceControlService;
+import com.kong.backend.service.DeviceDirectory;
+import com.kong.backend.service.DeviceDirectory.DeviceIdentity;
+import com.kong.backend.service.DeviceEventPipeline;
+import com.kong.backend.service.IngestRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class VideoWebSocketHandler extends TextWebSocketHandler {
+public class VideoWebSocketHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
 
-    private final AlertService alertService;
+    private final DeviceEventPipeline eventPipeline;
+    private final AlertCoalescer alertCoalescer;
     private final DeviceControlService deviceControlService;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final OutboundDispatcher outboundDispatcher;
+    private final DeviceEventCodec deviceEventCodec;
+    private final ObjectMapper mapper;
+    private final AlertReplayBuffer alertReplayBuffer;
+    private final AlertService alertService;
+    private final SessionRegistry sessionRegistry;
+    private final AdmissionControl admissionControl;
+    private final AlertBatcher alertBatcher;
+    private final DeviceDirectory deviceDirectory;
+    private final IngestRateLimiter ingestRateLimiter;
+    private final AlertBus alertBus;
+    private final VideoRelay videoRelay;
 
     // WebSocket 세션 그룹
-    private final Set<WebSocketSession> videoSessions  = ConcurrentHashMap.newKeySet(); // 영상 미러링
-    private final Set<WebSocketSession> alertSessions  = ConcurrentHashMap.newKeySet(); // 관리자 알림
-    private static final int MAX_ALERT_SESSIONS = 5; // 세션 최대 제한
+    private final Set<WebSocketSession> alertSessions  = ConcurrentHashMap.newKeySet(); // 관리자 알림 (영상은 VideoRelay)
+
+    // 알림 토픽 (user:{userKey} / patient:{paKey} / ward:{ward} → 구독 세션). "*" 는 전체 구독
+    private final Map<String, Set<WebSocketSession>> alertTopics = new ConcurrentHashMap<>();
+    private static final String ALL_TOPICS = "*";
+    private static final String ATTR_ALERT_TOPICS = "alertTopics";
+
+    // 유저 → 그 유저 디바이스가 알린 환자/병동 토픽 (DB 에서 재전송하는 알림의 토픽 계산용)
+    private final Map<Integer, Set<String>> deviceTopicsByUser = new ConcurrentHashMap<>();
+
+    // 디바이스 연결 시 1회 해석한 쿼리 / 토픽 (이벤트마다 URI 파싱 없음)
+    private static final String ATTR_DEVICE_ROUTE = "deviceRoute";
+
+    // 분할 수신 메시지 재조립 (세션별)
+    private final Map<String, FrameAssembler> assemblers = new ConcurrentHashMap<>();
+
+    @Value("${app.websocket.video.max-frame-bytes:8388608}")
+    private int maxFrameBytes; // 조각을 합친 프레임 최대 크기 (기본 8MB)
+
+    @Value("${app.websocket.alert-replay.db-limit:500}")
+    private int replayDbLimit; // 버퍼에 없는 구간을 DB 에서 재전송할 최대 건수
+
+    @Value("${app.websocket.alert-replay.threads:2}")
+    private int replayThreads; // 재전송(DB 조회 포함)을 처리하는 스레드 수 (WebSocket 수신 스레드에서 조회하지 않음)
+
+    private ExecutorService replayExecutor;
+
+    @Value("${app.device.require-identity:false}")
+    private boolean requireDeviceIdentity; // true 면 proNum 으로 식별되지 않는 디바이스 연결 거부
+
+    @Value("${app.device.default-user-key:1}")
+    private int defaultUserKey; // 식별 정보 없는 구버전 디바이스의 이벤트 저장 대상
+
+    // 서버 수신 순번 (즉시 알림 ↔ 저장 완료 후속 메시지 매칭용)
+    private final AtomicLong eventSeq = new AtomicLong();
 
     private static final ZoneId KST = ZoneId.of("Asia/Seoul");
-    private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    @PostConstruct
+    void init() {
+        eventSeq.set(alertBus.seqBase()); // 여러 노드가 같은 seq 를 쓰지 않도록
+        alertBus.subscribe(this::onBusMessage);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("alert-replay-");
+        threadFactory.setDaemon(true);
+        replayExecutor = Executors.newFixedThreadPool(Math.max(1, replayThreads), threadFactory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        replayExecutor.shutdownNow();
+    }
 
     /** 연결 수립 */
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         String path = session.getUri() != null ? session.getUri().getPath() : "";
         try {
-            // 중복 연결 방지 (IP 기준)
-            if (session.getRemoteAddress() != null) {
-                alertSessions.removeIf(s -> s.getRemoteAddress().equals(session.getRemoteAddress()));
+            outboundDispatcher.register(session);
+            // 하트비트 + 중복 연결 교체 (?clientId= / 디바이스는 ?deviceId= 기준)
+            sessionRegistry.register(session, this::releaseSession);
+
+            // 영상 수신 세션만 송신 메모리 예산 / 영상 전송 지연 기준으로 입장 제어 (알림 / 디바이스는 항상 허용)
+            if (WebSocketSessions.isViewer(session) && !admissionControl.tryAdmit()) {
+                session.close(CloseStatus.SERVICE_OVERLOAD);
+                return;
             }
 
             if (path.contains("/ws/video") || path.contains("/ws/admin/monitor")) {
-                videoSessions.add(session);
-                log.info("✅ 영상 채널 연결: {}", path);
+                String channel = videoRelay.join(session, path.contains("/ws/admin/monitor")); // 모니터는 축소 영상 수신
+                log.info("✅ 영상 채널 연결: {} (channel={})", path, channel);
             } else if (path.contains("/ws/alert")) {
-                if (alertSessions.size() >= MAX_ALERT_SESSIONS) {
-                    log.warn("🚫 알림 세션 초과({}) → 연결 거부", MAX_ALERT_SESSIONS);
-                    session.close(CloseStatus.SERVICE_OVERLOAD);
-                    return;
-                }
+                Set<String> topics = topicsFromQuery(session);
                 alertSessions.add(session);
-                log.info("✅ 알림 채널 연결: {} (현재 {}개)", path, alertSessions.size());
+                subscribe(session, topics);
+                long batchMs = alertBatcher.enableIfRequested(session); // ?batch=true / ?batchMs= 선택 시 묶음 전송
+                log.info("✅ 알림 채널 연결: {} (topics={}, batchMs={}, 현재 {}개)",
+                        path, topics, batchMs, alertSessions.size());
+
+                // 재연결: ?lastSeenId= 이후 놓친 알림 재전송
+                Integer lastSeenId = parseInt(WebSocketSessions.queryParam(session, "lastSeenId"));
+                if (lastSeenId != null) replayMissed(session, lastSeenId);
             } else if (path.contains("/ws/fall")) {
+                session.getAttributes().put(ATTR_DEVICE_ROUTE, DeviceRoute.of(session));
+                if (!attachDeviceIdentity(session)) return;
                 deviceControlService.registerDevice(session);
-                log.info("✅ 디바이스 채널 연결: {}", path);
+                DeviceIdentity identity = DeviceDirectory.identityOf(session);
+                log.info("✅ 디바이스 채널 연결: {} (userKey={}, paKey={})", path,
+                        identity != null ? identity.getUserKey() : defaultUserKey,
+                        identity != null ? identity.getPaKey() : null);
             } else {
                 log.info("ℹ️ 알 수 없는 경로 연결: {}", path);
             }
@@ -67,88 +158,479 @@ public class VideoWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
+    /**
+     * Sec-WebSocket-Protocol 협상: "cbor" 를 요청한 디바이스(/ws/fall)는 이벤트를 CBOR 바이너리로 보내고,
+     * /ws/alert 구독자는 알림을 CBOR 바이너리 프레임으로 받음. 요청이 없으면(구버전 펌웨어) 기존 JSON 텍스트.
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(DeviceEventCodec.CBOR_PROTOCOL, DeviceEventCodec.JSON_PROTOCOL);
+    }
+
+    /** 조각(partial) 단위 수신 → 컨테이너 버퍼(1MB)보다 큰 프레임도 처리 */
+    @Override
+    public boolean supportsPartialMessages() {
+        return true;
+    }
+
     /** 텍스트 메시지 처리 */
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) {
         String path = session.getUri() != null ? session.getUri().getPath() : "";
+        sessionRegistry.touch(session);
         try {
+            String payload = assemblerOf(session).appendText(message.getPayload(), message.isLast());
+            if (payload == null) return; // 아직 조각 수신 중
+            TextMessage whole = message.isLast() && payload == message.getPayload() ? message : new TextMessage(payload);
+
             if (path.contains("/ws/fall")) {
-                onDeviceEvent(message.getPayload());
-                broadcastSafe(alertSessions, message);
+                if (deviceControlService.onDeviceReply(session, payload)) return; // 명령 ACK
+                onDeviceEvent(session, payload, null, new DeviceEvent());
+            } else if (path.contains("/ws/alert")) {
+                onAlertClientMessage(session, payload);
             } else if (path.contains("/ws/video") || path.contains("/ws/admin/monitor")) {
-                broadcastSafe(videoSessions, message);
+                videoRelay.onText(session, payload, whole, path.contains("/ws/admin/monitor"));
             }
+        } catch (FrameAssembler.FrameTooLargeException e) {
+            closeTooBig(session, e);
         } catch (Exception e) {
             log.error("❌ 텍스트 메시지 처리 오류", e);
         }
     }
 
+    /** 바이너리 메시지 처리 (영상 프레임: 한 번만 받아서 복사 없이 팬아웃 / CBOR 디바이스 이벤트 / CBOR 알림 구독 제어) */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        String path = session.getUri() != null ? session.getUri().getPath() : "";
+        sessionRegistry.touch(session);
+        try {
+            boolean device = path.contains("/ws/fall");
+            boolean alert = path.contains("/ws/alert");
+            if (!device && !alert && !path.contains("/ws/video") && !path.contains("/ws/admin/monitor")) return;
+
+            ByteBuffer frame = assemblerOf(session).appendBinary(message.getPayload(), message.isLast());
+            if (frame == null) return; // 아직 조각 수신 중
+
+            if (device || alert) {
+                byte[] cbor = new byte[frame.remaining()];
+                frame.get(cbor);
+                // CBOR 구독자의 SUBSCRIBE / REPLAY 는 JSON 으로 바꿔 텍스트와 같은 경로로
+                if (alert) onAlertClientMessage(session, deviceEventCodec.toJson(cbor));
+                else onDeviceBinary(session, cbor);
+                return;
+            }
+            videoRelay.onFrame(session, frame);
+        } catch (FrameAssembler.FrameTooLargeException e) {
+            closeTooBig(session, e);
+        } catch (Exception e) {
+            log.error("❌ 바이너리 메시지 처리 오류", e);
+        }
+    }
+
+    /** 서버 ping 에 대한 응답 → 생존 확인 */
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        sessionRegistry.touch(session);
+    }
+
     /** 세션 종료 */
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        videoSessions.remove(session);
+        sessionRegistry.unregister(session);
+        releaseSession(session);
+        log.info("🔻 세션 종료: {} (alert={}, video={})",
+                status.getReason(), alertSessions.size(), videoRelay.sessionCount());
+    }
+
+    /** 모든 팬아웃 집합에서 제거 (정상 종료 / 하트비트 만료 / 중복 교체 공용, 여러 번 호출해도 안전) */
+    private void releaseSession(WebSocketSession session) {
+        videoRelay.leave(session);
         alertSessions.remove(session);
+        unsubscribeAll(session);
+        alertBatcher.disable(session);
         deviceControlService.unregisterDevice(session);
-        log.info("🔻 세션 종료: {} (alert={}, video={})",
-                status.getReason(), alertSessions.size(), videoSessions.size());
+        outboundDispatcher.unregister(session);
+        assemblers.remove(session.getId());
     }
 
     // ===============================================================
     //               라즈베리파이 이벤트 수신 및 전송
     // ===============================================================
 
-    private void onDeviceEvent(String payload) {
+    /** CBOR 디바이스 메시지: 이벤트면 바로 구조체로, eventType 이 없으면 명령 응답(ACK)으로 처리 */
+    private void onDeviceBinary(WebSocketSession session, byte[] cbor) throws IOException {
+        DeviceEvent event = new DeviceEvent();
+        if (!deviceEventCodec.decodeCbor(cbor, event) || event.getEventType() == null) {
+            deviceControlService.onDeviceReply(session, deviceEventCodec.toJson(cbor));
+            return;
+        }
+        onDeviceEvent(session, null, cbor, event);
+    }
+
+    /**
+     * 디바이스 이벤트 처리. json / cbor 중 하나만 non-null (CBOR 는 onDeviceBinary 에서 이미 event 로 디코딩됨).
+     * event 는 호출마다 새 구조체 (스레드 로컬 재사용은 가상 스레드에서 매번 새로 만들어져 이득이 없음)
+     */
+    private void onDeviceEvent(WebSocketSession session, String payload, byte[] cbor, DeviceEvent event) {
         try {
-            JsonNode json = mapper.readTree(payload);
-            String eventType = getTextOrNull(json, "eventType");
-            Double layRate   = getDoubleOrNull(json, "layRate");
-            Double prob      = getDoubleOrNull(json, "prob");
-            Double ts        = getDoubleOrNull(json, "ts");
-            Integer videoId  = getIntegerOrNull(json, "videoId");
-
-            if (eventType == null || ts == null) {
-                log.warn("❌ 필수 필드 누락(eventType/ts): {}", payload);
+            boolean decoded = cbor != null || deviceEventCodec.decode(payload, event);
+            if (!decoded || event.getEventType() == null || !event.hasTs()) {
+                log.warn("❌ 필수 필드 누락(eventType/ts): {}", cbor != null ? "(cbor)" : payload);
                 return;
             }
+            String eventType = event.getEventType();
+            Integer videoId  = event.videoIdOrNull();
+
+            // 유저/환자는 연결 시 확정된 세션 속성에서 (이벤트마다 DB 조회 없음)
+            DeviceIdentity identity = currentIdentity(session);
+            if (identity == null && (requireDeviceIdentity || !session.isOpen())) return; // 미식별 / 매핑 해제로 종료됨
+            int userKey = identity != null ? identity.getUserKey() : defaultUserKey;
+
+            LocalDateTime detectedAt = tsToLocalDateTime(event.getTs(), KST);
+            long seq = eventSeq.incrementAndGet();
+
+            DeviceRoute.Resolved route = resolveRoute(session, identity, userKey);
+            List<String> topics = route.topics();
 
-            LocalDateTime detectedAt = tsToLocalDateTime(ts, KST);
-            int userKey = resolveUserKey(json);
+            // 0) 디바이스별 / 전체(DB 포화 시) 유입 제한 → 초과분은 버림 (표본, 간격 안의 상태 전이 1건은 통과)
+            if (ingestRateLimiter.admit(route.limitKey(), eventType) == IngestRateLimiter.Decision.SHED) return;
+            String deviceKey = route.deviceKey();
 
-            var savedDto = alertService.saveAlert(
+            // 같은 디바이스의 반복 이벤트는 열린 알림에 병합 (저장/전송 생략)
+            AlertCoalescer.OpenAlert open = alertCoalescer.offer(deviceKey, eventType,
+                    event.probOrNull(), event.layRateOrNull(), closed -> onAlertCoalesced(seq, topics, closed));
+            if (open == null) return;
+
+            // 1) 저장을 기다리지 않고 바로 전송 (alertId 는 저장 후 후속 메시지로)
+            String enriched = enrich(payload, cbor, detectedAt, userKey, eventType, seq, videoId, null);
+            // 구독 중인 관리자/보호자 + 디바이스 브로드캐스트 (버스 → 모든 노드가 자기 로컬 세션에만)
+            alertBus.publish(new AlertBus.Message(AlertBus.Delivery.SUBSCRIBERS_AND_DEVICES, topics, enriched, null));
+
+            // 2) 저장은 파이프라인(큐 → 배치 저장)에 맡김
+            CompletableFuture<AlertHistoryDto> saved = eventPipeline.submit(
                     SaveAlertCommand.builder()
                             .eventType(eventType)
                             .detectedAt(detectedAt)
                             .userKey(userKey)
-                            .layRate(layRate)
-                            .prob(prob)
-                            .ts(ts)
+                            .layRate(event.layRateOrNull())
+                            .prob(event.probOrNull())
+                            .ts(event.tsOrNull())
                             .videoId(videoId)
+                            .userVerified(identity != null)
                             .build()
             );
+            open.attach(saved);
+            saved.thenAccept(dto -> {
+                onAlertPersisted(seq, topics, dto.getAlertId(), eventType, userKey);
+                rememberForReplay(payload, cbor, detectedAt, userKey, eventType, seq, videoId, topics, dto.getAlertId());
+            });
 
-            String enriched = enrichPayloadForClients(json, detectedAt, userKey, eventType, savedDto.getAlertId(), videoId);
+        } catch (Exception e) {
+            log.error("❌ 디바이스 이벤트 처리 실패", e);
+        }
+    }
 
-            broadcastSafe(alertSessions, new TextMessage(enriched));              // 관리자 알림
-            deviceControlService.broadcastToDevices(new TextMessage(enriched));   // 디바이스 브로드캐스트
+    /** 병합되었던 알림이 닫힘 → 발생 횟수 / 최대값 요약 전송 */
+    private void onAlertCoalesced(long seq, List<String> topics, AlertCoalescer.OpenAlert closed) {
+        if (closed.getOccurrences() <= 1 || closed.getSaved() == null) return;
+        closed.getSaved().thenAccept(dto -> {
+            try {
+                alertBus.publish(new AlertBus.Message(AlertBus.Delivery.SUBSCRIBERS, topics,
+                        deviceEventCodec.encodeCoalesced(seq, dto.getAlertId(), closed.getEventType(),
+                                closed.getOccurrences(), closed.getMaxProb(), closed.getMaxLayRate()), null));
+            } catch (Exception e) {
+                log.warn("⚠️ 병합 알림 요약 전송 실패: seq={}", seq, e);
+            }
+        });
+    }
 
+    /** 저장 완료 후속 메시지: seq 로 앞서 보낸 알림과 매칭 */
+    private void onAlertPersisted(long seq, List<String> topics, Integer alertId, String eventType, int userKey) {
+        try {
+            alertBus.publish(new AlertBus.Message(AlertBus.Delivery.SUBSCRIBERS, topics,
+                    deviceEventCodec.encodePersisted(seq, alertId, eventType, userKey), null));
         } catch (Exception e) {
-            log.error("❌ 디바이스 이벤트 처리 실패", e);
+            log.warn("⚠️ 저장 완료 메시지 전송 실패: seq={}", seq, e);
+        }
+    }
+
+    /** 저장된 알림(alertId 포함)을 모든 노드의 재전송 버퍼에 보관 */
+    private void rememberForReplay(String payload, byte[] cbor, LocalDateTime detectedAt, int userKey, String eventType,
+                                   long seq, Integer videoId, List<String> topics, Integer alertId) {
+        if (alertId == null) return;
+        try {
+            alertBus.publish(new AlertBus.Message(AlertBus.Delivery.REPLAY_BUFFER, topics,
+                    enrich(payload, cbor, detectedAt, userKey, eventType, seq, videoId, alertId), alertId));
+        } catch (Exception e) {
+            log.warn("⚠️ 재전송 버퍼 보관 실패: alertId={}", alertId, e);
+        }
+    }
+
+    /** 원본(JSON 또는 CBOR) 필드를 통과시킨 알림 JSON */
+    private String enrich(String payload, byte[] cbor, LocalDateTime detectedAt, int userKey, String eventType,
+                          long seq, Integer videoId, Integer alertId) throws IOException {
+        return cbor != null
+                ? deviceEventCodec.encodeEnriched(cbor, detectedAt, userKey, eventType, seq, videoId, alertId)
+                : deviceEventCodec.encodeEnriched(payload, detectedAt, userKey, eventType, seq, videoId, alertId);
+    }
+
+    // ===============================================================
+    //                  재연결 누락 알림 재전송
+    // ===============================================================
+
+    /**
+     * lastSeenId 이후 알림 중 세션 구독 토픽에 해당하는 것만 alertId 순으로 전송 (재전송 스레드에서).
+     * 버퍼(최근 N건)가 lastSeenId+1 부터 빈틈없이 이어지면 버퍼만으로, 아니면
+     * (버퍼보다 오래된 구간 / WAL 재생·REST 로 저장되어 버퍼에 없는 알림) DB 에서 그 구간을 채움.
+     * 구독 등록 후 재전송하므로 실시간 알림과 겹칠 수 있음 → 클라이언트는 alertId 로 중복 제거.
+     */
+    private void replayMissed(WebSocketSession session, int lastSeenId) {
+        try {
+            replayExecutor.execute(() -> replay(session, lastSeenId));
+        } catch (RejectedExecutionException e) {
+            log.warn("⚠️ 누락 알림 재전송 거부됨: {}", session.getId());
+        }
+    }
+
+    private void replay(WebSocketSession session, int lastSeenId) {
+        if (!session.isOpen()) return;
+        Set<String> mine = topicsOf(session);
+        try {
+            List<AlertReplayBuffer.Entry> buffered = alertReplayBuffer.since(lastSeenId);
+            Map<Integer, AlertReplayBuffer.Entry> missed = new TreeMap<>();
+            for (AlertReplayBuffer.Entry entry : buffered) missed.put(entry.alertId(), entry);
+
+            int fromDb = 0;
+            if (!contiguous(lastSeenId, buffered)) {
+                int before = buffered.isEmpty() ? Integer.MAX_VALUE : buffered.get(buffered.size() - 1).alertId();
+                List<AlertHistoryDto> rows = alertService.getAlertsBetween(lastSeenId, before, replayDbLimit);
+                Map<Integer, List<String>> topicsByUser = new HashMap<>();
+                for (AlertHistoryDto dto : rows) {
+                    if (missed.containsKey(dto.getAlertId())) continue; // 버퍼 프레임(원본 필드 포함) 우선
+                    List<String> topics = dto.getUserKey() == null ? List.of()
+                            : topicsByUser.computeIfAbsent(dto.getUserKey(), this::historyTopics);
+                    missed.put(dto.getAlertId(),
+                            new AlertReplayBuffer.Entry(dto.getAlertId(), topics, deviceEventCodec.encodeHistory(dto)));
+                    fromDb++;
+                }
+                if (rows.size() >= replayDbLimit) {
+                    log.warn("⚠️ 누락 구간이 DB 재전송 한도({})를 넘음 → 나머지는 REST 조회 필요", replayDbLimit);
+                }
+            }
+
+            int sent = 0;
+            for (AlertReplayBuffer.Entry entry : missed.values()) {
+                if (!matchesTopics(mine, entry.topics())) continue;
+                sendAlert(session, new TextMessage(entry.frame()));
+                sent++;
+            }
+            log.info("🔁 누락 알림 재전송: {} (lastSeenId={}, sent={}, buffer={}, db={})",
+                    session.getId(), lastSeenId, sent, buffered.size(), fromDb);
+        } catch (Exception e) {
+            log.warn("⚠️ 누락 알림 재전송 실패: {}", session.getId(), e);
         }
     }
 
-    private String enrichPayloadForClients(JsonNode original,
-                                           LocalDateTime detectedAt,
-                                           int userKey,
-                                           String eventType,
-                                           Integer alertId,
-                                           Integer videoId) {
-        ObjectNode node = original.deepCopy();
-        node.put("detectedAtIso", detectedAt.format(TS_FMT));
-        node.put("userKey", userKey);
-        node.put("eventType", eventType);
-        if (alertId != null) node.put("alertId", alertId);
-        if (videoId != null) node.put("videoId", videoId);
-        return node.toString();
+    /** 버퍼가 lastSeenId 바로 다음부터 alertId 빈틈 없이 이어지면 true (비어 있으면 false) */
+    private boolean contiguous(int lastSeenId, List<AlertReplayBuffer.Entry> buffered) {
+        int expected = lastSeenId + 1;
+        for (AlertReplayBuffer.Entry entry : buffered) {
+            if (entry.alertId() != expected) return false;
+            expected++;
+        }
+        return !buffered.isEmpty();
+    }
+
+    /** DB 알림의 토픽: 유저 + 유저의 환자(한 명일 때) + 그 유저 디바이스가 알린 환자/병동 */
+    private List<String> historyTopics(int userKey) {
+        List<String> topics = new ArrayList<>();
+        topics.add("user:" + userKey);
+        Set<Integer> patients = deviceDirectory.patientsOf(userKey);
+        if (patients.size() == 1) topics.add("patient:" + patients.iterator().next());
+        for (String topic : deviceTopicsByUser.getOrDefault(userKey, Set.of())) {
+            if (!topics.contains(topic)) topics.add(topic);
+        }
+        return topics;
+    }
+
+    private boolean matchesTopics(Set<String> subscribed, List<String> eventTopics) {
+        if (subscribed.contains(ALL_TOPICS)) return true;
+        for (String topic : eventTopics) {
+            if (subscribed.contains(topic)) return true;
+        }
+        return false;
+    }
+
+    private Integer parseInt(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ===============================================================
+    //                  알림 토픽 구독
+    // ===============================================================
+
+    /** ?userKey=1,2 / ?paKey=3 / ?ward=A → 토픽, 아무것도 없으면 전체(*) 구독 */
+    private Set<String> topicsFromQuery(WebSocketSession session) {
+        Set<String> topics = new HashSet<>();
+        addTopics(topics, "user:", WebSocketSessions.queryParam(session, "userKey"));
+        addTopics(topics, "patient:", WebSocketSessions.queryParam(session, "paKey"));
+        addTopics(topics, "ward:", WebSocketSessions.queryParam(session, "ward"));
+        if (topics.isEmpty()) topics.add(ALL_TOPICS);
+        return topics;
+    }
+
+    private void addTopics(Set<String> topics, String prefix, String csv) {
+        if (csv == null) return;
+        for (String value : csv.split(",")) {
+            if (!value.isBlank()) topics.add(prefix + value.trim());
+        }
+    }
+
+    /**
+     * 이벤트 토픽 / 디바이스 키. 연결 시 해석한 쿼리로 식별 정보가 바뀔 때만 다시 계산
+     * (같은 세션의 이벤트는 한 스레드에서 오므로 경쟁 없음)
+     */
+    private DeviceRoute.Resolved resolveRoute(WebSocketSession device, DeviceIdentity identity, int userKey) {
+        DeviceRoute route = (DeviceRoute) device.getAttributes()
+                .computeIfAbsent(ATTR_DEVICE_ROUTE, k -> DeviceRoute.of(device));
+        DeviceRoute.Resolved resolved = route.resolved;
+        if (resolved != null && resolved.identity() == identity && resolved.userKey() == userKey) return resolved;
+
+        List<String> topics = eventTopics(route, identity, userKey);
+        // ?deviceId= 가 없으면 병합은 세션 단위, 유입 제한은 접속 주소 단위 (재연결로 제한이 초기화되지 않게)
+        String deviceKey = userKey + ":" + (route.deviceId != null ? route.deviceId : device.getId());
+        String limitKey = route.deviceId != null ? deviceKey : userKey + ":" + remoteHostOf(device);
+        resolved = new DeviceRoute.Resolved(identity, userKey, topics, deviceKey, limitKey);
+        route.resolved = resolved;
+        return resolved;
+    }
+
+    /** 이벤트가 속하는 토픽: 유저 + (디바이스 연결 시 확정/지정된) 환자 / 병동 */
+    private List<String> eventTopics(DeviceRoute route, DeviceIdentity identity, int userKey) {
+        List<String> topics = new ArrayList<>(3);
+        topics.add("user:" + userKey);
+        Object paKey = identity != null && identity.getPaKey() != null ? identity.getPaKey() : route.paKey;
+        if (paKey != null) topics.add("patient:" + paKey);
+        if (route.ward != null) topics.add("ward:" + route.ward);
+        if (topics.size() > 1) {
+            deviceTopicsByUser.computeIfAbsent(userKey, k -> ConcurrentHashMap.newKeySet())
+                    .addAll(topics.subList(1, topics.size()));
+        }
+        return List.copyOf(topics);
+    }
+
+    /** 접속 주소 (알 수 없으면 세션 ID) */
+    private String remoteHostOf(WebSocketSession device) {
+        InetSocketAddress remote = device.getRemoteAddress();
+        if (remote == null) return device.getId();
+        return "host:" + (remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString());
+    }
+
+    /** /ws/fall 연결 쿼리 (?deviceId= / ?paKey= / ?ward=, 디코딩된 값) */
+    private static final class DeviceRoute {
+        private final String deviceId;
+        private final String paKey;
+        private final String ward;
+        private volatile Resolved resolved;
+
+        private DeviceRoute(String deviceId, String paKey, String ward) {
+            this.deviceId = deviceId;
+            this.paKey = paKey;
+            this.ward = ward;
+        }
+
+        private static DeviceRoute of(WebSocketSession session) {
+            return new DeviceRoute(WebSocketSessions.queryParam(session, "deviceId"),
+                    WebSocketSessions.queryParam(session, "paKey"), WebSocketSessions.queryParam(session, "ward"));
+        }
+
+        private record Resolved(DeviceIdentity identity, int userKey, List<String> topics,
+                                String deviceKey, String limitKey) {}
+    }
+
+    /** {"type":"SUBSCRIBE"|"UNSUBSCRIBE","topics":["user:1","patient:3"]} / {"type":"REPLAY","lastSeenId":120} */
+    private void onAlertClientMessage(WebSocketSession session, String payload) throws Exception {
+        JsonNode json = mapper.readTree(payload);
+        String type = json.path("type").asText("");
+        if (type.equals("REPLAY")) {
+            if (json.path("lastSeenId").canConvertToInt()) replayMissed(session, json.path("lastSeenId").asInt());
+            return;
+        }
+        if (!type.equals("SUBSCRIBE") && !type.equals("UNSUBSCRIBE")) return;
+
+        Set<String> topics = new HashSet<>();
+        for (JsonNode t : json.path("topics")) {
+            if (t.isTextual() && !t.asText().isBlank()) topics.add(t.asText().trim());
+        }
+        if (type.equals("SUBSCRIBE")) {
+            unsubscribe(session, Set.of(ALL_TOPICS)); // 토픽을 고르면 전체 구독 해제
+            subscribe(session, topics);
+        } else {
+            unsubscribe(session, topics);
+        }
+        log.info("🔔 알림 구독 변경: {} → {}", session.getId(), session.getAttributes().get(ATTR_ALERT_TOPICS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> topicsOf(WebSocketSession session) {
+        return (Set<String>) session.getAttributes()
+                .computeIfAbsent(ATTR_ALERT_TOPICS, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    private void subscribe(WebSocketSession session, Set<String> topics) {
+        Set<String> mine = topicsOf(session);
+        for (String topic : topics) {
+            mine.add(topic);
+            alertTopics.compute(topic, (k, set) -> {
+                if (set == null) set = ConcurrentHashMap.newKeySet();
+                set.add(session);
+                return set;
+            });
+        }
+    }
+
+    private void unsubscribe(WebSocketSession session, Set<String> topics) {
+        Set<String> mine = topicsOf(session);
+        for (String topic : topics) {
+            mine.remove(topic);
+            alertTopics.computeIfPresent(topic, (k, set) -> {
+                set.remove(session);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private void unsubscribeAll(WebSocketSession session) {
+        unsubscribe(session, Set.copyOf(topicsOf(session)));
+    }
+
+    private Set<WebSocketSession> alertAudience(String topic) {
+        return alertTopics.getOrDefault(topic, Set.of());
+    }
+
+    /** 버스로 받은 알림 (이 노드 / 다른 노드 발행) → 이 노드의 로컬 세션에만 전달 */
+    private void onBusMessage(AlertBus.Message message) {
+        switch (message.delivery()) {
+            case SUBSCRIBERS -> publishAlert(message.topics(), new TextMessage(message.frame()));
+            case SUBSCRIBERS_AND_DEVICES -> {
+                TextMessage frame = new TextMessage(message.frame());
+                publishAlert(message.topics(), frame);
+                deviceControlService.broadcastToDevices(frame);
+            }
+            case REPLAY_BUFFER -> alertReplayBuffer.append(message.alertId(), message.topics(), message.frame());
+        }
+    }
+
+    /** 전체(*) 구독자 + 이벤트 토픽 구독자에게만 전송 (중복 제거) */
+    private void publishAlert(List<String> topics, TextMessage message) {
+        Set<WebSocketSession> targets = new HashSet<>(alertAudience(ALL_TOPICS));
+        for (String topic : topics) targets.addAll(alertAudience(topic));
+        broadcastSafe(targets, message);
     }
 
     // ===============================================================
@@ -157,27 +639,36 @@ public class VideoWebSocketHandler extends TextWebSocketHandler {
 
     private void broadcastSafe(Set<WebSocketSession> sessions, TextMessage message) {
         sessions.removeIf(s -> !s.isOpen()); // 닫힌 세션 정리
+        // 세션별 송신 큐에 넣기만 함 → 느린 세션이 있어도 수신 스레드는 막히지 않음
+        // 묶음 전송을 선택한 세션은 창 단위로 모아 배열 프레임 하나로 (버스트 시 프레임/시스템콜 감소)
+        // CBOR 구독자에게는 바이너리 프레임 (브로드캐스트당 한 번만 변환)
+        BinaryMessage cbor = null;
         for (WebSocketSession s : sessions) {
-            try {
-                if (s.isOpen()) s.sendMessage(message);
-            } catch (Exception e) {
-                log.warn("⚠️ 세션 전송 실패 → 제거: {}", s.getId());
-                try { s.close(); } catch (Exception ignore) {}
+            if (WebSocketSessions.isCbor(s)) {
+                if (cbor == null) cbor = toCbor(message);
+                if (cbor != null) outboundDispatcher.send(s, cbor, OutboundLane.ALERT);
+            } else if (!alertBatcher.offer(s, message)) {
+                outboundDispatcher.send(s, message, OutboundLane.ALERT);
             }
         }
     }
 
-    // ===============================================================
-    //                       주기적 정리 (10초마다)
-    // ===============================================================
+    /** 단일 세션 알림 전송 (재전송 등). CBOR 세션이면 바이너리로 */
+    private void sendAlert(WebSocketSession session, TextMessage message) {
+        if (!WebSocketSessions.isCbor(session)) {
+            outboundDispatcher.send(session, message, OutboundLane.ALERT);
+            return;
+        }
+        BinaryMessage cbor = toCbor(message);
+        if (cbor != null) outboundDispatcher.send(session, cbor, OutboundLane.ALERT);
+    }
 
-    @Scheduled(fixedRate = 10000)
-    public void cleanupClosedSessions() {
-        int before = alertSessions.size();
-        alertSessions.removeIf(s -> !s.isOpen());
-        int after = alertSessions.size();
-        if (before != after) {
-            log.info("🧹 닫힌 세션 정리: {} → {}", before, after);
+    private BinaryMessage toCbor(TextMessage message) {
+        try {
+            return new BinaryMessage(deviceEventCodec.toCbor(message.getPayload()));
+        } catch (IOException e) {
+            log.warn("⚠️ CBOR 변환 실패", e);
+            return null;
         }
     }
 
@@ -185,18 +676,13 @@ public class VideoWebSocketHandler extends TextWebSocketHandler {
     //                         헬퍼 함수
     // ===============================================================
 
-    private String getTextOrNull(JsonNode node, String field) {
-        return node.hasNonNull(field) ? node.get(field).asText() : null;
-    }
-
-    private Double getDoubleOrNull(JsonNode node, String field) {
-        return node.hasNonNull(field) && node.get(field).isNumber()
-                ? node.get(field).asDouble() : null;
+    private FrameAssembler assemblerOf(WebSocketSession session) {
+        return assemblers.computeIfAbsent(session.getId(), id -> new FrameAssembler(maxFrameBytes));
     }
 
-    private Integer getIntegerOrNull(JsonNode node, String field) {
-        return node.hasNonNull(field) && node.get(field).canConvertToInt()
-                ? node.get(field).asInt() : null;
+    private void closeTooBig(WebSocketSession session, Exception e) {
+        log.warn("🚫 {} → 세션 종료: {}", e.getMessage(), session.getId());
+        try { session.close(CloseStatus.TOO_BIG_TO_PROCESS); } catch (Exception ignore) {}
     }
 
     private LocalDateTime tsToLocalDateTime(double epochSeconds, ZoneId zoneId) {
@@ -205,7 +691,43 @@ public class VideoWebSocketHandler extends TextWebSocketHandler {
         return Instant.ofEpochSecond(seconds, nanos).atZone(zoneId).toLocalDateTime();
     }
 
-    private int resolveUserKey(JsonNode json) {
-        return 1; // JWT 기반 추후 확장 가능
+    // ===============================================================
+    //                  디바이스 식별 (연결 시 1회)
+    // ===============================================================
+
+    /**
+     * /ws/fall?proNum={보호자 번호}&paKey= 로 유저/환자 확정 → 세션 속성에 보관.
+     * @return 연결을 유지하면 true (식별 필수인데 실패하면 종료 후 false)
+     */
+    private boolean attachDeviceIdentity(WebSocketSession session) throws Exception {
+        DeviceIdentity identity = deviceDirectory.resolve(
+                WebSocketSessions.queryParam(session, "proNum"), parseInt(WebSocketSessions.queryParam(session, "paKey")));
+        if (identity != null) {
+            session.getAttributes().put(DeviceDirectory.ATTR_IDENTITY, identity);
+            return true;
+        }
+        if (requireDeviceIdentity) {
+            log.warn("🚫 디바이스 식별 실패 → 연결 거부: {}", session.getUri());
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("unknown device"));
+            return false;
+        }
+        log.warn("⚠️ 디바이스 식별 정보 없음 → 기본 유저({})로 처리: {}", defaultUserKey, session.getUri());
+        return true;
+    }
+
+    /** 세션 속성 읽기. 유저 정보가 바뀌어 무효화된 경우에만 다시 확인 (더 이상 맞지 않으면 연결 종료) */
+    private DeviceIdentity currentIdentity(WebSocketSession session) throws Exception {
+        DeviceIdentity identity = DeviceDirectory.identityOf(session);
+        if (identity == null || !identity.isRevoked()) return identity;
+
+        DeviceIdentity refreshed = deviceDirectory.resolve(identity.getProNum(), identity.getPaKey());
+        if (refreshed == null) {
+            log.warn("🚫 디바이스 매핑 해제됨(proNum 변경/유저 삭제) → 연결 종료: {}", session.getId());
+            session.getAttributes().remove(DeviceDirectory.ATTR_IDENTITY);
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("device mapping revoked"));
+            return null;
+        }
+        session.getAttributes().put(DeviceDirectory.ATTR_IDENTITY, refreshed);
+        return refreshed;
     }
 }
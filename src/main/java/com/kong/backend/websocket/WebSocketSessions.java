@@ -0,0 +1,43 @@
+package com.kong.backend.websocket;
+
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebSocket 세션 공통 헬퍼
+ */
+public final class WebSocketSessions {
+
+    private WebSocketSessions() {}
+
+    public static String path(WebSocketSession session) {
+        return session.getUri() != null ? session.getUri().getPath() : "";
+    }
+
+    /** 영상 수신 세션 (/ws/video, /ws/admin/monitor) */
+    public static boolean isViewer(WebSocketSession session) {
+        String path = path(session);
+        return path.contains("/ws/video") || path.contains("/ws/admin/monitor");
+    }
+
+    /**
+     * 연결 URL 쿼리 파라미터, URL 디코딩한 값 (없으면 null).
+     * 매번 URI 를 파싱하므로 이벤트마다 쓰지 말고 연결 시 한 번 읽어 세션 속성에 둘 것
+     */
+    public static String queryParam(WebSocketSession session, String name) {
+        if (session.getUri() == null) return null;
+        String value = UriComponentsBuilder.fromUri(session.getUri()).build()
+                .getQueryParams().getFirst(name);
+        if (value == null) return null;
+        value = UriUtils.decode(value, StandardCharsets.UTF_8);
+        return value.isBlank() ? null : value.trim();
+    }
+
+    /** 핸드셰이크에서 CBOR 서브프로토콜로 협상된 세션이면 true */
+    public static boolean isCbor(WebSocketSession session) {
+        return DeviceEventCodec.CBOR_PROTOCOL.equals(session.getAcceptedProtocol());
+    }
+}
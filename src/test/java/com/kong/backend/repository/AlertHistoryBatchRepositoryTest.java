@@ -0,0 +1,132 @@
+package com.kong.backend.repository;
+
+import com.kong.backend.repository.AlertHistoryBatchRepository.AlertRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLSyntaxErrorException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AlertHistoryBatchRepositoryTest {
+
+	private final List<String> statements = new ArrayList<>(); // 실행된 SQL
+	private boolean supportsReturning = true;
+	private int returnedKeyLimit = Integer.MAX_VALUE; // RETURNING 이 돌려줄 최대 행 수
+
+	private final AlertHistoryBatchRepository repository =
+			new AlertHistoryBatchRepository(new JdbcTemplate(dataSource()));
+
+	private static AlertRow row(int userKey) {
+		return new AlertRow(userKey, "fall", LocalDateTime.of(2025, 10, 23, 1, 0), null, 0.9, null, null);
+	}
+
+	@Test
+	void multiRowInsertReturnsKeysInInputOrder() {
+		List<Integer> keys = repository.insertAll(List.of(row(3), row(1), row(2)));
+
+		// 키 = 1000 + userKey → 정렬하지 않고 VALUES 순서 그대로 대응되는지 확인
+		assertThat(keys).containsExactly(1003, 1001, 1002);
+		assertThat(statements).hasSize(1);
+		assertThat(statements.get(0)).endsWith("RETURNING alertId").contains("(?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?), (?");
+
+		assertThat(repository.insertAll(List.of(row(5), row(4)))).containsExactly(1005, 1004);
+		assertThat(statements).hasSize(2); // 성공한 뒤에는 계속 한 문장
+	}
+
+	@Test
+	void keyCountMismatchRollsBackAndLaterBatchesInsertRowByRow() {
+		returnedKeyLimit = 1;
+
+		assertThatThrownBy(() -> repository.insertAll(List.of(row(1), row(2))))
+				.isInstanceOf(IllegalStateException.class);
+
+		statements.clear();
+		assertThat(repository.insertAll(List.of(row(7), row(8)))).containsExactly(1007, 1008);
+		assertThat(statements).hasSize(2).noneMatch(sql -> sql.contains("RETURNING"));
+	}
+
+	@Test
+	void serverWithoutReturningFallsBackToRowByRowInTheSameCall() {
+		supportsReturning = false;
+
+		assertThat(repository.insertAll(List.of(row(1), row(2)))).containsExactly(1001, 1002);
+		assertThat(statements).hasSize(3); // 실패한 RETURNING 1 + 건별 2
+		assertThat(statements.subList(1, 3)).noneMatch(sql -> sql.contains("RETURNING"));
+	}
+
+	// ---- 가짜 JDBC: 첫 번째 바인딩 값(userKey) + 1000 을 생성 키로 돌려줌 ----
+
+	private DataSource dataSource() {
+		Connection connection = proxy(Connection.class, (name, args) -> switch (name) {
+			case "prepareStatement" -> statement((String) args[0]);
+			case "getAutoCommit" -> true;
+			default -> null;
+		});
+		return proxy(DataSource.class, (name, args) -> name.equals("getConnection") ? connection : null);
+	}
+
+	private PreparedStatement statement(String sql) {
+		List<Integer> userKeys = new ArrayList<>();
+		List<Integer> lastKeys = new ArrayList<>();
+		return proxy(PreparedStatement.class, (name, args) -> switch (name) {
+			case "setInt" -> {
+				if (((int) args[0] - 1) % 7 == 0) userKeys.add((int) args[1]);
+				yield null;
+			}
+			case "executeQuery" -> {
+				statements.add(sql);
+				if (!supportsReturning) throw new SQLSyntaxErrorException("You have an error in your SQL syntax");
+				List<Integer> keys = new ArrayList<>();
+				for (int i = 0; i < Math.min(userKeys.size(), returnedKeyLimit); i++) keys.add(1000 + userKeys.get(i));
+				yield resultSet(keys);
+			}
+			case "executeUpdate" -> {
+				statements.add(sql);
+				lastKeys.clear();
+				lastKeys.add(1000 + userKeys.get(userKeys.size() - 1));
+				yield 1;
+			}
+			case "getGeneratedKeys" -> resultSet(List.copyOf(lastKeys));
+			default -> null;
+		});
+	}
+
+	private static ResultSet resultSet(List<Integer> keys) {
+		int[] cursor = {-1};
+		return proxy(ResultSet.class, (name, args) -> switch (name) {
+			case "next" -> ++cursor[0] < keys.size();
+			case "getInt" -> keys.get(cursor[0]);
+			default -> null;
+		});
+	}
+
+	private interface Handler {
+		Object invoke(String method, Object[] args) throws Exception;
+	}
+
+	/** 처리하지 않은 메서드는 반환형의 기본값 (boolean false / 숫자 0 / 참조 null) */
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, Handler handler) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+			Object result = handler.invoke(method.getName(), args);
+			if (result != null || !method.getReturnType().isPrimitive()) return result;
+			Class<?> rt = method.getReturnType();
+			if (rt == boolean.class) return false;
+			if (rt == void.class) return null;
+			if (rt == long.class) return 0L;
+			if (rt == double.class) return 0.0;
+			if (rt == float.class) return 0f;
+			return 0;
+		});
+	}
+}
@@ -0,0 +1,121 @@
+package com.kong.backend.service;
+
+import com.kong.backend.DTO.AlertHistoryDto;
+import com.kong.backend.util.TimerWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlertCoalescerTest {
+
+	private final AtomicLong nanos = new AtomicLong();
+	private final TimerWheel wheel = new TimerWheel(100, 64, nanos::get);
+	private final ExecutorService updateExecutor = Executors.newSingleThreadExecutor();
+	private final List<AlertCoalescer.OpenAlert> closed = new CopyOnWriteArrayList<>();
+	private final List<Object> updates = new CopyOnWriteArrayList<>();
+	private final CountDownLatch updated = new CountDownLatch(1);
+	private AlertCoalescer coalescer;
+
+	@BeforeEach
+	void setUp() {
+		AlertService alertService = new AlertService(null, null, null, null) {
+			@Override
+			public void updateAlertMaxima(Integer alertId, Double maxProb, Double maxLayRate) {
+				updates.add(List.of(alertId, maxProb, maxLayRate));
+				updated.countDown();
+			}
+		};
+		coalescer = new AlertCoalescer(alertService);
+		ReflectionTestUtils.setField(coalescer, "enabled", true);
+		ReflectionTestUtils.setField(coalescer, "windowMs", 1_000L);
+		ReflectionTestUtils.setField(coalescer, "maxKeys", 100);
+		coalescer.init(wheel, nanos::get, updateExecutor);
+	}
+
+	@AfterEach
+	void tearDown() {
+		updateExecutor.shutdownNow();
+	}
+
+	private void advanceMillis(long ms) {
+		nanos.addAndGet(ms * 1_000_000);
+		wheel.advance();
+	}
+
+	private AlertCoalescer.OpenAlert offer(String eventType, double prob) {
+		return coalescer.offer("1:pi-1", eventType, prob, 0.5, closed::add);
+	}
+
+	private static AlertHistoryDto saved(int alertId) {
+		AlertHistoryDto dto = new AlertHistoryDto();
+		dto.setAlertId(alertId);
+		return dto;
+	}
+
+	@Test
+	void repeatsWithinWindowAreMerged() {
+		AlertCoalescer.OpenAlert first = offer("낙상", 0.5);
+		advanceMillis(500);
+
+		assertThat(offer("낙상", 0.9)).isNull();
+		assertThat(first.getOccurrences()).isEqualTo(2);
+		assertThat(first.getMaxProb()).isEqualTo(0.9);
+		assertThat(coalescer.stats().merged()).isEqualTo(1);
+		assertThat(coalescer.stats().openAlerts()).isEqualTo(1);
+	}
+
+	@Test
+	void closesOnlyAfterQuietWindowSinceLastRepeat() throws Exception {
+		AlertCoalescer.OpenAlert first = offer("낙상", 0.5);
+		first.attach(CompletableFuture.completedFuture(saved(7)));
+		advanceMillis(500);
+		offer("낙상", 0.9);
+
+		advanceMillis(900); // 첫 만료(1000ms) 때는 마지막 반복 후 600ms → 재예약
+		assertThat(closed).isEmpty();
+
+		advanceMillis(200); // 마지막 반복 후 1100ms
+		assertThat(closed).containsExactly(first);
+		assertThat(coalescer.stats().openAlerts()).isZero();
+
+		assertThat(updated.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(updates).containsExactly(List.of(7, 0.9, 0.5));
+	}
+
+	@Test
+	void eventTypeTransitionClosesPreviousAlert() {
+		AlertCoalescer.OpenAlert fall = offer("낙상", 0.5);
+		offer("낙상", 0.6);
+
+		AlertCoalescer.OpenAlert recovered = offer("정상", 0.1);
+
+		assertThat(recovered).isNotNull();
+		assertThat(recovered).isNotSameAs(fall);
+		assertThat(closed).containsExactly(fall);
+		assertThat(coalescer.stats().emitted()).isEqualTo(2);
+	}
+
+	@Test
+	void singleEventClosesWithoutUpdatingMaxima() {
+		AlertCoalescer.OpenAlert only = offer("낙상", 0.5);
+		only.attach(CompletableFuture.completedFuture(saved(3)));
+
+		advanceMillis(1_100);
+
+		assertThat(coalescer.stats().openAlerts()).isZero();
+		assertThat(closed).isEmpty();
+		assertThat(updates).isEmpty();
+	}
+}
@@ -0,0 +1,168 @@
+package com.kong.backend.service;
+
+import com.kong.backend.DTO.AlertHistoryDto;
+import com.kong.backend.service.AlertService.SaveAlertCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceEventPipelineTest {
+
+	@TempDir
+	Path dir;
+
+	private final AtomicInteger ids = new AtomicInteger();
+	private final List<String> saved = new CopyOnWriteArrayList<>();
+	private volatile boolean databaseDown;
+	private volatile CountDownLatch firstSaveEntered;
+	private volatile CountDownLatch releaseFirstSave;
+
+	private DeviceEventJournal journal;
+	private DeviceEventPipeline pipeline;
+
+	@BeforeEach
+	void setUp() {
+		journal = new DeviceEventJournal();
+		ReflectionTestUtils.setField(journal, "enabled", true);
+		ReflectionTestUtils.setField(journal, "dir", dir.toString());
+		ReflectionTestUtils.setField(journal, "segmentBytes", 64 * 1024);
+		ReflectionTestUtils.setField(journal, "fsync", false);
+		journal.open();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (pipeline != null) pipeline.stop();
+		journal.close();
+	}
+
+	private void start(int queueCapacity) {
+		AlertService alertService = new AlertService(null, null, null, null) {
+			@Override
+			public List<AlertHistoryDto> saveAlerts(List<SaveAlertCommand> cmds) {
+				awaitRelease();
+				if (databaseDown) throw new DataAccessResourceFailureException("database down");
+				List<AlertHistoryDto> out = new ArrayList<>();
+				for (SaveAlertCommand cmd : cmds) out.add(save(cmd));
+				return out;
+			}
+
+			@Override
+			public AlertHistoryDto saveAlert(SaveAlertCommand cmd) {
+				if (databaseDown) throw new DataAccessResourceFailureException("database down");
+				return save(cmd);
+			}
+		};
+		pipeline = new DeviceEventPipeline(alertService, journal);
+		ReflectionTestUtils.setField(pipeline, "queueCapacity", queueCapacity);
+		ReflectionTestUtils.setField(pipeline, "overflowPolicy", IngestOverflowPolicy.CALLER_RUNS);
+		ReflectionTestUtils.setField(pipeline, "maxBatch", 50);
+		ReflectionTestUtils.setField(pipeline, "flushIntervalMs", 1L);
+		ReflectionTestUtils.setField(pipeline, "replayRetryMs", 20L);
+		ReflectionTestUtils.setField(pipeline, "maxAwaiting", 100);
+		pipeline.start();
+	}
+
+	private AlertHistoryDto save(SaveAlertCommand cmd) {
+		saved.add(cmd.getEventType());
+		AlertHistoryDto dto = new AlertHistoryDto();
+		dto.setAlertId(ids.incrementAndGet());
+		dto.setEventType(cmd.getEventType());
+		return dto;
+	}
+
+	/** 첫 배치 저장을 테스트가 풀어줄 때까지 붙잡아 둠 (큐를 채우기 위해) */
+	private void awaitRelease() {
+		CountDownLatch release = releaseFirstSave;
+		if (release == null) return;
+		firstSaveEntered.countDown();
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		releaseFirstSave = null;
+	}
+
+	private CompletableFuture<AlertHistoryDto> submit(String eventType) {
+		return pipeline.submit(SaveAlertCommand.builder().eventType(eventType).userKey(1).userVerified(true).build());
+	}
+
+	/** future 는 저장 직후 완료되고 체크포인트는 그 다음에 기록됨 */
+	private void awaitCheckpoint() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (journal.pendingCount() > 0 && System.nanoTime() < deadline) Thread.sleep(5);
+	}
+
+	private static String eventTypeOf(CompletableFuture<AlertHistoryDto> future) throws Exception {
+		return future.get(5, TimeUnit.SECONDS).getEventType();
+	}
+
+	@Test
+	void savesInSubmitOrderAndCheckpoints() throws Exception {
+		start(16);
+		CompletableFuture<AlertHistoryDto> a = submit("a");
+		CompletableFuture<AlertHistoryDto> b = submit("b");
+
+		assertThat(eventTypeOf(a)).isEqualTo("a");
+		assertThat(eventTypeOf(b)).isEqualTo("b");
+		assertThat(saved).containsExactly("a", "b");
+		awaitCheckpoint();
+		assertThat(journal.pendingCount()).isZero();
+	}
+
+	@Test
+	void deferredEventsCompleteCallerFuturesAfterReplay() throws Exception {
+		databaseDown = true;
+		start(16);
+		CompletableFuture<AlertHistoryDto> a = submit("a");
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!pipeline.stats().replaying() && System.nanoTime() < deadline) Thread.sleep(5);
+		assertThat(pipeline.stats().replaying()).isTrue();
+		CompletableFuture<AlertHistoryDto> b = submit("b"); // 재생 중 → 큐에서 꺼내 future 만 등록
+
+		databaseDown = false;
+
+		assertThat(eventTypeOf(a)).isEqualTo("a");
+		assertThat(eventTypeOf(b)).isEqualTo("b");
+		assertThat(saved).containsExactly("a", "b");
+		awaitCheckpoint();
+		assertThat(journal.pendingCount()).isZero();
+		assertThat(pipeline.stats().deferred()).isGreaterThan(0);
+	}
+
+	@Test
+	void queueOverflowIsReplayedInSequenceOrder() throws Exception {
+		firstSaveEntered = new CountDownLatch(1);
+		releaseFirstSave = new CountDownLatch(1);
+		start(1);
+		CompletableFuture<AlertHistoryDto> a = submit("a");
+		assertThat(firstSaveEntered.await(5, TimeUnit.SECONDS)).isTrue(); // 저장 스레드가 a 에서 멈춤
+		CompletableFuture<AlertHistoryDto> b = submit("b"); // 큐 (용량 1)
+		CompletableFuture<AlertHistoryDto> c = submit("c"); // 큐 가득 참 → WAL 재생으로
+
+		releaseFirstSave.countDown();
+
+		assertThat(eventTypeOf(a)).isEqualTo("a");
+		assertThat(eventTypeOf(b)).isEqualTo("b");
+		assertThat(eventTypeOf(c)).isEqualTo("c");
+		assertThat(saved).containsExactly("a", "b", "c");
+		assertThat(b.get().getAlertId()).isLessThan(c.get().getAlertId());
+		awaitCheckpoint();
+		assertThat(journal.pendingCount()).isZero();
+	}
+}
@@ -0,0 +1,133 @@
+package com.kong.backend.service;
+
+import com.kong.backend.service.IngestRateLimiter.Decision;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestRateLimiterTest {
+
+	private final AtomicLong nanos = new AtomicLong();
+	private volatile double queueUtilization;
+	private IngestRateLimiter limiter;
+
+	@BeforeEach
+	void setUp() {
+		// Hikari 가 아닌 DataSource → 저장 큐 사용률로만 포화 판단
+		DataSource dataSource = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[]{DataSource.class}, (proxy, method, args) -> false);
+		DeviceEventPipeline pipeline = new DeviceEventPipeline(null, null) {
+			@Override
+			public double queueUtilization() {
+				return queueUtilization;
+			}
+		};
+		limiter = new IngestRateLimiter(dataSource, pipeline);
+		ReflectionTestUtils.setField(limiter, "enabled", true);
+		ReflectionTestUtils.setField(limiter, "deviceRatePerSec", 0.001); // 테스트 중에는 다시 채워지지 않음
+		ReflectionTestUtils.setField(limiter, "deviceBurst", 1.0);
+		ReflectionTestUtils.setField(limiter, "globalRatePerSec", 1.0);
+		ReflectionTestUtils.setField(limiter, "queueSaturation", 0.8);
+		ReflectionTestUtils.setField(limiter, "sampleEvery", 0);
+		ReflectionTestUtils.setField(limiter, "transitionIntervalMs", 1_000L);
+		ReflectionTestUtils.setField(limiter, "idleTtlMs", 60_000L);
+		limiter.init(nanos::get);
+	}
+
+	private void advanceMillis(long ms) {
+		nanos.addAndGet(ms * 1_000_000);
+	}
+
+	@Test
+	void repeatedEventsAreShedOnceDeviceTokensRunOut() {
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.SHED);
+	}
+
+	@Test
+	void alternatingEventTypesPassWithoutTokensAtMostOncePerInterval() {
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);    // 토큰 사용
+		assertThat(limiter.admit("1:pi-1", "normal")).isEqualTo(Decision.ACCEPT);  // 전이 예외
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.SHED);      // 간격 안 두 번째 전이
+		assertThat(limiter.admit("1:pi-1", "normal")).isEqualTo(Decision.SHED);
+
+		advanceMillis(1_000);
+
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);
+	}
+
+	@Test
+	void shedTransitionIsStillATransitionOnTheNextEvent() {
+		limiter.admit("1:pi-1", "fall");
+		limiter.admit("1:pi-1", "normal");  // 예외 사용
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.SHED);
+
+		advanceMillis(1_000);
+
+		// 버려진 "fall" 은 기억하지 않으므로 여전히 normal → fall 전이
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);
+	}
+
+	@Test
+	void deviceStateSurvivesUntilIdleTtlExpires() {
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.SHED);
+
+		advanceMillis(59_000);
+		limiter.evictIdle();
+		assertThat(limiter.stats().devices()).isEqualTo(1);
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.SHED); // 재연결해도 같은 버킷
+
+		advanceMillis(60_000);
+		limiter.evictIdle();
+		assertThat(limiter.stats().devices()).isZero();
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);
+	}
+
+	@Test
+	void globalBucketAppliesToTransitionsWhenSaturated() {
+		queueUtilization = 0.9;
+
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT); // 전체 토큰 1개 사용
+		assertThat(limiter.admit("1:pi-2", "fall")).isEqualTo(Decision.SHED);   // 디바이스 토큰은 있지만 전체가 없음
+		assertThat(limiter.admit("1:pi-1", "normal")).isEqualTo(Decision.SHED); // 전이도 전체 제한 적용
+	}
+
+	@Test
+	void eventsShedByGlobalLimitDoNotSpendDeviceBudget() {
+		queueUtilization = 0.9;
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);   // 전체 토큰 1개 사용
+		assertThat(limiter.admit("1:pi-2", "fall")).isEqualTo(Decision.SHED);     // 전체 제한으로 버림
+		assertThat(limiter.admit("1:pi-1", "normal")).isEqualTo(Decision.SHED);   // 전이도 전체 제한으로 버림
+
+		queueUtilization = 0;
+
+		assertThat(limiter.admit("1:pi-2", "fall")).isEqualTo(Decision.ACCEPT);   // 디바이스 토큰이 남아 있음
+		assertThat(limiter.admit("1:pi-1", "normal")).isEqualTo(Decision.ACCEPT); // 전이 예외도 남아 있음
+	}
+
+	@Test
+	void deviceTokensRefillWithTheInjectedClock() {
+		ReflectionTestUtils.setField(limiter, "deviceRatePerSec", 1.0); // 주입한 시계로 1초마다 1개
+
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.SHED);
+
+		advanceMillis(999);
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.SHED);
+
+		advanceMillis(1);
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.SHED);
+
+		advanceMillis(5_000); // 오래 쉬어도 burst(1) 까지만
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.ACCEPT);
+		assertThat(limiter.admit("1:pi-1", "fall")).isEqualTo(Decision.SHED);
+	}
+}
@@ -0,0 +1,117 @@
+package com.kong.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedSegmentLogTest {
+
+	private static final int SEGMENT_BYTES = 64 * 1024; // 최소 세그먼트 크기
+	private static final int HEADER = 4 + 8 + 4;
+
+	@TempDir
+	Path dir;
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<String> payloads(List<MappedSegmentLog.Record> records) {
+		return records.stream().map(r -> new String(r.payload(), StandardCharsets.UTF_8)).toList();
+	}
+
+	private long segmentFiles() throws Exception {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(p -> p.getFileName().toString().endsWith(".seg")).count();
+		}
+	}
+
+	@Test
+	void readAfterReturnsRecordsInSequenceOrder() throws Exception {
+		try (MappedSegmentLog log = new MappedSegmentLog(dir, SEGMENT_BYTES, false)) {
+			assertThat(log.append(bytes("a"))).isEqualTo(1);
+			assertThat(log.append(bytes("b"))).isEqualTo(2);
+			assertThat(log.append(bytes("c"))).isEqualTo(3);
+
+			assertThat(payloads(log.readAfter(0, 10))).containsExactly("a", "b", "c");
+			assertThat(payloads(log.readAfter(1, 1))).containsExactly("b");
+			assertThat(payloads(log.readAfter(2, 10))).containsExactly("c"); // 커서 이어 읽기
+			assertThat(log.readAfter(3, 10)).isEmpty();
+		}
+	}
+
+	@Test
+	void recoverContinuesAfterLastRecordAndKeepsCheckpoint() throws Exception {
+		try (MappedSegmentLog log = new MappedSegmentLog(dir, SEGMENT_BYTES, false)) {
+			log.append(bytes("a"));
+			log.append(bytes("b"));
+			log.append(bytes("c"));
+			log.checkpoint(1);
+		}
+
+		try (MappedSegmentLog log = new MappedSegmentLog(dir, SEGMENT_BYTES, false)) {
+			assertThat(log.getCheckpoint()).isEqualTo(1);
+			assertThat(log.lastSeq()).isEqualTo(3);
+			assertThat(payloads(log.readAfter(log.getCheckpoint(), 10))).containsExactly("b", "c");
+			assertThat(log.append(bytes("d"))).isEqualTo(4);
+			assertThat(payloads(log.readAfter(3, 10))).containsExactly("d");
+		}
+	}
+
+	@Test
+	void recoverTruncatesTailWithBadCrc() throws Exception {
+		try (MappedSegmentLog log = new MappedSegmentLog(dir, SEGMENT_BYTES, false)) {
+			log.append(bytes("a"));
+			log.append(bytes("b"));
+			log.append(bytes("c"));
+		}
+		// 세 번째 레코드 본문 한 바이트 손상 → CRC 불일치
+		Path segment;
+		try (Stream<Path> files = Files.list(dir)) {
+			segment = files.filter(p -> p.getFileName().toString().endsWith(".seg")).findFirst().orElseThrow();
+		}
+		try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			ch.write(ByteBuffer.wrap(new byte[]{'x'}), 2L * (HEADER + 1) + HEADER);
+		}
+
+		try (MappedSegmentLog log = new MappedSegmentLog(dir, SEGMENT_BYTES, false)) {
+			assertThat(log.lastSeq()).isEqualTo(2);
+			assertThat(payloads(log.readAfter(0, 10))).containsExactly("a", "b");
+			// 잘린 자리부터 이어 씀 (손상된 바이트와 섞이지 않음)
+			assertThat(log.append(bytes("dd"))).isEqualTo(3);
+			assertThat(payloads(log.readAfter(0, 10))).containsExactly("a", "b", "dd");
+		}
+		try (MappedSegmentLog log = new MappedSegmentLog(dir, SEGMENT_BYTES, false)) {
+			assertThat(payloads(log.readAfter(0, 10))).containsExactly("a", "b", "dd");
+		}
+	}
+
+	@Test
+	void checkpointRecyclesFullyPersistedSegments() throws Exception {
+		byte[] big = new byte[SEGMENT_BYTES / 3]; // 세그먼트당 2건
+		try (MappedSegmentLog log = new MappedSegmentLog(dir, SEGMENT_BYTES, false)) {
+			for (int i = 0; i < 5; i++) log.append(big); // 세그먼트 [1,2] [3,4] [5]
+			assertThat(log.segmentCount()).isEqualTo(3);
+
+			log.checkpoint(3); // 두 번째 세그먼트의 4 가 아직 남음
+			assertThat(log.segmentCount()).isEqualTo(2);
+			assertThat(segmentFiles()).isEqualTo(2);
+
+			log.checkpoint(5); // 마지막(쓰는 중) 세그먼트는 유지
+			assertThat(log.segmentCount()).isEqualTo(1);
+			assertThat(segmentFiles()).isEqualTo(1);
+			assertThat(log.readAfter(5, 10)).isEmpty();
+			assertThat(log.append(big)).isEqualTo(6);
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.kong.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedVideoTrackTest {
+
+	private static final int SEGMENT_BYTES = 1024 * 1024; // 최소 세그먼트 크기
+	private static final int FRAME_BYTES = 400_000;       // 세그먼트당 2장
+	private static final int RECORD_BYTES = 4 + 8 + FRAME_BYTES;
+
+	@TempDir
+	Path dir;
+
+	/** 첫 바이트로 몇 번째 프레임인지 구분 */
+	private static ByteBuffer frame(int marker) {
+		byte[] body = new byte[FRAME_BYTES];
+		body[0] = (byte) marker;
+		return ByteBuffer.wrap(body);
+	}
+
+	private static List<Integer> markers(ByteArrayOutputStream out) {
+		byte[] bytes = out.toByteArray();
+		Integer[] markers = new Integer[bytes.length / FRAME_BYTES];
+		for (int i = 0; i < markers.length; i++) markers[i] = (int) bytes[i * FRAME_BYTES];
+		return Arrays.asList(markers);
+	}
+
+	private List<String> files(String suffix) throws Exception {
+		try (Stream<Path> list = Files.list(dir)) {
+			return list.map(p -> p.getFileName().toString()).filter(n -> n.endsWith(suffix)).sorted().toList();
+		}
+	}
+
+	@Test
+	void rollsToNewSegmentWhenFull() throws Exception {
+		try (MappedVideoTrack track = new MappedVideoTrack(dir, SEGMENT_BYTES, 1000)) {
+			for (int i = 1; i <= 5; i++) assertThat(track.append(i * 1000L, frame(i))).isTrue();
+
+			assertThat(track.segmentCount()).isEqualTo(3); // [1,2] [3,4] [5]
+			assertThat(track.bytes()).isEqualTo(5L * RECORD_BYTES);
+			assertThat(track.oldestMillis()).isEqualTo(1000);
+			assertThat(track.newestMillis()).isEqualTo(5000);
+			assertThat(files(".idx")).hasSize(2); // 닫힌 세그먼트만
+		}
+	}
+
+	@Test
+	void writeBetweenReadsRangeAcrossSegments() throws Exception {
+		try (MappedVideoTrack track = new MappedVideoTrack(dir, SEGMENT_BYTES, 1000)) {
+			for (int i = 1; i <= 5; i++) track.append(i * 1000L, frame(i));
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			assertThat(track.writeBetween(2000, 4500, out)).isEqualTo(3);
+			assertThat(markers(out)).containsExactly(2, 3, 4);
+
+			ByteArrayOutputStream tail = new ByteArrayOutputStream();
+			assertThat(track.writeBetween(4500, 9000, tail)).isEqualTo(1); // 진행 중 세그먼트
+			assertThat(markers(tail)).containsExactly(5);
+		}
+	}
+
+	@Test
+	void recoversSegmentWrittenWithoutIndex() throws Exception {
+		MappedVideoTrack crashed = new MappedVideoTrack(dir, SEGMENT_BYTES, 1000);
+		for (int i = 1; i <= 3; i++) crashed.append(i * 1000L, frame(i));
+		// 닫지 않음 → 마지막 세그먼트는 .idx 없이 전체 크기로 남음
+		assertThat(files(".idx")).hasSize(1);
+
+		try (MappedVideoTrack track = new MappedVideoTrack(dir, SEGMENT_BYTES, 1000)) {
+			assertThat(track.segmentCount()).isEqualTo(2);
+			assertThat(track.newestMillis()).isEqualTo(3000);
+			assertThat(track.bytes()).isEqualTo(3L * RECORD_BYTES);
+			assertThat(files(".idx")).hasSize(2); // 훑어서 다시 만듦
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			assertThat(track.writeBetween(0, 9000, out)).isEqualTo(3);
+			assertThat(markers(out)).containsExactly(1, 2, 3);
+
+			track.append(4000, frame(4)); // 녹화는 새 세그먼트부터
+			assertThat(track.segmentCount()).isEqualTo(3);
+		}
+	}
+
+	@Test
+	void retentionDeletesOldestClosedSegmentsBySizeAndAge() throws Exception {
+		try (MappedVideoTrack track = new MappedVideoTrack(dir, SEGMENT_BYTES, 1000)) {
+			for (int i = 1; i <= 5; i++) track.append(i * 1000L, frame(i)); // [1,2] [3,4] [5]
+
+			assertThat(track.enforceRetention(Long.MAX_VALUE, 2500)).isEqualTo(1); // 끝 시각 2000 < 2500
+			assertThat(track.oldestMillis()).isEqualTo(3000);
+
+			assertThat(track.enforceRetention(RECORD_BYTES, 0)).isEqualTo(1); // 크기 초과, 진행 중 세그먼트는 유지
+			assertThat(track.segmentCount()).isEqualTo(1);
+			assertThat(files(".seg")).hasSize(1);
+			assertThat(files(".idx")).isEmpty();
+		}
+	}
+
+	@Test
+	void sealAndNextSegmentRunOnBackgroundExecutor() throws Exception {
+		ManualExecutor background = new ManualExecutor();
+		try (MappedVideoTrack track = new MappedVideoTrack(dir, SEGMENT_BYTES, 1000, background)) {
+			track.append(1000, frame(1));
+			background.runAll(); // 첫 세그먼트 뒤 예비 세그먼트 준비
+			assertThat(Files.exists(dir.resolve("next.spare"))).isTrue();
+
+			track.append(2000, frame(2));
+			track.append(3000, frame(3)); // 세그먼트 교체: 예비 파일 이름만 바꿈
+			assertThat(Files.exists(dir.resolve("next.spare"))).isFalse();
+			assertThat(files(".idx")).isEmpty(); // 닫기는 아직 background 대기 중
+			assertThat(track.enforceRetention(0, Long.MAX_VALUE)).isZero(); // 닫는 중인 세그먼트는 지우지 않음
+
+			background.runAll();
+			assertThat(files(".idx")).hasSize(1);
+			assertThat(Files.size(dir.resolve(files(".seg").get(0)))).isEqualTo(2L * RECORD_BYTES); // 잘라냄
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			assertThat(track.writeBetween(0, 9000, out)).isEqualTo(3);
+			assertThat(markers(out)).containsExactly(1, 2, 3);
+		}
+		background.runAll();
+		assertThat(Files.exists(dir.resolve("next.spare"))).isFalse();
+	}
+
+	/** 테스트 스레드에서 직접 돌리는 실행기 */
+	private static final class ManualExecutor implements Executor {
+		private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		void runAll() {
+			Runnable task;
+			while ((task = tasks.poll()) != null) task.run();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.kong.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapFrameRingTest {
+
+	private static final long KEEP = Long.MAX_VALUE / 2; // 시간으로는 지우지 않음
+
+	/** 모든 바이트가 marker 인 프레임 */
+	private static ByteBuffer frame(int marker, int bytes) {
+		byte[] body = new byte[bytes];
+		Arrays.fill(body, (byte) marker);
+		return ByteBuffer.wrap(body);
+	}
+
+	/** 프레임마다 첫 바이트 (프레임 전체가 같은 값인지도 확인) */
+	private static List<Integer> markers(OffHeapFrameRing ring) {
+		return ring.copyBetween(Long.MIN_VALUE, Long.MAX_VALUE).stream().map(f -> {
+			for (byte b : f) assertThat((int) b).isEqualTo((int) f[0]);
+			return (int) f[0];
+		}).toList();
+	}
+
+	@Test
+	void wrapEvictsFramesOverwrittenAtTheStart() {
+		OffHeapFrameRing ring = new OffHeapFrameRing(100, 16, KEEP);
+		ring.append(1, frame(1, 40)); // [0, 40)
+		ring.append(2, frame(2, 40)); // [40, 80)
+		ring.append(3, frame(3, 40)); // 끝에 안 들어감 → 처음으로, 1 을 덮음
+
+		assertThat(markers(ring)).containsExactly(2, 3);
+
+		ring.append(4, frame(4, 15)); // [40, 55) → 2 를 덮음
+		ring.append(5, frame(5, 40)); // [55, 95)
+		assertThat(markers(ring)).containsExactly(3, 4, 5);
+
+		ring.append(6, frame(6, 40)); // 다시 처음으로 [0, 40) → 3 만 덮음
+		assertThat(markers(ring)).containsExactly(4, 5, 6);
+		assertThat(ring.oldestMillis()).isEqualTo(4);
+	}
+
+	@Test
+	void wrapEvictsOldFramesLeftInTheSkippedTail() {
+		OffHeapFrameRing ring = new OffHeapFrameRing(100, 16, KEEP);
+		ring.append(1, frame(1, 75)); // [0, 75)
+		ring.append(2, frame(2, 20)); // [75, 95)
+		ring.append(3, frame(3, 50)); // 처음으로 → 1 제거, [0, 50)
+		ring.append(4, frame(4, 25)); // [50, 75)
+		assertThat(markers(ring)).containsExactly(2, 3, 4);
+
+		// 처음으로: 꼬리의 2 는 새 프레임과 겹치지 않지만 가장 오래됐으므로 먼저 제거해야 3 까지 확인됨
+		ring.append(5, frame(5, 30));
+
+		assertThat(markers(ring)).containsExactly(4, 5);
+	}
+
+	@Test
+	void frameLargerThanCapacityIsRejected() {
+		OffHeapFrameRing ring = new OffHeapFrameRing(100, 16, KEEP);
+		ring.append(1, frame(1, 30));
+
+		assertThat(ring.append(2, frame(2, 101))).isFalse();
+		assertThat(ring.append(3, ByteBuffer.allocate(0))).isFalse();
+		assertThat(markers(ring)).containsExactly(1);
+
+		assertThat(ring.append(4, frame(4, 100))).isTrue(); // 버퍼 전체 → 나머지는 모두 제거
+		assertThat(markers(ring)).containsExactly(4);
+	}
+
+	@Test
+	void framesOlderThanRetentionAreEvicted() {
+		OffHeapFrameRing ring = new OffHeapFrameRing(1000, 16, 1000);
+		ring.append(0, frame(1, 10));
+		ring.append(500, frame(2, 10));
+		ring.append(1200, frame(3, 10)); // 0 은 1200 - 1000 보다 오래됨
+
+		assertThat(markers(ring)).containsExactly(2, 3);
+		assertThat(ring.oldestMillis()).isEqualTo(500);
+		assertThat(ring.copyBetween(400, 600)).hasSize(1);
+	}
+
+	@Test
+	void indexLimitEvictsOldestFrame() {
+		OffHeapFrameRing ring = new OffHeapFrameRing(1000, 2, KEEP);
+		ring.append(1, frame(1, 10));
+		ring.append(2, frame(2, 10));
+		ring.append(3, frame(3, 10));
+
+		assertThat(ring.frameCount()).isEqualTo(2);
+		assertThat(markers(ring)).containsExactly(2, 3);
+	}
+}
@@ -0,0 +1,116 @@
+package com.kong.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+	private final AtomicLong nanos = new AtomicLong();
+	private final TimerWheel wheel = new TimerWheel(100, 8, nanos::get);
+	private final List<String> fired = new ArrayList<>();
+
+	private void advanceMillis(long ms) {
+		nanos.addAndGet(ms * 1_000_000);
+		wheel.advance();
+	}
+
+	@Test
+	void firesOnTheFirstTickAfterDeadline() {
+		wheel.schedule(() -> fired.add("a"), 250);
+
+		advanceMillis(200);
+		assertThat(fired).isEmpty();
+
+		advanceMillis(100);
+		assertThat(fired).containsExactly("a");
+	}
+
+	@Test
+	void cancelledTimeoutNeverFires() {
+		TimerWheel.Timeout timeout = wheel.schedule(() -> fired.add("a"), 100);
+		timeout.cancel();
+
+		advanceMillis(1_000);
+		assertThat(fired).isEmpty();
+	}
+
+	@Test
+	void delayLongerThanOneRotationWaitsForRemainingRounds() {
+		wheel.schedule(() -> fired.add("long"), 1_000); // 휠 한 바퀴 = 800ms
+		wheel.schedule(() -> fired.add("short"), 200);
+
+		advanceMillis(900);
+		assertThat(fired).containsExactly("short");
+
+		advanceMillis(200);
+		assertThat(fired).containsExactly("short", "long");
+	}
+
+	@Test
+	void taskScheduledFromTimeoutRunsOnLaterTick() {
+		wheel.schedule(() -> {
+			fired.add("first");
+			wheel.schedule(() -> fired.add("second"), 300);
+		}, 100);
+
+		advanceMillis(200); // 200ms 에 실행 → 두 번째는 500ms 기한
+		assertThat(fired).containsExactly("first");
+
+		advanceMillis(300);
+		assertThat(fired).containsExactly("first");
+
+		advanceMillis(100);
+		assertThat(fired).containsExactly("first", "second");
+	}
+
+	@Test
+	void failingTaskDoesNotStopTheWheel() {
+		wheel.schedule(() -> {
+			throw new IllegalStateException("boom");
+		}, 100);
+		wheel.schedule(() -> fired.add("after"), 100);
+
+		advanceMillis(200);
+		assertThat(fired).containsExactly("after");
+	}
+
+	@Test
+	void deadlinesStillHoldAfterLongIdlePeriod() {
+		advanceMillis(3_600_000); // 빈 휠: 지난 틱을 하나씩 돌지 않고 건너뜀
+		wheel.schedule(() -> fired.add("a"), 250);
+
+		advanceMillis(200);
+		assertThat(fired).isEmpty();
+
+		advanceMillis(100);
+		assertThat(fired).containsExactly("a");
+	}
+
+	@Test
+	void workerThreadSleepsWhileNothingIsScheduled() throws Exception {
+		try (TimerWheel threaded = new TimerWheel("timer-wheel-test", 5, 64)) {
+			Thread worker = (Thread) ReflectionTestUtils.getField(threaded, "worker");
+			awaitState(worker, Thread.State.WAITING); // 기한 없는 park (틱마다 깨지 않음)
+
+			CountDownLatch done = new CountDownLatch(1);
+			threaded.schedule(done::countDown, 20);
+			assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+			awaitState(worker, Thread.State.WAITING);
+		}
+	}
+
+	private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != state && System.nanoTime() < deadline) Thread.sleep(5);
+		assertThat(thread.getState()).isEqualTo(state);
+	}
+}
@@ -0,0 +1,134 @@
+package com.kong.backend.websocket;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** 보낸 메시지를 기록하는 테스트용 세션. sendMillis 로 느린 클라이언트 흉내 */
+class FakeWebSocketSession implements WebSocketSession {
+
+	final List<WebSocketMessage<?>> sent = new CopyOnWriteArrayList<>();
+	final AtomicInteger concurrentSends = new AtomicInteger();
+	final AtomicInteger maxConcurrentSends = new AtomicInteger();
+	volatile long sendMillis;
+	volatile CloseStatus closeStatus;
+
+	private final String id;
+	private final URI uri;
+	private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+	private final HttpHeaders headers = new HttpHeaders();
+
+	FakeWebSocketSession(String id, String uri) {
+		this.id = id;
+		this.uri = URI.create(uri);
+	}
+
+	@Override
+	public void sendMessage(WebSocketMessage<?> message) throws IOException {
+		if (closeStatus != null) throw new IOException("closed");
+		maxConcurrentSends.accumulateAndGet(concurrentSends.incrementAndGet(), Math::max);
+		try {
+			if (sendMillis > 0) Thread.sleep(sendMillis);
+			sent.add(message);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} finally {
+			concurrentSends.decrementAndGet();
+		}
+	}
+
+	List<Object> sentPayloads() {
+		return sent.stream().map(m -> (Object) m.getPayload()).toList();
+	}
+
+	@Override
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public URI getUri() {
+		return uri;
+	}
+
+	@Override
+	public HttpHeaders getHandshakeHeaders() {
+		return headers;
+	}
+
+	@Override
+	public Map<String, Object> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public Principal getPrincipal() {
+		return null;
+	}
+
+	@Override
+	public InetSocketAddress getLocalAddress() {
+		return null;
+	}
+
+	@Override
+	public InetSocketAddress getRemoteAddress() {
+		return new InetSocketAddress("127.0.0.1", 50000);
+	}
+
+	@Override
+	public String getAcceptedProtocol() {
+		return null;
+	}
+
+	@Override
+	public void setTextMessageSizeLimit(int messageSizeLimit) {
+	}
+
+	@Override
+	public int getTextMessageSizeLimit() {
+		return 0;
+	}
+
+	@Override
+	public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+	}
+
+	@Override
+	public int getBinaryMessageSizeLimit() {
+		return 0;
+	}
+
+	@Override
+	public List<WebSocketExtension> getExtensions() {
+		return List.of();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return closeStatus == null;
+	}
+
+	@Override
+	public void close() {
+		close(CloseStatus.NORMAL);
+	}
+
+	@Override
+	public void close(CloseStatus status) {
+		if (closeStatus == null) closeStatus = status;
+	}
+}
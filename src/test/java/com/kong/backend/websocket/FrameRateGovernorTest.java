@@ -0,0 +1,53 @@
+package com.kong.backend.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrameRateGovernorTest {
+
+	private static final FrameRateGovernor.Settings SETTINGS = new FrameRateGovernor.Settings(16, 100, 1000, 3);
+
+	/** 간격을 2로 늘린 시청자 (첫 창에서 덮어쓴 프레임이 있었음) */
+	private FrameRateGovernor halved() {
+		FrameRateGovernor governor = new FrameRateGovernor(SETTINGS);
+		governor.admit("cam-a", 1_000, 0, 256);
+		governor.onOverwritten();
+		governor.admit("cam-a", 2_000, 0, 256);
+		assertThat(governor.divisor()).isEqualTo(2);
+		return governor;
+	}
+
+	@Test
+	void interleavedCamerasBothGetFramesAtDivisorTwo() {
+		FrameRateGovernor governor = halved();
+		int a = 0;
+		int b = 0;
+		for (int i = 0; i < 10; i++) {
+			if (governor.admit("cam-a", 2_100 + i, 0, 256)) a++;
+			if (governor.admit("cam-b", 2_100 + i, 0, 256)) b++;
+		}
+		assertThat(a).isEqualTo(5);
+		assertThat(b).isEqualTo(5);
+	}
+
+	@Test
+	void singleCameraKeepsEveryOtherFrame() {
+		FrameRateGovernor governor = halved();
+		int admitted = 0;
+		for (int i = 0; i < 8; i++) {
+			if (governor.admit("cam-a", 2_100 + i, 0, 256)) admitted++;
+		}
+		assertThat(admitted).isEqualTo(4);
+	}
+
+	@Test
+	void calmWindowsRestoreFullRate() {
+		FrameRateGovernor governor = halved();
+		for (int w = 1; w <= 3; w++) {
+			governor.admit("cam-a", 2_000 + w * 1_000L, 0, 256);
+		}
+		assertThat(governor.divisor()).isEqualTo(1);
+		assertThat(governor.upshifts()).isEqualTo(1);
+	}
+}
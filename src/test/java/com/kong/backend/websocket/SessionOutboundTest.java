@@ -0,0 +1,211 @@
+package com.kong.backend.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionOutboundTest {
+
+	private final FakeWebSocketSession session = new FakeWebSocketSession("s1", "ws://localhost/ws/alert");
+	private final ManualExecutor executor = new ManualExecutor();
+	private final AtomicLong globalBytes = new AtomicLong();
+
+	private SessionOutbound outbound(int capacity, OverflowPolicy policy) {
+		return new SessionOutbound(session, executor, executor, capacity, 16, policy, globalBytes, null,
+				new LaneMetrics(500));
+	}
+
+	@Test
+	void dropOldestEvictsOldestMessageOfLowestLane() {
+		SessionOutbound out = outbound(2, OverflowPolicy.DROP_OLDEST);
+		out.offer(new TextMessage("t1"), OutboundLane.TELEMETRY);
+		out.offer(new TextMessage("t2"), OutboundLane.TELEMETRY);
+
+		assertThat(out.offer(new TextMessage("a1"), OutboundLane.ALERT)).isTrue();
+		executor.runAll();
+
+		assertThat(session.sentPayloads()).containsExactly("a1", "t2");
+		assertThat(out.stats().dropped()).isEqualTo(1);
+	}
+
+	@Test
+	void dropOldestRejectsLowerLaneWhenOnlyHigherLanesAreQueued() {
+		SessionOutbound out = outbound(2, OverflowPolicy.DROP_OLDEST);
+		out.offer(new TextMessage("a1"), OutboundLane.ALERT);
+		out.offer(new TextMessage("a2"), OutboundLane.ALERT);
+
+		assertThat(out.offer(new TextMessage("t1"), OutboundLane.TELEMETRY)).isFalse();
+		executor.runAll();
+
+		assertThat(session.sentPayloads()).containsExactly("a1", "a2");
+	}
+
+	@Test
+	void dropNewestEvictsNewestLowerLaneMessageForHigherLane() {
+		SessionOutbound out = outbound(2, OverflowPolicy.DROP_NEWEST);
+		out.offer(new TextMessage("t1"), OutboundLane.TELEMETRY);
+		out.offer(new TextMessage("t2"), OutboundLane.TELEMETRY);
+
+		assertThat(out.offer(new TextMessage("t3"), OutboundLane.TELEMETRY)).isFalse();
+		assertThat(out.offer(new TextMessage("a1"), OutboundLane.ALERT)).isTrue();
+		executor.runAll();
+
+		assertThat(session.sentPayloads()).containsExactly("a1", "t1");
+		assertThat(out.stats().dropped()).isEqualTo(2);
+	}
+
+	@Test
+	void disconnectPolicyClosesSessionOnOverflow() {
+		SessionOutbound out = outbound(1, OverflowPolicy.DISCONNECT);
+		out.offer(new TextMessage("t1"), OutboundLane.TELEMETRY);
+
+		assertThat(out.offer(new TextMessage("t2"), OutboundLane.TELEMETRY)).isFalse();
+
+		assertThat(session.closeStatus).isEqualTo(CloseStatus.SESSION_NOT_RELIABLE);
+		assertThat(out.depth()).isZero();
+		assertThat(out.queuedBytes()).isZero();
+		assertThat(globalBytes.get()).isZero();
+	}
+
+	@Test
+	void queuedBytesReturnToZeroAfterClose() {
+		SessionOutbound out = outbound(8, OverflowPolicy.DROP_OLDEST);
+		out.offer(new TextMessage("alert"), OutboundLane.ALERT);
+		out.offer(new TextMessage("telemetry"), OutboundLane.TELEMETRY);
+		out.offerLatest("cam-a", new TextMessage("frame-a"));
+		out.offerLatest("cam-a", new TextMessage("frame-a2"));
+		out.offerLatest("cam-b", new TextMessage("frame-b"));
+		assertThat(out.queuedBytes()).isEqualTo(5 + 9 + 8 + 7);
+		assertThat(globalBytes.get()).isEqualTo(out.queuedBytes());
+
+		out.close(CloseStatus.NORMAL);
+		out.offer(new TextMessage("late"), OutboundLane.ALERT);
+		out.offerLatest("cam-a", new TextMessage("late-frame"));
+		executor.runAll();
+
+		assertThat(out.queuedBytes()).isZero();
+		assertThat(globalBytes.get()).isZero();
+		assertThat(session.sent).isEmpty();
+	}
+
+	@Test
+	void closeRacingFrameOffersLeavesNoGlobalBytes() throws Exception {
+		ExecutorService producers = Executors.newFixedThreadPool(4);
+		try {
+			for (int round = 0; round < 200; round++) {
+				SessionOutbound out = new SessionOutbound(session, task -> {}, task -> {}, 8, 16,
+						OverflowPolicy.DROP_OLDEST, globalBytes, null, new LaneMetrics(500));
+				CountDownLatch start = new CountDownLatch(1);
+				CountDownLatch done = new CountDownLatch(4);
+				for (int p = 0; p < 4; p++) {
+					String camera = "cam-" + p;
+					producers.execute(() -> {
+						try {
+							start.await();
+							for (int i = 0; i < 50; i++) out.offerLatest(camera, new TextMessage("frame-" + i));
+						} catch (InterruptedException ignore) {
+						} finally {
+							done.countDown();
+						}
+					});
+				}
+				start.countDown();
+				out.close(CloseStatus.NORMAL);
+				assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+				assertThat(out.queuedBytes()).isZero();
+				assertThat(globalBytes.get()).isZero();
+			}
+		} finally {
+			producers.shutdownNow();
+		}
+	}
+
+	@Test
+	void latestFrameIsKeptPerCamera() {
+		SessionOutbound out = outbound(8, OverflowPolicy.DROP_OLDEST);
+		out.offerLatest("cam-a", new TextMessage("a1"));
+		out.offerLatest("cam-b", new TextMessage("b1"));
+		out.offerLatest("cam-a", new TextMessage("a2"));
+		executor.runAll();
+
+		assertThat(session.sentPayloads()).containsExactly("a2", "b1");
+		assertThat(out.stats().skippedFrames()).isEqualTo(1);
+		assertThat(out.queuedBytes()).isZero();
+	}
+
+	@Test
+	void sendLatencyDecaysWhileIdle() throws Exception {
+		session.sendMillis = 50;
+		SessionOutbound out = outbound(8, OverflowPolicy.DROP_OLDEST);
+		out.offer(new TextMessage("slow"), OutboundLane.ALERT);
+		executor.runAll();
+		assertThat(out.sendLatencyNanos()).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(40));
+
+		Thread.sleep(1100); // 반감기(1초) 이상 쉼
+
+		assertThat(out.sendLatencyNanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(30));
+	}
+
+	@Test
+	void drainAndUrgentSendsNeverOverlap() throws Exception {
+		session.sendMillis = 1;
+		ExecutorService drain = Executors.newFixedThreadPool(4);
+		ExecutorService urgent = Executors.newFixedThreadPool(4);
+		ExecutorService producers = Executors.newFixedThreadPool(4);
+		try {
+			SessionOutbound out = new SessionOutbound(session, drain, urgent, 1024, 4, OverflowPolicy.DROP_OLDEST,
+					globalBytes, null, new LaneMetrics(500));
+			CountDownLatch start = new CountDownLatch(1);
+			for (int p = 0; p < 4; p++) {
+				OutboundLane lane = OutboundLane.values()[p % 3];
+				producers.execute(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < 25; i++) out.offer(new TextMessage("m" + i), lane);
+				});
+			}
+			start.countDown();
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (session.sent.size() < 100 && System.nanoTime() < deadline) Thread.sleep(5);
+
+			assertThat(session.sent).hasSize(100);
+			assertThat(session.maxConcurrentSends.get()).isEqualTo(1);
+			assertThat(out.queuedBytes()).isZero();
+		} finally {
+			producers.shutdownNow();
+			drain.shutdownNow();
+			urgent.shutdownNow();
+		}
+	}
+
+	/** 테스트 스레드에서 직접 돌리는 실행기 (드레인 / 긴급 풀 대신) */
+	private static final class ManualExecutor implements Executor {
+		private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		void runAll() {
+			Runnable task;
+			while ((task = tasks.poll()) != null) task.run();
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.kong.backend.websocket;
+
+import com.kong.backend.util.TimerWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionRegistryTest {
+
+	private final AtomicLong nanos = new AtomicLong();
+	private final TimerWheel wheel = new TimerWheel(500, 256, nanos::get);
+	private final ExecutorService evictExecutor = Executors.newSingleThreadExecutor();
+	private final List<WebSocketMessage<?>> pings = new CopyOnWriteArrayList<>();
+	private final List<WebSocketSession> released = new CopyOnWriteArrayList<>();
+	private SessionRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		OutboundDispatcher dispatcher = new OutboundDispatcher() {
+			@Override
+			public boolean send(WebSocketSession session, WebSocketMessage<?> message) {
+				pings.add(message);
+				return true;
+			}
+		};
+		registry = new SessionRegistry(dispatcher);
+		ReflectionTestUtils.setField(registry, "intervalMs", 15_000L);
+		ReflectionTestUtils.setField(registry, "idleTimeoutMs", 45_000L);
+		registry.init(wheel, nanos::get, evictExecutor);
+	}
+
+	@AfterEach
+	void tearDown() {
+		evictExecutor.shutdownNow();
+	}
+
+	/** 휠 틱(500ms) 단위로 시계를 진행 */
+	private void advanceMillis(long ms) {
+		for (long t = 0; t < ms; t += 500) {
+			nanos.addAndGet(500_000_000L);
+			wheel.advance();
+		}
+	}
+
+	/** 종료 처리 스레드에 넘긴 작업이 모두 끝날 때까지 */
+	private void awaitEvictions() throws Exception {
+		evictExecutor.submit(() -> {}).get();
+	}
+
+	@Test
+	void duplicateClientReplacesPreviousSession() throws Exception {
+		FakeWebSocketSession first = new FakeWebSocketSession("s1", "ws://localhost/ws/alert?clientId=c1");
+		FakeWebSocketSession second = new FakeWebSocketSession("s2", "ws://localhost/ws/alert?clientId=c1");
+		registry.register(first, released::add);
+		registry.register(second, released::add);
+		awaitEvictions();
+
+		assertThat(first.closeStatus.getCode()).isEqualTo(CloseStatus.POLICY_VIOLATION.getCode());
+		assertThat(second.isOpen()).isTrue();
+		assertThat(released).containsExactly(first);
+		assertThat(registry.stats().replaced()).isEqualTo(1);
+		assertThat(registry.stats().sessions()).isEqualTo(1);
+	}
+
+	@Test
+	void devicesAreIdentifiedByDeviceIdAndPathsAreSeparate() throws Exception {
+		FakeWebSocketSession pi = new FakeWebSocketSession("s1", "ws://localhost/ws/fall?deviceId=pi-1");
+		FakeWebSocketSession viewer = new FakeWebSocketSession("s2", "ws://localhost/ws/video?deviceId=pi-1");
+		FakeWebSocketSession piAgain = new FakeWebSocketSession("s3", "ws://localhost/ws/fall?deviceId=pi-1");
+		registry.register(pi, released::add);
+		registry.register(viewer, released::add);
+		registry.register(piAgain, released::add);
+		awaitEvictions();
+
+		assertThat(released).containsExactly(pi);
+		assertThat(viewer.isOpen()).isTrue();
+		assertThat(registry.stats().identified()).isEqualTo(1);
+	}
+
+	@Test
+	void quietSessionIsPingedEveryInterval() {
+		FakeWebSocketSession session = new FakeWebSocketSession("s1", "ws://localhost/ws/alert");
+		registry.register(session, released::add);
+
+		advanceMillis(15_500);
+		assertThat(pings).hasSize(1);
+		assertThat(pings.get(0)).isInstanceOf(PingMessage.class);
+
+		advanceMillis(15_500); // 다음 점검은 첫 점검 시각(15.5s) + interval
+		assertThat(registry.stats().pings()).isEqualTo(2);
+	}
+
+	@Test
+	void recentlyTouchedSessionIsNotPinged() {
+		FakeWebSocketSession session = new FakeWebSocketSession("s1", "ws://localhost/ws/alert");
+		registry.register(session, released::add);
+
+		advanceMillis(10_000);
+		registry.touch(session);
+		advanceMillis(5_500);
+
+		assertThat(pings).isEmpty();
+	}
+
+	@Test
+	void sessionSilentForIdleTimeoutIsEvicted() throws Exception {
+		FakeWebSocketSession session = new FakeWebSocketSession("s1", "ws://localhost/ws/alert?clientId=c1");
+		registry.register(session, released::add);
+
+		advanceMillis(31_000); // 15.5s / 31s 점검은 ping
+		assertThat(session.isOpen()).isTrue();
+
+		advanceMillis(15_500); // 46.5s 점검: idle >= 45s
+		awaitEvictions();
+
+		assertThat(session.closeStatus.getCode()).isEqualTo(CloseStatus.SESSION_NOT_RELIABLE.getCode());
+		assertThat(released).containsExactly(session);
+		assertThat(registry.stats().evicted()).isEqualTo(1);
+		assertThat(registry.stats().sessions()).isZero();
+		assertThat(registry.stats().identified()).isZero();
+	}
+
+	@Test
+	void unregisteredSessionIsNoLongerChecked() throws Exception {
+		FakeWebSocketSession session = new FakeWebSocketSession("s1", "ws://localhost/ws/alert?clientId=c1");
+		registry.register(session, released::add);
+		registry.unregister(session);
+
+		advanceMillis(60_000);
+		awaitEvictions();
+
+		assertThat(pings).isEmpty();
+		assertThat(released).isEmpty();
+		assertThat(session.isOpen()).isTrue();
+	}
+}
@@ -0,0 +1,91 @@
+package com.kong.backend.websocket;
+
+import com.kong.backend.websocket.AlertBus.Delivery;
+import com.kong.backend.websocket.AlertBus.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TcpAlertBusTest {
+
+	private final List<TcpAlertBus> buses = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		buses.forEach(TcpAlertBus::stop);
+	}
+
+	private static int freePort() throws Exception {
+		try (ServerSocket s = new ServerSocket(0)) {
+			return s.getLocalPort();
+		}
+	}
+
+	private TcpAlertBus start(int port, String peers, String secret) throws Exception {
+		TcpAlertBus bus = new TcpAlertBus();
+		ReflectionTestUtils.setField(bus, "port", port);
+		ReflectionTestUtils.setField(bus, "bindAddress", "127.0.0.1");
+		ReflectionTestUtils.setField(bus, "peers", peers);
+		ReflectionTestUtils.setField(bus, "allowedHosts", "");
+		ReflectionTestUtils.setField(bus, "secret", secret);
+		ReflectionTestUtils.setField(bus, "queueCapacity", 16);
+		ReflectionTestUtils.setField(bus, "reconnectMs", 50L);
+		bus.start();
+		buses.add(bus);
+		return bus;
+	}
+
+	/** a → b 로 한 건 보내고 b 가 받은 메시지 (없으면 null) */
+	private static Message sendAndReceive(TcpAlertBus a, TcpAlertBus b, long waitMs) throws Exception {
+		BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+		b.subscribe(received::add);
+		a.publish(new Message(Delivery.SUBSCRIBERS, List.of("user:1"), "{\"eventType\":\"fall\"}", null));
+		return received.poll(waitMs, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	void signedFramesAreDeliveredToPeers() throws Exception {
+		int portA = freePort();
+		int portB = freePort();
+		TcpAlertBus a = start(portA, "127.0.0.1:" + portB, "s3cret");
+		TcpAlertBus b = start(portB, "127.0.0.1:" + portA, "s3cret");
+
+		Message message = sendAndReceive(a, b, 5_000);
+
+		assertThat(message).isNotNull();
+		assertThat(message.topics()).containsExactly("user:1");
+		assertThat(message.frame()).isEqualTo("{\"eventType\":\"fall\"}");
+		assertThat(b.stats().received()).isEqualTo(1);
+	}
+
+	@Test
+	void framesWithWrongSecretAreDropped() throws Exception {
+		int portA = freePort();
+		int portB = freePort();
+		TcpAlertBus a = start(portA, "127.0.0.1:" + portB, "s3cret");
+		TcpAlertBus b = start(portB, "127.0.0.1:" + portA, "other");
+
+		assertThat(sendAndReceive(a, b, 500)).isNull();
+		assertThat(b.stats().received()).isZero();
+	}
+
+	@Test
+	void connectionsFromUnlistedHostsAreRefused() throws Exception {
+		int portA = freePort();
+		int portB = freePort();
+		TcpAlertBus a = start(portA, "127.0.0.1:" + portB, "");
+		TcpAlertBus b = start(portB, "", ""); // 피어 없음 → 받을 주소도 없음
+
+		assertThat(sendAndReceive(a, b, 500)).isNull();
+		assertThat(b.stats().received()).isZero();
+	}
+}